@@ -0,0 +1,11 @@
+package fleet;
+
+/**
+ * How FleetManager.addVehicles treats a batch containing rejected records.
+ */
+public enum BatchMode {
+    // Add nothing if any record in the batch is rejected
+    ALL_OR_NOTHING,
+    // Add every valid record and report the rejected ones
+    BEST_EFFORT
+}
@@ -0,0 +1,109 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk fleet operation: the IDs of vehicles the operation was
+ * applied to, the vehicles it failed for (with the exception raised, e.g.
+ * InsufficientFuelException), and how many vehicles it did not apply to.
+ * IDs are listed in fleet order.
+ *
+ * A batch add may hold null records and the same ID more than once, so its
+ * failures are not keyed by ID: each rejected record is reported by
+ * getRejections with its position in the batch, and getFailures is empty.
+ */
+public class BulkOperationResult {
+
+    private final List<String> succeeded;
+    private final Map<String, Exception> failures;
+    private final List<Rejection> rejections;
+    private final int skipped;
+
+    BulkOperationResult(List<String> succeeded, Map<String, Exception> failures, int skipped) {
+        this(succeeded, failures, new ArrayList<>(), skipped);
+    }
+
+    // Result of a batch add; rejections are in batch order
+    BulkOperationResult(List<String> succeeded, List<Rejection> rejections, int skipped) {
+        this(succeeded, new LinkedHashMap<>(), rejections, skipped);
+    }
+
+    private BulkOperationResult(List<String> succeeded, Map<String, Exception> failures, List<Rejection> rejections, int skipped) {
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.rejections = Collections.unmodifiableList(new ArrayList<>(rejections));
+        this.skipped = skipped;
+    }
+
+    public List<String> getSucceeded() {
+        return succeeded;
+    }
+
+    public Map<String, Exception> getFailures() {
+        return failures;
+    }
+
+    // Records a batch add rejected, in batch order (empty for other operations)
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public int getSuccessCount() {
+        return succeeded.size();
+    }
+
+    public int getFailureCount() {
+        return failures.size() + rejections.size();
+    }
+
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    public boolean hasFailures() {
+        return getFailureCount() > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOperationResult{succeeded=" + succeeded.size() + ", failed=" + getFailureCount() + ", skipped=" + skipped + "}";
+    }
+
+    /**
+     * A record of a batch add that was rejected: its position in the batch
+     * (0-based), its ID (null for a null record) and the reason.
+     */
+    public static final class Rejection {
+
+        private final int position;
+        private final String id;
+        private final Exception exception;
+
+        Rejection(int position, String id, Exception exception) {
+            this.position = position;
+            this.id = id;
+            this.exception = exception;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Rejection{position=" + position + ", id=" + id + ", reason=" + exception.getMessage() + "}";
+        }
+    }
+}
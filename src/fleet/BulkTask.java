@@ -0,0 +1,81 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+import vehicles.Vehicle;
+
+/**
+ * Fork/join task that applies an action to a slice of the fleet, splitting
+ * the slice in half until it is small enough to run directly. Each vehicle's
+ * outcome is written to its own slot so no synchronization is needed; the
+ * slots are turned into a BulkOperationResult once the whole task is done.
+ */
+class BulkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    // Action applied to each vehicle. Returns false if the vehicle was skipped.
+    @FunctionalInterface
+    interface VehicleAction {
+        boolean apply(Vehicle v) throws Exception;
+    }
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    private static final Object SKIPPED = new Object();
+    private static final Object DONE = new Object();
+
+    private final List<Vehicle> vehicles;
+    private final VehicleAction action;
+    // Per vehicle: DONE, SKIPPED or the Exception it failed with
+    private final Object[] outcomes;
+    private final int from;
+    private final int to;
+
+    BulkTask(List<Vehicle> vehicles, VehicleAction action) {
+        this(vehicles, action, new Object[vehicles.size()], 0, vehicles.size());
+    }
+
+    private BulkTask(List<Vehicle> vehicles, VehicleAction action, Object[] outcomes, int from, int to) {
+        this.vehicles = vehicles;
+        this.action = action;
+        this.outcomes = outcomes;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                try {
+                    outcomes[i] = action.apply(vehicles.get(i)) ? DONE : SKIPPED;
+                } catch (Exception e) {
+                    outcomes[i] = e;
+                }
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new BulkTask(vehicles, action, outcomes, from, mid),
+                new BulkTask(vehicles, action, outcomes, mid, to));
+    }
+
+    BulkOperationResult toResult() {
+        List<String> succeeded = new ArrayList<>();
+        Map<String, Exception> failures = new LinkedHashMap<>();
+        int skipped = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == DONE) {
+                succeeded.add(vehicles.get(i).getId());
+            } else if (outcomes[i] == SKIPPED) {
+                skipped++;
+            } else {
+                failures.put(vehicles.get(i).getId(), (Exception) outcomes[i]);
+            }
+        }
+        return new BulkOperationResult(succeeded, failures, skipped);
+    }
+}
@@ -0,0 +1,362 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import vehicles.*;
+
+/**
+ * Struct-of-arrays mirror of the fleet used for fleet-wide aggregates. Each
+ * vehicle occupies one row; its numeric state lives in primitive columns so
+ * sums and min/max searches are plain loops over arrays instead of virtual
+ * calls on scattered Vehicle objects.
+ *
+ * Rows are dense: removing a vehicle moves the last row into the hole, so row
+ * order is not fleet order. Columns are refreshed from the vehicle whenever
+ * FleetManager sees a state change. Vehicles are addressed by their
+ * VehicleHandleTable handle, which maps to a row through a plain int array.
+ *
+ * Fleet-wide totals are kept as running sums: a row's contribution is
+ * withdrawn before its columns are re-read and added back afterwards, so the
+ * totals are O(1) to read. The sums are compensated (Neumaier) so that the
+ * rounding error of millions of withdraw/re-add pairs does not accumulate.
+ */
+class ColumnarFleetStore {
+
+    static final int TYPE_OTHER = 0;
+    static final int TYPE_CAR = 1;
+    static final int TYPE_TRUCK = 2;
+    static final int TYPE_BUS = 3;
+    static final int TYPE_AIRPLANE = 4;
+    static final int TYPE_CARGO_SHIP = 5;
+    static final String[] TYPE_NAMES = {null, "Car", "Truck", "Bus", "Airplane", "CargoShip"};
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private Vehicle[] vehicles = new Vehicle[INITIAL_CAPACITY];
+    private int[] typeCode = new int[INITIAL_CAPACITY];
+    private double[] maxSpeed = new double[INITIAL_CAPACITY];
+    // Multiplier on distance / maxSpeed used by estimateJourneyTime
+    private double[] journeyFactor = new double[INITIAL_CAPACITY];
+    private double[] mileage = new double[INITIAL_CAPACITY];
+    // Fuel level and efficiency are 0 for vehicles that are not FuelConsumable
+    private double[] fuel = new double[INITIAL_CAPACITY];
+    private double[] efficiency = new double[INITIAL_CAPACITY];
+    private double[] cargo = new double[INITIAL_CAPACITY];
+    private int[] passengers = new int[INITIAL_CAPACITY];
+    private boolean[] maintenanceDue = new boolean[INITIAL_CAPACITY];
+    // Row of each vehicle handle (-1 if none) and handle of each row
+    private int[] rowByHandle = new int[0];
+    private int[] handleAt = new int[INITIAL_CAPACITY];
+
+    // Running totals over all rows
+    private final RunningSum totalMileage = new RunningSum();
+    private final RunningSum totalFuel = new RunningSum();
+    private final RunningSum totalEfficiency = new RunningSum();
+    private final RunningSum totalInverseEfficiency = new RunningSum();
+    private int fuelEfficientCount;
+    private int maintenanceDueCount;
+    private final int[] countByTypeCode = new int[TYPE_NAMES.length];
+
+    static int typeCodeOf(Vehicle v) {
+        if (v instanceof Car) {
+            return TYPE_CAR;
+        } else if (v instanceof Truck) {
+            return TYPE_TRUCK;
+        } else if (v instanceof Bus) {
+            return TYPE_BUS;
+        } else if (v instanceof Airplane) {
+            return TYPE_AIRPLANE;
+        } else if (v instanceof CargoShip) {
+            return TYPE_CARGO_SHIP;
+        }
+        return TYPE_OTHER;
+    }
+
+    // The JOURNEY_TIME_FACTOR of land, air or water vehicles; other classes are measured once
+    static double journeyFactorOf(Vehicle v) {
+        if (v instanceof LandVehicle) {
+            return LandVehicle.JOURNEY_TIME_FACTOR;
+        } else if (v instanceof AirVehicle) {
+            return AirVehicle.JOURNEY_TIME_FACTOR;
+        } else if (v instanceof WaterVehicle) {
+            return WaterVehicle.JOURNEY_TIME_FACTOR;
+        }
+        return v.getMaxSpeed() > 0 ? v.estimateJourneyTime(v.getMaxSpeed()) : 1.0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(Vehicle v, int handle) {
+        if (size == vehicles.length) {
+            grow();
+        }
+        if (handle >= rowByHandle.length) {
+            int oldLength = rowByHandle.length;
+            rowByHandle = Arrays.copyOf(rowByHandle, Math.max(handle + 1, oldLength * 2));
+            Arrays.fill(rowByHandle, oldLength, rowByHandle.length, -1);
+        }
+        int row = size++;
+        vehicles[row] = v;
+        typeCode[row] = typeCodeOf(v);
+        maxSpeed[row] = v.getMaxSpeed();
+        journeyFactor[row] = journeyFactorOf(v);
+        handleAt[row] = handle;
+        rowByHandle[handle] = row;
+        countByTypeCode[typeCode[row]]++;
+        read(row);
+        contribute(row, 1);
+    }
+
+    void remove(int handle) {
+        int row = rowOf(handle);
+        if (row < 0) {
+            return;
+        }
+        rowByHandle[handle] = -1;
+        contribute(row, -1);
+        countByTypeCode[typeCode[row]]--;
+        int last = --size;
+        if (row != last) {
+            vehicles[row] = vehicles[last];
+            typeCode[row] = typeCode[last];
+            maxSpeed[row] = maxSpeed[last];
+            journeyFactor[row] = journeyFactor[last];
+            mileage[row] = mileage[last];
+            fuel[row] = fuel[last];
+            efficiency[row] = efficiency[last];
+            cargo[row] = cargo[last];
+            passengers[row] = passengers[last];
+            maintenanceDue[row] = maintenanceDue[last];
+            handleAt[row] = handleAt[last];
+            rowByHandle[handleAt[row]] = row;
+        }
+        vehicles[last] = null;
+        if (size == 0) {
+            // Drop any rounding residue left by the running sums
+            resetTotals();
+        }
+    }
+
+    void clear() {
+        Arrays.fill(vehicles, 0, size, null);
+        size = 0;
+        Arrays.fill(rowByHandle, -1);
+        resetTotals();
+    }
+
+    private void resetTotals() {
+        totalMileage.reset();
+        totalFuel.reset();
+        totalEfficiency.reset();
+        totalInverseEfficiency.reset();
+        fuelEfficientCount = 0;
+        maintenanceDueCount = 0;
+        Arrays.fill(countByTypeCode, 0);
+    }
+
+    // Re-read the mutable columns of a vehicle after a state change.
+    void update(int handle) {
+        int row = rowOf(handle);
+        if (row >= 0) {
+            contribute(row, -1);
+            read(row);
+            contribute(row, 1);
+        }
+    }
+
+    private int rowOf(int handle) {
+        return handle < 0 || handle >= rowByHandle.length ? -1 : rowByHandle[handle];
+    }
+
+    // Add (sign 1) or withdraw (sign -1) a row's share of the running totals.
+    private void contribute(int row, int sign) {
+        totalMileage.add(sign * mileage[row]);
+        totalFuel.add(sign * fuel[row]);
+        if (efficiency[row] > 0) {
+            totalEfficiency.add(sign * efficiency[row]);
+            totalInverseEfficiency.add(sign / efficiency[row]);
+            fuelEfficientCount += sign;
+        }
+        if (maintenanceDue[row]) {
+            maintenanceDueCount += sign;
+        }
+    }
+
+    private void read(int row) {
+        Vehicle v = vehicles[row];
+        mileage[row] = v.getCurrentMileage();
+        if (v instanceof FuelConsumable) {
+            fuel[row] = ((FuelConsumable) v).getFuelLevel();
+            efficiency[row] = v.calculateFuelEfficiency();
+        } else {
+            fuel[row] = 0;
+            efficiency[row] = 0;
+        }
+        cargo[row] = v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0;
+        passengers[row] = v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+        maintenanceDue[row] = v instanceof Maintainable && ((Maintainable) v).needsMaintenance();
+    }
+
+    private void grow() {
+        int capacity = vehicles.length * 2;
+        vehicles = Arrays.copyOf(vehicles, capacity);
+        typeCode = Arrays.copyOf(typeCode, capacity);
+        maxSpeed = Arrays.copyOf(maxSpeed, capacity);
+        journeyFactor = Arrays.copyOf(journeyFactor, capacity);
+        mileage = Arrays.copyOf(mileage, capacity);
+        fuel = Arrays.copyOf(fuel, capacity);
+        efficiency = Arrays.copyOf(efficiency, capacity);
+        cargo = Arrays.copyOf(cargo, capacity);
+        passengers = Arrays.copyOf(passengers, capacity);
+        maintenanceDue = Arrays.copyOf(maintenanceDue, capacity);
+        handleAt = Arrays.copyOf(handleAt, capacity);
+    }
+
+    Vehicle vehicleAt(int row) {
+        return vehicles[row];
+    }
+
+    int typeCodeAt(int row) {
+        return typeCode[row];
+    }
+
+    private double[] column(FleetMetric metric) {
+        switch (metric) {
+            case SPEED:
+                return maxSpeed;
+            case MILEAGE:
+                return mileage;
+            case FUEL:
+                return fuel;
+            case EFFICIENCY:
+                return efficiency;
+            case CARGO:
+                return cargo;
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    // Rows in ascending order of a metric; the passenger column is int, the rest double.
+    private Comparator<Integer> byValue(FleetMetric metric) {
+        if (metric == FleetMetric.PASSENGERS) {
+            int[] counts = passengers;
+            return (a, b) -> Integer.compare(counts[a], counts[b]);
+        }
+        double[] values = column(metric);
+        return (a, b) -> Double.compare(values[a], values[b]);
+    }
+
+    /**
+     * Rows of the k vehicles with the largest (or smallest) value of a metric,
+     * best first, ties broken by ID. Uses a heap bounded to k rows, so the
+     * cost is O(n log k) and no ordering of the fleet is touched.
+     */
+    int[] extremeRows(FleetMetric metric, int k, boolean largest) {
+        // "better" orders rows from best to worst for this query
+        Comparator<Integer> byValue = byValue(metric);
+        Comparator<Integer> better = (largest ? byValue.reversed() : byValue)
+                .thenComparing(row -> vehicles[row].getId());
+        int limit = Math.min(k, size);
+        if (limit <= 0) {
+            return new int[0];
+        }
+        // The heap's head is the worst row kept so far
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit, better.reversed());
+        for (int row = 0; row < size; row++) {
+            if (heap.size() < limit) {
+                heap.add(row);
+            } else if (better.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+        int[] rows = new int[heap.size()];
+        for (int i = rows.length - 1; i >= 0; i--) {
+            rows[i] = heap.poll();
+        }
+        return rows;
+    }
+
+    // Journey time in hours for every row, in row order.
+    double[] journeyTimes(double distance, FleetKernels kernels) {
+        double[] hours = new double[size];
+        kernels.journeyTimes(distance, maxSpeed, journeyFactor, size, hours);
+        return hours;
+    }
+
+    // Fuel for every vehicle to travel the distance, summed over the columns rather than the running total.
+    double fuelConsumption(double distance, FleetKernels kernels) {
+        return kernels.totalFuelConsumption(distance, efficiency, size);
+    }
+
+    Vehicle[] vehicles() {
+        return Arrays.copyOf(vehicles, size);
+    }
+
+    // AGGREGATES (running totals, O(1))
+
+    double totalMileage() {
+        return totalMileage.value();
+    }
+
+    double totalFuel() {
+        return totalFuel.value();
+    }
+
+    double totalEfficiency() {
+        return totalEfficiency.value();
+    }
+
+    int countFuelEfficient() {
+        return fuelEfficientCount;
+    }
+
+    int countMaintenanceDue() {
+        return maintenanceDueCount;
+    }
+
+    // Sum of distance / efficiency over every vehicle with a positive efficiency.
+    double totalFuelConsumption(double distance) {
+        return distance * totalInverseEfficiency.value();
+    }
+
+    int[] countByTypeCode() {
+        return countByTypeCode.clone();
+    }
+
+    // Neumaier-compensated sum: the low-order bits lost by each addition are
+    // collected in a second term and folded back in when the value is read.
+    private static final class RunningSum {
+
+        private double sum;
+        private double compensation;
+
+        void add(double x) {
+            double t = sum + x;
+            if (Math.abs(sum) >= Math.abs(x)) {
+                compensation += (sum - t) + x;
+            } else {
+                compensation += (x - t) + sum;
+            }
+            sum = t;
+        }
+
+        double value() {
+            return sum + compensation;
+        }
+
+        void reset() {
+            sum = 0;
+            compensation = 0;
+        }
+    }
+}
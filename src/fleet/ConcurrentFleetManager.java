@@ -0,0 +1,577 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import vehicles.Vehicle;
+import vehicles.VehicleProperty;
+
+/**
+ * Thread-safe FleetManager for use while other threads (e.g. the highway
+ * simulator) mutate fleet vehicles or while imports run alongside reports.
+ *
+ * A ReentrantReadWriteLock guards the fleet and its indexes: queries and
+ * reports share the read lock, structural changes and bulk operations take
+ * the write lock, and index updates triggered by vehicle state changes on
+ * other threads take the write lock as well. Lookups by ID go through a
+ * ConcurrentHashMap and never lock, and neither does takeSnapshot. Live
+ * views of the base class are replaced by copies taken under the read
+ * lock, so callers always get a consistent snapshot. loadFromFile parses
+ * without holding any lock and only locks to swap the new fleet in.
+ * Change batches for getChanges() are published after the write lock is
+ * released. Journal checkpoints copy the fleet under the read lock and
+ * save the copy on the journal's own thread.
+ */
+public class ConcurrentFleetManager extends FleetManager {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Vehicle> byId = new ConcurrentHashMap<>();
+
+    @Override
+    public void addVehicle(Vehicle v) throws InvalidOperationException {
+        lock.writeLock().lock();
+        try {
+            super.addVehicle(v);
+            byId.put(v.getId(), v);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // addVehicles runs this under the lock and prints its summary afterwards
+    @Override
+    BulkOperationResult addBatch(Collection<? extends Vehicle> batch, BatchMode mode) {
+        lock.writeLock().lock();
+        try {
+            BulkOperationResult result = super.addBatch(batch, mode);
+            for (String id : result.getSucceeded()) {
+                byId.put(id, super.getVehicleById(id));
+            }
+            return result;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void removeVehicle(String id) throws InvalidOperationException {
+        lock.writeLock().lock();
+        try {
+            super.removeVehicle(id);
+            byId.remove(id);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Vehicle getVehicleById(String id) {
+        return byId.get(id);
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public int getHandle(String id) {
+        lock.readLock().lock();
+        try {
+            return super.getHandle(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Vehicle getVehicleByHandle(int handle) {
+        lock.readLock().lock();
+        try {
+            return super.getVehicleByHandle(handle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getModelCode(String model) {
+        lock.readLock().lock();
+        try {
+            return super.getModelCode(model);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getModelName(int code) {
+        lock.readLock().lock();
+        try {
+            return super.getModelName(code);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The current snapshot is published through a volatile field by writers
+    // that already hold the write lock, so readers never need to lock.
+    @Override
+    public FleetSnapshot takeSnapshot() {
+        return super.takeSnapshot();
+    }
+
+    // Release the write lock and, once the outermost write is done, flush
+    // the changes it made. Publishing can wait on a slow subscriber, so it
+    // does not run under the lock.
+    private void unlockWrite() {
+        lock.writeLock().unlock();
+        if (!lock.isWriteLockedByCurrentThread()) {
+            super.flushChanges();
+        }
+    }
+
+    @Override
+    protected void flushChanges() {
+        if (!lock.isWriteLockedByCurrentThread()) {
+            super.flushChanges();
+        }
+    }
+
+    @Override
+    protected void onVehicleStateChanged(Vehicle v, Set<VehicleProperty> properties) {
+        lock.writeLock().lock();
+        try {
+            super.onVehicleStateChanged(v, properties);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    protected void replaceFleet(Map<String, Vehicle> newFleet) {
+        lock.writeLock().lock();
+        try {
+            super.replaceFleet(newFleet);
+            byId.clear();
+            byId.putAll(newFleet);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // BULK OPERATIONS (mutate vehicles, so they hold the write lock throughout)
+
+    @Override
+    public void startAllJourneys(double distance) {
+        lock.writeLock().lock();
+        try {
+            super.startAllJourneys(distance);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void maintainAll() {
+        lock.writeLock().lock();
+        try {
+            super.maintainAll();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void refuelAll(double refuelAmount) throws InvalidOperationException {
+        lock.writeLock().lock();
+        try {
+            super.refuelAll(refuelAmount);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public BulkOperationResult startAllJourneys(double distance, ForkJoinPool pool) {
+        lock.writeLock().lock();
+        try {
+            return super.startAllJourneys(distance, pool);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public BulkOperationResult maintainAll(ForkJoinPool pool) {
+        lock.writeLock().lock();
+        try {
+            return super.maintainAll(pool);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public BulkOperationResult refuelAll(double refuelAmount, ForkJoinPool pool) throws InvalidOperationException {
+        lock.writeLock().lock();
+        try {
+            return super.refuelAll(refuelAmount, pool);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // SORTING (re-links the fleet order)
+
+    @Override
+    public void sortFleetByEfficiency() {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetByEfficiency();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void sortFleetByEfficiency(boolean ascending) {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetByEfficiency(ascending);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void sortFleetByModel(boolean ascending) {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetByModel(ascending);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void sortFleetBySpeed(boolean ascending) {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetBySpeed(ascending);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void sortFleetByMileage(boolean ascending) {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetByMileage(ascending);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void sortFleetById(boolean ascending) {
+        lock.writeLock().lock();
+        try {
+            super.sortFleetById(ascending);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // QUERIES AND REPORTS
+
+    @Override
+    public double getTotalFuelConsumption(double distance) {
+        lock.readLock().lock();
+        try {
+            return super.getTotalFuelConsumption(distance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public double getTotalFuelRemaining() {
+        lock.readLock().lock();
+        try {
+            return super.getTotalFuelRemaining();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesNeedingMaintenance() {
+        lock.readLock().lock();
+        try {
+            return super.getVehiclesNeedingMaintenance();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesDueWithin(double kilometres) {
+        lock.readLock().lock();
+        try {
+            return super.getVehiclesDueWithin(kilometres);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> searchByType(Class<?> type) {
+        lock.readLock().lock();
+        try {
+            return super.searchByType(type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Vehicle> getTypeView(Class<?> type) {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(super.getTypeView(type)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByType(Class<?> type) {
+        lock.readLock().lock();
+        try {
+            return super.countByType(type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getDistinctModels() {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableSet(new TreeSet<>(super.getDistinctModels()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getModelCount(String model) {
+        lock.readLock().lock();
+        try {
+            return super.getModelCount(model);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Vehicle> getVehiclesByModel(String model) {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(super.getVehiclesByModel(model)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Vehicle getFastestVehicle() {
+        lock.readLock().lock();
+        try {
+            return super.getFastestVehicle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Vehicle getSlowestVehicle() {
+        lock.readLock().lock();
+        try {
+            return super.getSlowestVehicle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> topK(FleetMetric metric, int k) {
+        lock.readLock().lock();
+        try {
+            return super.topK(metric, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> bottomK(FleetMetric metric, int k) {
+        lock.readLock().lock();
+        try {
+            return super.bottomK(metric, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> findInRange(FleetMetric metric, double min, double max) {
+        lock.readLock().lock();
+        try {
+            return super.findInRange(metric, min, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> findInRange(FleetMetric metric, double min, double max, Class<?> type) {
+        lock.readLock().lock();
+        try {
+            return super.findInRange(metric, min, max, type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterable<Vehicle> orderedBy(FleetOrder order, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            List<Vehicle> copy = new ArrayList<>();
+            for (Vehicle v : super.orderedBy(order, ascending)) {
+                copy.add(v);
+            }
+            return Collections.unmodifiableList(copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getPage(FleetOrder order, boolean ascending, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return super.getPage(order, ascending, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public JourneyEstimates estimateJourneyTimes(double distance) {
+        lock.readLock().lock();
+        try {
+            return super.estimateJourneyTimes(distance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> query(FleetQuery query) {
+        lock.readLock().lock();
+        try {
+            return super.query(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String explain(FleetQuery query) {
+        lock.readLock().lock();
+        try {
+            return super.explain(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getFleetSnapshot() {
+        lock.readLock().lock();
+        try {
+            return super.getFleetSnapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public FleetStatistics getStatistics() {
+        lock.readLock().lock();
+        try {
+            return super.getStatistics();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String generateReport(boolean includeMaintenanceListing) {
+        lock.readLock().lock();
+        try {
+            return super.generateReport(includeMaintenanceListing);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveToFile(String filename) throws IOException {
+        lock.readLock().lock();
+        try {
+            super.saveToFile(filename);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Under the read lock no change can be recorded between the copy and
+    // the journal's rotation mark
+    @Override
+    List<Vehicle> captureForCheckpoint(FleetJournal log) {
+        lock.readLock().lock();
+        try {
+            return super.captureForCheckpoint(log);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveToFile(String filename, ForkJoinPool pool) throws IOException {
+        lock.readLock().lock();
+        try {
+            super.saveToFile(filename, pool);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveToBinaryFile(String filename) throws IOException {
+        lock.readLock().lock();
+        try {
+            super.saveToBinaryFile(filename);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
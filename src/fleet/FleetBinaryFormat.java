@@ -0,0 +1,466 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import vehicles.Airplane;
+import vehicles.Bus;
+import vehicles.Car;
+import vehicles.CargoShip;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+/**
+ * Binary snapshot format for the fleet. It stores numbers as raw
+ * little-endian values, so saving and loading do no number formatting or
+ * parsing, unlike the CSV files of saveToFile and loadFromFile.
+ *
+ * Layout of version 1 (all values little-endian):
+ * - header: the magic bytes "FLTB", u16 version, u16 type count,
+ *   i32 string count, i32 vehicle count;
+ * - type dictionary: for each type, its name (u8 length + ASCII) and u16
+ *   record width. A type's position in this list is its type code;
+ * - string table: every ID and model once, as i32 length + UTF-8 bytes;
+ * - records, in fleet order. Each is a u8 type code followed by a record
+ *   of that type's width:
+ *   - i32 ID and i32 model, as string table indexes (-1 for no model);
+ *   - f64 max speed and f64 mileage;
+ *   - the type's own fields in CSV column order: i32 for counts, f64 for
+ *     amounts, u8 for flags;
+ * - trailer: the CRC32 of all preceding bytes, as an i32.
+ *
+ * Files are written in one sequential pass and loaded by mapping them.
+ * VehicleFactory turns records back into vehicles the same way it turns
+ * CSV rows into vehicles, so a fleet loads the same from either format.
+ */
+public final class FleetBinaryFormat {
+
+    static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'F', 'L', 'T', 'B'};
+    private static final int HEADER_SIZE = 16;
+    private static final int TRAILER_SIZE = 4;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int NO_STRING = -1;
+
+    // Column kinds: type name, string table index, i32, f64 and u8 flag
+    private static final char TYPE = 'T';
+    private static final char STRING = 'S';
+    private static final char INT = 'I';
+    private static final char DOUBLE = 'D';
+    private static final char FLAG = 'Z';
+
+    // Record layouts by CSV columns; the ordinal is the type code written
+    private enum RecordType {
+        CAR("Car", INT, DOUBLE, INT),
+        TRUCK("Truck", INT, DOUBLE, DOUBLE),
+        BUS("Bus", INT, DOUBLE, INT, DOUBLE),
+        AIRPLANE("Airplane", DOUBLE, DOUBLE, INT, DOUBLE),
+        CARGO_SHIP("CargoShip", FLAG, DOUBLE, DOUBLE);
+
+        final String typeName;
+        final char[] columns;
+        // Offset of each column within the record; the type is not part of it
+        final int[] offsets;
+        final int width;
+
+        RecordType(String typeName, char... extraColumns) {
+            this.typeName = typeName;
+            this.columns = new char[5 + extraColumns.length];
+            columns[0] = TYPE;
+            columns[1] = STRING;
+            columns[2] = STRING;
+            columns[3] = DOUBLE;
+            columns[4] = DOUBLE;
+            System.arraycopy(extraColumns, 0, columns, 5, extraColumns.length);
+            this.offsets = new int[columns.length];
+            int offset = 0;
+            for (int i = 1; i < columns.length; i++) {
+                offsets[i] = offset;
+                offset += columns[i] == DOUBLE ? Double.BYTES : columns[i] == FLAG ? 1 : Integer.BYTES;
+            }
+            this.width = offset;
+        }
+
+        // Same instanceof chain as VehicleFactory.toCsvRow
+        static RecordType of(Vehicle vehicle) {
+            if (vehicle instanceof Car) {
+                return CAR;
+            } else if (vehicle instanceof Truck) {
+                return TRUCK;
+            } else if (vehicle instanceof Bus) {
+                return BUS;
+            } else if (vehicle instanceof Airplane) {
+                return AIRPLANE;
+            } else if (vehicle instanceof CargoShip) {
+                return CARGO_SHIP;
+            }
+            return null;
+        }
+
+        static RecordType named(String typeName) {
+            for (RecordType type : values()) {
+                if (type.typeName.equals(typeName)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private FleetBinaryFormat() {
+    }
+
+    /**
+     * Converts a fleet CSV file to a binary snapshot. The CSV is read as
+     * loadFromFile reads it, so malformed lines and duplicate IDs are
+     * reported and skipped.
+     */
+    public static void csvToBinary(String csvFile, String binaryFile) throws IOException {
+        write(FleetCsvReader.readFleet(csvFile).values(), binaryFile);
+    }
+
+    // Converts a binary snapshot to the CSV layout of saveToFile.
+    public static void binaryToCsv(String binaryFile, String csvFile) throws IOException {
+        Collection<Vehicle> vehicles = read(binaryFile).values();
+        try (FleetCsvWriter writer = FleetCsvWriter.create(csvFile)) {
+            writer.writeHeader();
+            for (Vehicle vehicle : vehicles) {
+                writer.write(vehicle);
+            }
+            writer.flush();
+        }
+    }
+
+    static void write(Collection<Vehicle> vehicles, String filename) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Vehicle vehicle : vehicles) {
+            strings.putIfAbsent(vehicle.getId(), strings.size());
+            if (vehicle.getModel() != null) {
+                strings.putIfAbsent(vehicle.getModel(), strings.size());
+            }
+        }
+        RecordType[] types = RecordType.values();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.put(MAGIC);
+            out.ensure(HEADER_SIZE - MAGIC.length);
+            out.buffer.putShort((short) VERSION).putShort((short) types.length)
+                    .putInt(strings.size()).putInt(vehicles.size());
+            for (RecordType type : types) {
+                byte[] name = type.typeName.getBytes(StandardCharsets.US_ASCII);
+                out.ensure(1 + name.length + Short.BYTES);
+                out.buffer.put((byte) name.length).put(name).putShort((short) type.width);
+            }
+            for (String text : strings.keySet()) {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                out.ensure(Integer.BYTES);
+                out.buffer.putInt(bytes.length);
+                out.put(bytes);
+            }
+            for (Vehicle vehicle : vehicles) {
+                RecordType type = RecordType.of(vehicle);
+                if (type == null) {
+                    throw new IOException("Cannot store " + vehicle.getClass().getSimpleName()
+                            + " " + vehicle.getId() + " in a binary fleet file");
+                }
+                out.ensure(1 + type.width);
+                writeRecord(out.buffer, type, vehicle, strings);
+            }
+            out.flush();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) out.crc.getValue()).flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new FileNotFoundException(filename);
+        }
+    }
+
+    private static void writeRecord(ByteBuffer buffer, RecordType type, Vehicle vehicle, Map<String, Integer> strings) {
+        buffer.put((byte) type.ordinal());
+        buffer.putInt(strings.get(vehicle.getId()));
+        buffer.putInt(vehicle.getModel() == null ? NO_STRING : strings.get(vehicle.getModel()));
+        buffer.putDouble(vehicle.getMaxSpeed());
+        buffer.putDouble(vehicle.getCurrentMileage());
+        switch (type) {
+            case CAR: {
+                Car car = (Car) vehicle;
+                buffer.putInt(car.getNumWheels()).putDouble(car.getFuelLevel()).putInt(car.getCurrentPassengers());
+                break;
+            }
+            case TRUCK: {
+                Truck truck = (Truck) vehicle;
+                buffer.putInt(truck.getNumWheels()).putDouble(truck.getFuelLevel()).putDouble(truck.getCurrentCargo());
+                break;
+            }
+            case BUS: {
+                Bus bus = (Bus) vehicle;
+                buffer.putInt(bus.getNumWheels()).putDouble(bus.getFuelLevel())
+                        .putInt(bus.getCurrentPassengers()).putDouble(bus.getCurrentCargo());
+                break;
+            }
+            case AIRPLANE: {
+                Airplane airplane = (Airplane) vehicle;
+                buffer.putDouble(airplane.getMaxAltitude()).putDouble(airplane.getFuelLevel())
+                        .putInt(airplane.getCurrentPassengers()).putDouble(airplane.getCurrentCargo());
+                break;
+            }
+            case CARGO_SHIP: {
+                CargoShip ship = (CargoShip) vehicle;
+                buffer.put((byte) (ship.getHasSail() ? 1 : 0)).putDouble(ship.getFuelLevel())
+                        .putDouble(ship.getCurrentCargo());
+                break;
+            }
+        }
+    }
+
+    /**
+     * The vehicles of a binary snapshot by ID, in file order. A record that
+     * VehicleFactory rejects, or whose ID was already seen, is reported on
+     * System.err and skipped, the same way loadFromFile treats CSV lines.
+     * A file that is truncated, fails its checksum, has another version,
+     * holds a count or length larger than the rest of the file or refers to
+     * strings outside its string table throws an IOException.
+     */
+    static Map<String, Vehicle> read(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary fleet file is too large to map: " + filename);
+            }
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Not a binary fleet file: " + filename);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            int end = (int) size - TRAILER_SIZE;
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (data.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a binary fleet file: " + filename);
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data.duplicate().limit(end));
+            if ((int) crc.getValue() != data.getInt(end)) {
+                throw new IOException("Checksum mismatch in binary fleet file: " + filename);
+            }
+            data.limit(end).position(MAGIC.length);
+            int version = data.getShort() & 0xffff;
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary fleet file version " + version + ": " + filename);
+            }
+            int typeCount = data.getShort() & 0xffff;
+            int stringCount = data.getInt();
+            int vehicleCount = data.getInt();
+            // Counts and lengths are checked against the bytes left before
+            // anything is allocated for them: a corrupt count under a valid
+            // checksum must fail the load, not exhaust the heap. A type entry
+            // takes at least 3 bytes, a string 4 and a record 1 plus its width.
+            if (typeCount > data.remaining() / 3) {
+                throw new IOException("Corrupt binary fleet file: " + filename);
+            }
+            RecordType[] types = new RecordType[typeCount];
+            for (int code = 0; code < types.length; code++) {
+                byte[] name = new byte[data.get() & 0xff];
+                data.get(name);
+                int width = data.getShort() & 0xffff;
+                RecordType type = RecordType.named(new String(name, StandardCharsets.US_ASCII));
+                if (type == null || type.width != width) {
+                    throw new IOException("Unsupported record type " + new String(name, StandardCharsets.US_ASCII)
+                            + " in binary fleet file: " + filename);
+                }
+                types[code] = type;
+            }
+            if (stringCount < 0 || stringCount > data.remaining() / 4) {
+                throw new IOException("Corrupt binary fleet file: " + filename);
+            }
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                int length = data.getInt();
+                if (length < 0 || length > data.remaining()) {
+                    throw new IOException("Corrupt binary fleet file: " + filename);
+                }
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int narrowest = Integer.MAX_VALUE;
+            for (RecordType type : types) {
+                narrowest = Math.min(narrowest, type.width);
+            }
+            if (vehicleCount < 0 || (vehicleCount > 0 && vehicleCount * (1L + narrowest) > data.remaining())) {
+                throw new IOException("Corrupt binary fleet file: " + filename);
+            }
+
+            Map<String, Vehicle> fleet = new LinkedHashMap<>();
+            Record record = new Record(data, strings);
+            for (int i = 0; i < vehicleCount; i++) {
+                int code = data.get() & 0xff;
+                if (code >= types.length || data.remaining() < types[code].width) {
+                    throw new IOException("Corrupt binary fleet file: " + filename);
+                }
+                record.moveTo(types[code], data.position());
+                if (!record.hasValidStrings()) {
+                    throw new IOException("Corrupt binary fleet file: " + filename);
+                }
+                data.position(data.position() + types[code].width);
+                try {
+                    Vehicle v = VehicleFactory.createVehicle(record);
+                    if (fleet.containsKey(v.getId())) {
+                        throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
+                    }
+                    fleet.put(v.getId(), v);
+                } catch (Exception e) {
+                    System.err.println("Skipping invalid record in " + filename + ": " + record + " (" + e.getMessage() + ")");
+                }
+            }
+            if (data.hasRemaining()) {
+                throw new IOException("Corrupt binary fleet file: " + filename);
+            }
+            return fleet;
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new FileNotFoundException(filename);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt binary fleet file: " + filename);
+        }
+    }
+
+    // Buffered sequential output that keeps a running CRC32 of what it wrote
+    private static final class Output {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length <= buffer.capacity()) {
+                ensure(bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+            flush();
+            crc.update(bytes);
+            ByteBuffer direct = ByteBuffer.wrap(bytes);
+            while (direct.hasRemaining()) {
+                channel.write(direct);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    // One record of a mapped file, read by CSV column for VehicleFactory
+    private static final class Record implements VehicleFactory.Fields {
+        private final ByteBuffer data;
+        private final String[] strings;
+        private RecordType type;
+        private int base;
+
+        Record(ByteBuffer data, String[] strings) {
+            this.data = data;
+            this.strings = strings;
+        }
+
+        void moveTo(RecordType type, int base) {
+            this.type = type;
+            this.base = base;
+        }
+
+        // Whether the ID and model point into the string table; only the model may be absent
+        boolean hasValidStrings() {
+            int id = data.getInt(base + type.offsets[1]);
+            int model = data.getInt(base + type.offsets[2]);
+            return id >= 0 && id < strings.length && model >= NO_STRING && model < strings.length;
+        }
+
+        @Override
+        public int size() {
+            return type.columns.length;
+        }
+
+        @Override
+        public String text(int i) {
+            switch (type.columns[i]) {
+                case TYPE:
+                    return type.typeName;
+                case STRING: {
+                    int index = data.getInt(base + type.offsets[i]);
+                    return index == NO_STRING ? null : strings[index];
+                }
+                case INT:
+                    return Integer.toString(intAt(i));
+                case DOUBLE:
+                    return Double.toString(doubleAt(i));
+                default:
+                    return Boolean.toString(booleanAt(i));
+            }
+        }
+
+        // Models come from the string table, so equal models already share one String
+        @Override
+        public String sharedText(int i) {
+            return text(i);
+        }
+
+        @Override
+        public double doubleAt(int i) {
+            return data.getDouble(base + type.offsets[i]);
+        }
+
+        @Override
+        public int intAt(int i) {
+            return data.getInt(base + type.offsets[i]);
+        }
+
+        @Override
+        public boolean booleanAt(int i) {
+            return data.get(base + type.offsets[i]) != 0;
+        }
+
+        // The record as a CSV row, for error messages
+        @Override
+        public String toString() {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < size(); i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append(text(i));
+            }
+            return row.toString();
+        }
+    }
+}
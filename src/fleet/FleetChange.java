@@ -0,0 +1,81 @@
+package fleet;
+
+import vehicles.VehicleProperty;
+
+/**
+ * One change to a FleetManager's fleet, as delivered by
+ * FleetManager.getChanges(). Each change carries the version of the
+ * FleetSnapshot it produced, so a consumer can start from takeSnapshot()
+ * and apply only the changes with a higher version.
+ */
+public final class FleetChange {
+
+    private final FleetChangeType type;
+    private final String vehicleId;
+    private final VehicleProperty property;
+    private final VehicleState state;
+    private final FleetSnapshot loaded;
+    private final long version;
+
+    private FleetChange(FleetChangeType type, String vehicleId, VehicleProperty property, VehicleState state,
+            FleetSnapshot loaded, long version) {
+        this.type = type;
+        this.vehicleId = vehicleId;
+        this.property = property;
+        this.state = state;
+        this.loaded = loaded;
+        this.version = version;
+    }
+
+    static FleetChange added(VehicleState state, long version) {
+        return new FleetChange(FleetChangeType.ADDED, state.id(), null, state, null, version);
+    }
+
+    static FleetChange removed(VehicleState lastState, long version) {
+        return new FleetChange(FleetChangeType.REMOVED, lastState.id(), null, lastState, null, version);
+    }
+
+    static FleetChange updated(VehicleState state, VehicleProperty property, long version) {
+        return new FleetChange(FleetChangeType.UPDATED, state.id(), property, state, null, version);
+    }
+
+    static FleetChange loaded(FleetSnapshot fleet) {
+        return new FleetChange(FleetChangeType.LOADED, null, null, null, fleet, fleet.getVersion());
+    }
+
+    public FleetChangeType getType() {
+        return type;
+    }
+
+    // null for LOADED
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    // The property that changed; null unless the type is UPDATED
+    public VehicleProperty getProperty() {
+        return property;
+    }
+
+    // State after the change (last known state for REMOVED); null for LOADED
+    public VehicleState getState() {
+        return state;
+    }
+
+    // The complete new fleet for LOADED; null otherwise
+    public FleetSnapshot getLoadedFleet() {
+        return loaded;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        if (type == FleetChangeType.LOADED) {
+            return "LOADED " + loaded.size() + " vehicle(s) @" + version;
+        }
+        return type + " " + vehicleId + (property == null ? "" : " " + property) + " @" + version;
+    }
+}
@@ -0,0 +1,15 @@
+package fleet;
+
+/**
+ * What happened to the fleet in a {@link FleetChange}.
+ */
+public enum FleetChangeType {
+    // A vehicle joined the fleet
+    ADDED,
+    // A vehicle left the fleet
+    REMOVED,
+    // The whole fleet was replaced, e.g. by loadFromFile
+    LOADED,
+    // A vehicle's mileage, fuel, cargo, passengers or maintenance state changed
+    UPDATED
+}
@@ -0,0 +1,390 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import vehicles.Vehicle;
+
+/**
+ * Streaming reader for the fleet CSV format that tokenizes each line in
+ * place. Lines are read into one reusable buffer and each field is
+ * remembered only as a start and end offset. VehicleFactory then reads
+ * numbers straight from the bytes, so a record allocates only its ID and,
+ * the first time it is seen, its model.
+ *
+ * Follows what loadFromFile did with readLine, trim and split(","):
+ * - lines end at \n, \r or \r\n;
+ * - blank lines and a "type," header (in any case) are skipped;
+ * - fields are trimmed, and trailing empty fields are dropped.
+ * Numbers outside the fast paths (exponents, more than 18 digits,
+ * malformed text, ...) are handed to Double.parseDouble or
+ * Integer.parseInt, so values and error messages match as well.
+ *
+ * Files are read as UTF-8 on every platform, like journals and binary
+ * snapshots. The FileReader that loadFromFile used before decoded with the
+ * platform charset, which is only UTF-8 by default from JDK 18 on. ASCII
+ * files read the same either way; a file with non-ASCII IDs or models that
+ * was saved in another charset (e.g. windows-1252) has to be converted to
+ * UTF-8, or its invalid bytes are read as U+FFFD.
+ */
+final class FleetCsvReader implements VehicleFactory.Fields, Closeable {
+
+    private static final int INITIAL_BUFFER = 1 << 16;
+    // Exactly representable powers of ten
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Direct-mapped cache for sharedText
+    private static final int SHARED_SLOTS = 256;
+    private static final int MAX_SHARED_LENGTH = 64;
+
+    private final ReadableByteChannel in;
+    private ByteBuffer buffer;
+    // Bytes [0, limit) of the buffer hold data; the next line starts at position
+    private int limit;
+    private int position;
+    private boolean endOfInput;
+
+    // Current line, without its terminator
+    private int lineStart;
+    private int lineEnd;
+    private int fieldCount;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+
+    private final byte[][] sharedBytes = new byte[SHARED_SLOTS][];
+    private final String[] sharedStrings = new String[SHARED_SLOTS];
+
+    FleetCsvReader(ReadableByteChannel in) {
+        this.in = in;
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER);
+    }
+
+    // Reads the bytes of a fixed region, e.g. one chunk of a memory-mapped file
+    FleetCsvReader(ByteBuffer region) {
+        this.in = null;
+        this.buffer = region;
+        this.limit = region.limit();
+        this.endOfInput = true;
+    }
+
+    static FleetCsvReader open(String filename) throws IOException {
+        try {
+            return new FleetCsvReader(FileChannel.open(Paths.get(filename), StandardOpenOption.READ));
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new FileNotFoundException(filename);
+        }
+    }
+
+    /**
+     * The vehicles of a CSV file by ID, in file order. Blank lines and the
+     * header are skipped; fields are tokenized and parsed in place, without
+     * splitting each line into strings. Malformed lines and duplicate IDs
+     * are reported on System.err and skipped.
+     */
+    static Map<String, Vehicle> readFleet(String filename) throws IOException {
+        try (FleetCsvReader reader = open(filename)) {
+            Map<String, Vehicle> fleet = new LinkedHashMap<>();
+            while (reader.next()) {
+                try {
+                    Vehicle v = VehicleFactory.createVehicle(reader);
+                    if (v != null) {
+                        if (fleet.containsKey(v.getId())) {
+                            throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
+                        }
+                        fleet.put(v.getId(), v);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Skipping malformed line in " + filename + ": " + reader.line() + " (" + e.getMessage() + ")");
+                }
+            }
+            return fleet;
+        }
+    }
+
+    /**
+     * Advance to the next record, skipping blank lines and headers.
+     * Returns false at the end of the input.
+     */
+    boolean next() throws IOException {
+        while (nextLine()) {
+            int start = skipSpace(lineStart, lineEnd);
+            int end = trimEnd(start, lineEnd);
+            if (start == end || isHeader(start, end)) {
+                continue;
+            }
+            split();
+            return true;
+        }
+        return false;
+    }
+
+    // The current line as text, e.g. for error messages
+    String line() {
+        return decode(lineStart, lineEnd);
+    }
+
+    // Where the current line lies in a fixed region, for lineAt later on
+    long lineBounds() {
+        return (long) lineStart << 32 | lineEnd;
+    }
+
+    // Text of an earlier line of a fixed region, given its lineBounds()
+    String lineAt(long bounds) {
+        return decode((int) (bounds >>> 32), (int) bounds);
+    }
+
+    private boolean nextLine() throws IOException {
+        int scan = position;
+        while (true) {
+            while (scan < limit) {
+                byte b = buffer.get(scan);
+                if (b == '\n' || b == '\r') {
+                    if (b == '\r' && scan + 1 >= limit && !endOfInput) {
+                        // Need the next byte to tell \r\n from a lone \r
+                        int consumed = scan - position;
+                        fill();
+                        scan = position + consumed;
+                        continue;
+                    }
+                    lineStart = position;
+                    lineEnd = scan;
+                    position = b == '\r' && scan + 1 < limit && buffer.get(scan + 1) == '\n' ? scan + 2 : scan + 1;
+                    return true;
+                }
+                scan++;
+            }
+            if (endOfInput) {
+                if (position == limit) {
+                    return false;
+                }
+                // Last line without a terminator
+                lineStart = position;
+                lineEnd = limit;
+                position = limit;
+                return true;
+            }
+            int consumed = scan - position;
+            fill();
+            scan = position + consumed;
+        }
+    }
+
+    // Move the unread bytes to the front, growing the buffer if a line fills
+    // it, and read more.
+    private void fill() throws IOException {
+        if (position > 0) {
+            buffer.limit(limit).position(position);
+            buffer.compact();
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.position(0).limit(limit);
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.limit(buffer.capacity()).position(limit);
+        int read = in.read(buffer);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void split() {
+        fieldCount = 0;
+        int start = lineStart;
+        int lastNonEmpty = 0;
+        for (int i = lineStart; ; i++) {
+            if (i == lineEnd || buffer.get(i) == ',') {
+                if (fieldCount == fieldStart.length) {
+                    fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+                }
+                // split(",") drops trailing fields that are empty before trimming
+                if (i > start) {
+                    lastNonEmpty = fieldCount + 1;
+                }
+                int from = skipSpace(start, i);
+                fieldStart[fieldCount] = from;
+                fieldEnd[fieldCount] = trimEnd(from, i);
+                fieldCount++;
+                if (i == lineEnd) {
+                    break;
+                }
+                start = i + 1;
+            }
+        }
+        fieldCount = lastNonEmpty;
+    }
+
+    private boolean isHeader(int start, int end) {
+        if (end - start < 5) {
+            return false;
+        }
+        return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'y'
+                && (buffer.get(start + 2) | 0x20) == 'p' && (buffer.get(start + 3) | 0x20) == 'e'
+                && buffer.get(start + 4) == ',';
+    }
+
+    // String.trim removes every char up to and including the space
+    private int skipSpace(int from, int to) {
+        while (from < to && (buffer.get(from) & 0xff) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && (buffer.get(to - 1) & 0xff) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public String text(int i) {
+        return decode(fieldStart[i], fieldEnd[i]);
+    }
+
+    @Override
+    public String sharedText(int i) {
+        int from = fieldStart[i];
+        int length = fieldEnd[i] - from;
+        if (length > MAX_SHARED_LENGTH) {
+            return text(i);
+        }
+        int hash = length;
+        for (int p = from; p < from + length; p++) {
+            hash = 31 * hash + buffer.get(p);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (SHARED_SLOTS - 1);
+        byte[] cached = sharedBytes[slot];
+        if (cached != null && cached.length == length) {
+            boolean same = true;
+            for (int k = 0; k < length && same; k++) {
+                same = cached[k] == buffer.get(from + k);
+            }
+            if (same) {
+                return sharedStrings[slot];
+            }
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(from, bytes);
+        sharedBytes[slot] = bytes;
+        sharedStrings[slot] = new String(bytes, StandardCharsets.UTF_8);
+        return sharedStrings[slot];
+    }
+
+    /**
+     * Decimal numbers with at most 18 significant digits, 22 fraction digits
+     * and a mantissa up to 2^53 are computed exactly as mantissa / 10^scale:
+     * both operands are exact doubles and the division rounds correctly, so
+     * the result is the one Double.parseDouble gives. Anything else goes to
+     * Double.parseDouble.
+     */
+    @Override
+    public double doubleAt(int i) {
+        int p = fieldStart[i];
+        int end = fieldEnd[i];
+        boolean negative = false;
+        if (p < end && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+            negative = buffer.get(p) == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    if (++digits > 18) {
+                        return Double.parseDouble(text(i));
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Double.parseDouble(text(i));
+            }
+        }
+        if (!seenDigit || mantissa > (1L << 53) || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text(i));
+        }
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public int intAt(int i) {
+        int p = fieldStart[i];
+        int end = fieldEnd[i];
+        boolean negative = false;
+        if (p < end && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+            negative = buffer.get(p) == '-';
+            p++;
+        }
+        // Up to 9 digits cannot overflow an int
+        if (p == end || end - p > 9) {
+            return Integer.parseInt(text(i));
+        }
+        int value = 0;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b < '0' || b > '9') {
+                return Integer.parseInt(text(i));
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public boolean booleanAt(int i) {
+        int p = fieldStart[i];
+        return fieldEnd[i] - p == 4 && (buffer.get(p) | 0x20) == 't' && (buffer.get(p + 1) | 0x20) == 'r'
+                && (buffer.get(p + 2) | 0x20) == 'u' && (buffer.get(p + 3) | 0x20) == 'e';
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+}
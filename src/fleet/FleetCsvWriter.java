@@ -0,0 +1,331 @@
+package fleet;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import vehicles.Airplane;
+import vehicles.Bus;
+import vehicles.Car;
+import vehicles.CargoShip;
+import vehicles.Truck;
+import vehicles.Vehicle;
+
+/**
+ * Streaming writer for the fleet CSV format, the counterpart of
+ * FleetCsvReader. Rows are encoded straight into one reusable byte buffer,
+ * numbers included, and the buffer goes to a FileChannel whenever it fills
+ * up. Each row has the same bytes as VehicleFactory.toCsvRow, followed by
+ * the line separator that PrintWriter.println used. Text is written as
+ * UTF-8 on every platform, where the FileWriter that saveToFile used took
+ * the platform charset; see FleetCsvReader.
+ *
+ * A writer without a channel keeps its rows in memory. writeAll uses such
+ * writers to encode parts of the fleet on a pool and appends their bytes
+ * in fleet order.
+ */
+final class FleetCsvWriter implements Closeable {
+
+    static final String HEADER = "Type,ID,Model,MaxSpeed,Mileage,ExtraFields...";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Vehicles per parallel encoding task, and a generous row size estimate
+    private static final int PARTITION_SIZE = 1 << 15;
+    private static final int ROW_ESTIMATE = 64;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3};
+    // Double.toString switches to computerized notation from 10^7 on
+    private static final double PLAIN_LIMIT = 1e7;
+    private static final ClassValue<byte[]> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getSimpleName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    private final WritableByteChannel out;
+    private ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+
+    FleetCsvWriter(WritableByteChannel out) {
+        this.out = out;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    // Collects rows in memory; the buffer grows as needed
+    FleetCsvWriter(int initialCapacity) {
+        this.out = null;
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    static FleetCsvWriter create(String filename) throws IOException {
+        try {
+            return new FleetCsvWriter(FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new FileNotFoundException(filename);
+        }
+    }
+
+    // The header and one row per vehicle, as saveToFile writes them
+    static void writeFile(Collection<Vehicle> vehicles, String filename) throws IOException {
+        // Rows are encoded into one large buffer and written through a FileChannel
+        try (FleetCsvWriter writer = create(filename)) {
+            // Explicit header to document common fields. Extra fields vary by type and
+            // are appended after the common columns.
+            writer.writeHeader();
+            for (Vehicle vehicle : vehicles) {
+                writer.write(vehicle);
+            }
+            writer.flush();
+        }
+    }
+
+    void writeHeader() throws IOException {
+        writeText(HEADER);
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    // Same fields as VehicleFactory.toCsvRow
+    void write(Vehicle vehicle) throws IOException {
+        writeBytes(TYPE_NAMES.get(vehicle.getClass()));
+        comma();
+        writeText(vehicle.getId());
+        comma();
+        writeText(vehicle.getModel());
+        comma();
+        writeDouble(vehicle.getMaxSpeed());
+        comma();
+        writeDouble(vehicle.getCurrentMileage());
+        if (vehicle instanceof Car car) {
+            // Format: NumWheels,FuelLevel,CurrentPassengers
+            comma();
+            writeLong(car.getNumWheels());
+            comma();
+            writeDouble(car.getFuelLevel());
+            comma();
+            writeLong(car.getCurrentPassengers());
+        } else if (vehicle instanceof Truck truck) {
+            // Format: NumWheels,FuelLevel,CurrentCargo
+            comma();
+            writeLong(truck.getNumWheels());
+            comma();
+            writeDouble(truck.getFuelLevel());
+            comma();
+            writeDouble(truck.getCurrentCargo());
+        } else if (vehicle instanceof Bus bus) {
+            // Format: NumWheels,FuelLevel,CurrentPassengers,CurrentCargo
+            comma();
+            writeLong(bus.getNumWheels());
+            comma();
+            writeDouble(bus.getFuelLevel());
+            comma();
+            writeLong(bus.getCurrentPassengers());
+            comma();
+            writeDouble(bus.getCurrentCargo());
+        } else if (vehicle instanceof Airplane airplane) {
+            // Format: MaxAltitude,FuelLevel,CurrentPassengers,CurrentCargo
+            comma();
+            writeDouble(airplane.getMaxAltitude());
+            comma();
+            writeDouble(airplane.getFuelLevel());
+            comma();
+            writeLong(airplane.getCurrentPassengers());
+            comma();
+            writeDouble(airplane.getCurrentCargo());
+        } else if (vehicle instanceof CargoShip ship) {
+            // Format: HasSail,FuelLevel,CurrentCargo
+            comma();
+            writeBytes(ship.getHasSail() ? TRUE : FALSE);
+            comma();
+            writeDouble(ship.getFuelLevel());
+            comma();
+            writeDouble(ship.getCurrentCargo());
+        }
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the rows of all vehicles, in list order. Partitions of the list
+     * are encoded on the pool; a few partitions at most are kept in memory
+     * ahead of the one being written.
+     */
+    void writeAll(List<Vehicle> vehicles, ForkJoinPool pool) throws IOException {
+        ArrayDeque<Future<ByteBuffer>> encoded = new ArrayDeque<>();
+        int window = 2 * pool.getParallelism();
+        try {
+            for (int from = 0; from < vehicles.size(); from += PARTITION_SIZE) {
+                List<Vehicle> part = vehicles.subList(from, Math.min(vehicles.size(), from + PARTITION_SIZE));
+                encoded.add(pool.submit(() -> encode(part)));
+                if (encoded.size() >= window) {
+                    write(encoded.poll().get());
+                }
+            }
+            while (!encoded.isEmpty()) {
+                write(encoded.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving the fleet");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        } finally {
+            for (Future<ByteBuffer> pending : encoded) {
+                pending.cancel(false);
+            }
+        }
+    }
+
+    private static ByteBuffer encode(List<Vehicle> vehicles) throws IOException {
+        FleetCsvWriter writer = new FleetCsvWriter(vehicles.size() * ROW_ESTIMATE);
+        for (Vehicle vehicle : vehicles) {
+            writer.write(vehicle);
+        }
+        return writer.buffer.flip();
+    }
+
+    // Appends bytes that were already encoded, e.g. by another writer
+    void write(ByteBuffer bytes) throws IOException {
+        flush();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    // Writes everything buffered so far to the channel
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (out != null) {
+            flush();
+        }
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            larger.put(buffer.flip());
+            buffer = larger;
+        }
+    }
+
+    private void comma() throws IOException {
+        ensure(1);
+        buffer.put((byte) ',');
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    // Writes ASCII text char by char; anything else is encoded as UTF-8
+    private void writeText(String text) throws IOException {
+        text = String.valueOf(text);
+        ensure(text.length());
+        int start = buffer.position();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                buffer.position(start);
+                writeBytes(text.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        ensure(digits.length);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        int p = digits.length;
+        do {
+            // Negative remainders keep Long.MIN_VALUE correct
+            digits[--p] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, p, digits.length - p);
+    }
+
+    /**
+     * Writes what Double.toString writes. A value below 10^7 that is the
+     * nearest double to a decimal with at most three fraction digits is
+     * written from that decimal directly; Double.toString gives the same
+     * digits for those. Everything else goes through Double.toString.
+     */
+    private void writeDouble(double value) throws IOException {
+        double magnitude = Math.abs(value);
+        if (magnitude < PLAIN_LIMIT) {
+            for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+                double scaled = magnitude * POWERS_OF_TEN[scale];
+                long decimal = (long) scaled;
+                if (decimal != scaled || decimal / POWERS_OF_TEN[scale] != magnitude) {
+                    continue;
+                }
+                if (scale > 0 && decimal % 10 == 0) {
+                    // Would print a trailing zero; leave it to Double.toString
+                    break;
+                }
+                writeDecimal(Double.doubleToRawLongBits(value) < 0, decimal, scale);
+                return;
+            }
+        }
+        writeText(Double.toString(value));
+    }
+
+    private void writeDecimal(boolean negative, long decimal, int scale) throws IOException {
+        ensure(digits.length + 3);
+        if (negative) {
+            buffer.put((byte) '-');
+        }
+        int p = digits.length;
+        for (int i = 0; i < scale; i++) {
+            digits[--p] = (byte) ('0' + decimal % 10);
+            decimal /= 10;
+        }
+        digits[--p] = '.';
+        do {
+            digits[--p] = (byte) ('0' + decimal % 10);
+            decimal /= 10;
+        } while (decimal != 0);
+        buffer.put(digits, p, digits.length - p);
+        if (scale == 0) {
+            buffer.put((byte) '0');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package fleet;
+
+import interfaces.Maintainable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import vehicles.Vehicle;
+
+/**
+ * Write-ahead journal that makes a FleetManager crash-safe without calling
+ * saveToFile after every change.
+ *
+ * Every change to the fleet is appended to the journal file as one line:
+ * the vehicle's full CSV row (the saveToFile format) after an add or any
+ * state change, its ID after a remove, and a marker followed by every row
+ * after a load. The CSV row has no room for the maintenance bookkeeping,
+ * so the row of a Maintainable vehicle is followed by a second record with
+ * its mileage at the last service and whether a service is scheduled.
+ * Replaying a record sets a vehicle to the recorded state, so applying one
+ * twice does no harm. Each line starts with a CRC32 of
+ * the record; recovery stops at the first line that does not match, which
+ * drops a record torn by a crash.
+ *
+ * Records are written and fsynced by a background committer thread in
+ * groups: everything appended while the previous fsync ran goes to disk
+ * with the next one. A change is therefore durable shortly after the call
+ * that made it returns; sync() waits until it is.
+ *
+ * Once the journal grows past the checkpoint threshold, the next completed
+ * operation checkpoints. That thread only copies the list of vehicles and
+ * marks where a new journal starts; the committer switches journal files
+ * at the mark and the journal's checkpoint thread saves the vehicles to
+ * the snapshot file (written to a temporary file and moved into
+ * place), and the old journal is deleted. This compacts the journal back
+ * to the maintenance records of the fleet. open() loads the snapshot file,
+ * replays any journal left behind, and checkpoints so recovery always starts from a short journal.
+ */
+public final class FleetJournal implements Closeable {
+
+    // Default journal size that triggers a checkpoint
+    public static final long DEFAULT_CHECKPOINT_BYTES = 4L << 20;
+
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DEL";
+    private static final String CLEAR = "CLR";
+    private static final String MAINTENANCE = "MNT";
+
+    private final FleetManager manager;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    // Previous journal while a checkpoint is in progress (or was interrupted)
+    private final Path previousJournalFile;
+    private final long checkpointBytes;
+
+    // Records not yet handed to the committer, guarded by this
+    private StringBuilder pending = new StringBuilder();
+    // Where the last record in pending starts, and the vehicle it puts. Lets
+    // consecutive state changes of one vehicle collapse into one record.
+    private int lastPutStart = -1;
+    private String lastPutId;
+    // Bytes in the current journal file, including pending records
+    private long journalBytes;
+    // Records appended / known to be on disk, guarded by this
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private boolean closed;
+    // Where in pending the next journal file starts, or -1; set by a
+    // checkpoint and cleared by the committer once it has switched files
+    private int rotateAt = -1;
+    private boolean rotationPending;
+
+    // Serializes writes to the channel (committer vs. close)
+    private final Object commitLock = new Object();
+    private FileChannel channel;
+    private final Thread committer;
+    // Writes the snapshots of checkpoints started by checkpointIfDue. Set
+    // while a checkpoint is under way, so at most one runs at a time.
+    private final ExecutorService checkpointer;
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
+
+    private FleetJournal(FleetManager manager, Path snapshotFile, Path journalFile, long checkpointBytes) {
+        this.manager = manager;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.previousJournalFile = Paths.get(journalFile + ".old");
+        this.checkpointBytes = checkpointBytes;
+        this.committer = new Thread(this::runCommitter, "fleet-journal-committer");
+        this.committer.setDaemon(true);
+        this.checkpointer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "fleet-journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static FleetJournal open(FleetManager manager, String snapshotFile, String journalFile) throws IOException {
+        return open(manager, snapshotFile, journalFile, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * Recover the manager's fleet from the snapshot file and any journal left
+     * behind by a previous run, then journal every further change. If there
+     * is neither, the manager keeps its current fleet, which becomes the
+     * first snapshot.
+     */
+    public static FleetJournal open(FleetManager manager, String snapshotFile, String journalFile,
+            long checkpointBytes) throws IOException {
+        FleetJournal journal = new FleetJournal(manager, Paths.get(snapshotFile), Paths.get(journalFile),
+                checkpointBytes);
+        journal.recover();
+        journal.channel = FileChannel.open(journal.journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        journal.committer.start();
+        manager.setJournal(journal);
+        // Fold whatever was replayed into the snapshot and start from an empty journal
+        try {
+            journal.checkpoint();
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    // Load the snapshot and apply any journals left behind on top
+    private void recover() throws IOException {
+        Map<String, Vehicle> fleet = new LinkedHashMap<>();
+        if (Files.exists(snapshotFile)) {
+            manager.loadFromFile(snapshotFile.toString());
+            for (Vehicle v : manager.getFleetSnapshot()) {
+                fleet.put(v.getId(), v);
+            }
+        }
+        if (!Files.exists(previousJournalFile) && !Files.exists(journalFile)) {
+            return;
+        }
+        int records = replay(previousJournalFile, fleet) + replay(journalFile, fleet);
+        manager.replaceFleet(fleet);
+        System.out.println("Recovered " + records + " journal record(s), " + fleet.size() + " vehicle(s) in the fleet.");
+    }
+
+    // Apply the valid records of one journal file; a torn tail is cut off.
+    private int replay(Path file, Map<String, Vehicle> fleet) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int records = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            String record = end < bytes.length ? verified(new String(bytes, start, end - start, StandardCharsets.UTF_8)) : null;
+            if (record == null) {
+                System.err.println("Journal " + file + " is cut off after " + records + " record(s); ignoring the rest.");
+                try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    truncate.truncate(start);
+                }
+                break;
+            }
+            apply(record, fleet);
+            records++;
+            start = end + 1;
+        }
+        return records;
+    }
+
+    private static void apply(String record, Map<String, Vehicle> fleet) {
+        if (record.equals(CLEAR)) {
+            fleet.clear();
+            return;
+        }
+        int comma = record.indexOf(',');
+        String op = comma < 0 ? record : record.substring(0, comma);
+        String payload = comma < 0 ? "" : record.substring(comma + 1);
+        if (op.equals(DELETE)) {
+            fleet.remove(payload);
+            return;
+        }
+        try {
+            String[] data = payload.split(",");
+            if (op.equals(MAINTENANCE)) {
+                // ID,MileageAtLastMaintenance,Scheduled, right after the vehicle's PUT
+                Vehicle v = fleet.get(data[0]);
+                if (!(v instanceof Maintainable) || data.length != 3) {
+                    throw new IllegalArgumentException("unknown vehicle or malformed record");
+                }
+                v.restoreMaintenanceState(Double.parseDouble(data[1]), Boolean.parseBoolean(data[2]));
+                return;
+            }
+            Vehicle v = VehicleFactory.createVehicle(data);
+            fleet.put(v.getId(), v);
+        } catch (Exception e) {
+            System.err.println("Skipping journal record: " + record + " (" + e.getMessage() + ")");
+        }
+    }
+
+    // The record in a journal line, or null if its checksum does not match
+    private static String verified(String line) {
+        if (line.length() < 9 || line.charAt(8) != ' ') {
+            return null;
+        }
+        String record = line.substring(9);
+        try {
+            return Long.parseLong(line.substring(0, 8), 16) == crc(record) ? record : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long crc(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Called by the manager, on the thread that made the change
+    void record(FleetChange change, Vehicle vehicle) {
+        synchronized (this) {
+            if (change.getType() == FleetChangeType.REMOVED) {
+                append(null, DELETE + "," + change.getVehicleId());
+            } else {
+                append(vehicle.getId(), putRecords(vehicle));
+            }
+        }
+    }
+
+    // A load replaces the whole fleet: clear, then put every vehicle
+    void recordLoad(Collection<Vehicle> fleet) {
+        synchronized (this) {
+            append(null, CLEAR);
+            for (Vehicle v : fleet) {
+                append(null, putRecords(v));
+            }
+        }
+    }
+
+    // Maintenance records for the vehicles whose bookkeeping differs from that
+    // of a freshly created vehicle, which is what loading the snapshot gives
+    private void recordMaintenance(Collection<Vehicle> fleet) {
+        synchronized (this) {
+            for (Vehicle v : fleet) {
+                if (v instanceof Maintainable && (v.getMileageAtLastMaintenance() != 0 || v.isMaintenanceScheduled())) {
+                    append(null, maintenanceRecord(v));
+                }
+            }
+        }
+    }
+
+    // The records that set one vehicle to its current state
+    private static String[] putRecords(Vehicle v) {
+        String put = PUT + "," + VehicleFactory.toCsvRow(v);
+        if (!(v instanceof Maintainable)) {
+            return new String[] {put};
+        }
+        return new String[] {put, maintenanceRecord(v)};
+    }
+
+    private static String maintenanceRecord(Vehicle v) {
+        return MAINTENANCE + "," + v.getId() + "," + v.getMileageAtLastMaintenance() + "," + v.isMaintenanceScheduled();
+    }
+
+    // Append one operation's records. Caller holds this.
+    private void append(String putId, String... records) {
+        if (putId != null && putId.equals(lastPutId)) {
+            // Same vehicle changed again before the committer ran: keep only its newest records
+            journalBytes -= pending.length() - lastPutStart;
+            pending.setLength(lastPutStart);
+        } else {
+            appended++;
+        }
+        lastPutStart = pending.length();
+        lastPutId = putId;
+        for (String record : records) {
+            String checksum = Long.toHexString(crc(record));
+            for (int i = checksum.length(); i < 8; i++) {
+                pending.append('0');
+            }
+            pending.append(checksum).append(' ').append(record).append('\n');
+        }
+        journalBytes += pending.length() - lastPutStart;
+        notifyAll();
+    }
+
+    private void runCommitter() {
+        while (true) {
+            synchronized (this) {
+                while (pending.length() == 0 && rotateAt < 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.length() == 0 && rotateAt < 0) {
+                    return;
+                }
+            }
+            try {
+                commit();
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                System.err.println("Fleet journal write failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Write and fsync everything appended so far as one group, switching to
+    // a new journal file at the rotation mark if a checkpoint set one
+    private void commit() throws IOException {
+        synchronized (commitLock) {
+            StringBuilder group;
+            long upTo;
+            int rotation;
+            synchronized (this) {
+                group = pending;
+                upTo = appended;
+                rotation = rotateAt;
+                pending = new StringBuilder();
+                lastPutStart = -1;
+                lastPutId = null;
+                rotateAt = -1;
+            }
+            if (rotation >= 0) {
+                write(group.substring(0, rotation));
+                channel.force(false);
+                rotate();
+                write(group.substring(rotation));
+            } else {
+                write(group.toString());
+            }
+            if (group.length() > 0) {
+                channel.force(false);
+            }
+            synchronized (this) {
+                durable = Math.max(durable, upTo);
+                if (rotation >= 0) {
+                    rotationPending = false;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void write(String records) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(records);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Wait until every change made before this call is on disk.
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            long target = appended;
+            while (durable < target && failure == null && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the fleet journal", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // Called by the manager after each operation, outside any manager lock.
+    // The fleet is captured here, on the thread that changed it; writing the
+    // snapshot is left to the checkpoint thread.
+    void checkpointIfDue() {
+        synchronized (this) {
+            if (journalBytes < checkpointBytes || closed) {
+                return;
+            }
+        }
+        if (!checkpointing.compareAndSet(false, true)) {
+            return;
+        }
+        List<Vehicle> fleet = manager.captureForCheckpoint(this);
+        try {
+            checkpointer.execute(() -> runCheckpoint(fleet));
+        } catch (RejectedExecutionException e) {
+            // Closing: the rotation is already marked, so finish here
+            runCheckpoint(fleet);
+        }
+    }
+
+    private void runCheckpoint(List<Vehicle> fleet) {
+        try {
+            writeSnapshot(fleet);
+        } catch (IOException e) {
+            System.err.println("Fleet journal checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save the fleet to the snapshot file and start an empty journal. Changes
+     * made while the snapshot is written go to the new journal.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (this) {
+            while (!checkpointing.compareAndSet(false, true)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a fleet journal checkpoint", e);
+                }
+            }
+        }
+        writeSnapshot(manager.captureForCheckpoint(this));
+    }
+
+    /**
+     * Called by the manager with the vehicles it is about to hand to a
+     * checkpoint, while no change can be recorded. Every change recorded
+     * before this call is in those vehicles and goes to the old journal;
+     * every later one goes to the next journal, which starts with the
+     * maintenance records the snapshot CSV cannot hold.
+     */
+    void markRotation(Collection<Vehicle> fleet) {
+        synchronized (this) {
+            rotateAt = pending.length();
+            rotationPending = true;
+            lastPutStart = -1;
+            lastPutId = null;
+            journalBytes = 0;
+            recordMaintenance(fleet);
+            notifyAll();
+        }
+    }
+
+    // Second half of a checkpoint: once the committer has switched journal
+    // files, write the captured fleet to the snapshot file and drop the old
+    // journal. The vehicles may change meanwhile; the new journal has those
+    // changes and replays them over the snapshot.
+    private void writeSnapshot(List<Vehicle> fleet) throws IOException {
+        try {
+            synchronized (this) {
+                while (rotationPending && failure == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the fleet journal", e);
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            Path temporary = Paths.get(snapshotFile + ".tmp");
+            FleetCsvWriter.writeFile(fleet, temporary.toString());
+            try (FileChannel written = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                written.force(true);
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(previousJournalFile);
+        } finally {
+            synchronized (this) {
+                checkpointing.set(false);
+                notifyAll();
+            }
+        }
+    }
+
+    // Set the current journal file aside as the previous one and start a new
+    // one. Called by commit() with the old file's records on disk.
+    private void rotate() throws IOException {
+        channel.close();
+        if (Files.exists(previousJournalFile)) {
+            // An earlier checkpoint did not finish: keep both journals, in order
+            try (FileChannel previous = FileChannel.open(previousJournalFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+                while (bytes.hasRemaining()) {
+                    previous.write(bytes);
+                }
+                previous.force(false);
+            }
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, previousJournalFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Write out the remaining records, stop the committer and detach from the
+     * manager. Waits for a checkpoint already under way but does not start
+     * one.
+     */
+    @Override
+    public void close() throws IOException {
+        manager.setJournal(null);
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (commitLock) {
+            commit();
+            channel.close();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package fleet;
+
+/**
+ * Numeric loops over the primitive columns of the fleet. The scalar version
+ * always works; a SIMD version built on the incubating Vector API is used
+ * when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+public interface FleetKernels {
+
+    // Sum of distance / efficiency over the first length entries, skipping efficiencies <= 0
+    double totalFuelConsumption(double distance, double[] efficiency, int length);
+
+    // out[i] = distance / maxSpeed[i] * factor[i] for the first length entries
+    void journeyTimes(double distance, double[] maxSpeed, double[] factor, int length, double[] out);
+
+    String name();
+
+    static FleetKernels scalar() {
+        return ScalarFleetKernels.INSTANCE;
+    }
+
+    // The vector kernels, or null when jdk.incubator.vector is not available
+    static FleetKernels vector() {
+        return FleetKernelsLoader.VECTOR;
+    }
+
+    // Fastest kernels available in this JVM
+    static FleetKernels best() {
+        return FleetKernelsLoader.VECTOR != null ? FleetKernelsLoader.VECTOR : ScalarFleetKernels.INSTANCE;
+    }
+}
@@ -0,0 +1,19 @@
+package fleet;
+
+// Holder for the optional vector kernels, loaded by name on first use so that
+// the rest of the tree compiles and runs without the incubator module.
+final class FleetKernelsLoader {
+
+    static final FleetKernels VECTOR = load();
+
+    private FleetKernelsLoader() {
+    }
+
+    private static FleetKernels load() {
+        try {
+            return (FleetKernels) Class.forName("fleet.VectorFleetKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -3,11 +3,18 @@ package fleet;
 //• Properties: private List<Vehicle> fleet (use ArrayList<Vehicle>).
 
 import exceptions.InvalidOperationException;
+import interfaces.CargoCarrier;
 import interfaces.FuelConsumable;
 import interfaces.Maintainable;
 import java.io.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 import vehicles.*;
 
 //• Methods (leverage polymorphism):
@@ -22,112 +29,891 @@ import vehicles.*;
 //List<Vehicle> getVehiclesNeedingMaintenance(): Filter vehicles where needsMaintenance() is true.
 public class FleetManager {
 
-    private List<Vehicle> fleet;
-    private Set<String> modelSet;
+    // The fleet is keyed by vehicle ID. A LinkedHashMap gives O(1) add, lookup
+    // and remove while its iteration order plays the role of the old list
+    // order: vehicles appear in insertion order until one of the sortFleetBy*
+    // methods re-links them in sorted order.
+    private Map<String, Vehicle> fleet;
+    // Sorted model dictionary: model name -> vehicles of that model (by ID).
+    // The size of each inner map is the model's reference count; a model
+    // disappears from the dictionary when its last vehicle is removed.
+    private final NavigableMap<String, Map<String, Vehicle>> vehiclesByModel;
+    // Membership buckets keyed by every class and interface a vehicle is an
+    // instance of (Car, LandVehicle, FuelConsumable, ...). Each bucket keeps
+    // the same relative order as the fleet.
+    private final Map<Class<?>, Map<String, Vehicle>> typeIndex;
+    // Supertypes per concrete vehicle class, computed once per class.
+    private final Map<Class<?>, List<Class<?>>> typeHierarchy;
+    // Ordered secondary indexes backing the non-destructive ordered views.
+    private final Map<FleetOrder, OrderedIndex<?>> orderedIndexes;
+    // Dense int handle per vehicle and dictionary-encoded models. Handles are
+    // stable while a vehicle stays in the fleet (sorting does not change them)
+    // and key the primitive-array structures below.
+    private final VehicleHandleTable handles = new VehicleHandleTable();
+    // Primitive column mirror of the fleet for fleet-wide aggregates.
+    private final ColumnarFleetStore columns = new ColumnarFleetStore();
+    // Registered on every vehicle in the fleet so indexes follow state changes.
+    private final VehicleStateListener stateListener = new VehicleStateListener() {
+        @Override
+        public void onStateChanged(Vehicle vehicle, VehicleProperty property) {
+            dispatchStateChange(vehicle, EnumSet.of(property));
+        }
+
+        @Override
+        public void onStateChanged(Vehicle vehicle, Set<VehicleProperty> properties) {
+            dispatchStateChange(vehicle, properties);
+        }
+    };
+    // Non-null while a parallel bulk operation runs: state changes made by pool
+    // threads are queued here and applied to the indexes after the operation.
+    private volatile Queue<StateChange> deferredStateChanges;
+    // Latest immutable snapshot of the fleet. Every operation publishes a new
+    // version that shares all untouched structure with the previous one, so
+    // readers can take a snapshot in O(1) without locking.
+    private volatile FleetSnapshot current = FleetSnapshot.EMPTY;
+    // Vehicles whose state changed during the current operation, with the
+    // properties that changed. Their new states enter the snapshot, and their
+    // changes the stream, together when the operation ends.
+    private final Map<Vehicle, Set<VehicleProperty>> changedStates = new LinkedHashMap<>();
+    // Change stream, created by the first getChanges() call. Until then no
+    // changes are recorded. Changes collect in pendingChanges and are
+    // published as one batch per operation; publishLock keeps batches in order.
+    private volatile SubmissionPublisher<List<FleetChange>> changePublisher;
+    private final List<FleetChange> pendingChanges = new ArrayList<>();
+    private final Object publishLock = new Object();
+    // Depth of nested bulk operations; changes are published when it returns to 0
+    private int changeBatchDepth;
+    // Write-ahead journal every change is appended to, if one is attached
+    private volatile FleetJournal journal;
+
+    // A vehicle state change made by a pool thread during a parallel bulk operation
+    private record StateChange(Vehicle vehicle, VehicleProperty property) {
+    }
+
+    // Off-heap views take no state listeners, so the indexes could not follow
+    // their changes; they are rejected before the fleet is touched.
+    static final String OFF_HEAP_VIEW_REJECTED =
+            "Off-heap vehicle views cannot be added to a fleet; add a copy from OffHeapFleetStore.toVehicle instead.";
+
+    // Fleets at least this large are scanned with a parallel stream
+    private static final int PARALLEL_SCAN_THRESHOLD = 1024;
+    // Fleets at least this large are sorted with Arrays.parallelSort
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
 
-    // private List<Vehicle> fleet (use ArrayList<Vehicle>)
     public FleetManager() {
-        this.fleet = new ArrayList<>();
-        this.modelSet = new HashSet<>();
+        this.fleet = new LinkedHashMap<>();
+        this.vehiclesByModel = new TreeMap<>();
+        this.typeIndex = new HashMap<>();
+        this.typeHierarchy = new HashMap<>();
+        this.orderedIndexes = new EnumMap<>(FleetOrder.class);
+        orderedIndexes.put(FleetOrder.ID, new OrderedIndex<>(Vehicle::getId, Comparator.<String>naturalOrder()));
+        orderedIndexes.put(FleetOrder.MODEL, new OrderedIndex<>(Vehicle::getModel, Comparator.nullsLast(Comparator.<String>naturalOrder())));
+        orderedIndexes.put(FleetOrder.SPEED, new OrderedIndex<>(Vehicle::getMaxSpeed, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.MILEAGE, new OrderedIndex<>(Vehicle::getCurrentMileage, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.EFFICIENCY, new OrderedIndex<>(Vehicle::calculateFuelEfficiency, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.FUEL, new OrderedIndex<>(FleetManager::fuelLevelOf, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.CARGO, new OrderedIndex<>(FleetManager::cargoOf, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.PASSENGERS, new OrderedIndex<>(FleetMetric.PASSENGERS::of, Comparator.<Double>naturalOrder()));
+        orderedIndexes.put(FleetOrder.MAINTENANCE, new OrderedIndex<>(FleetManager::kilometresUntilMaintenanceOf, Comparator.<Double>naturalOrder()));
     }
 
     // void addVehicle(Vehicle v): Check ID uniqueness; throw InvalidOperationException if duplicate.
     public void addVehicle(Vehicle v) throws InvalidOperationException {
-        for (Vehicle vehicle : fleet) {
-            if (vehicle.getId().equals(v.getId())) {
-                throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
-            }
+        if (v instanceof OffHeapVehicle) {
+            throw new InvalidOperationException(OFF_HEAP_VIEW_REJECTED);
         }
-        fleet.add(v);
-        if (v.getModel() != null) {
-            modelSet.add(v.getModel());
+        if (fleet.containsKey(v.getId())) {
+            throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
         }
+        fleet.put(v.getId(), v);
+        indexVehicle(v, handles.assign(v));
+        VehicleState state = VehicleState.of(v);
+        current = current.with(state);
+        v.addStateListener(stateListener);
+        recordChange(FleetChange.added(state, current.getVersion()), v);
         System.out.println(v.getClass().getSimpleName() + " with ID " + v.getId() + " added to the fleet.");
     }
 
+    /**
+     * Add a batch of vehicles. IDs are validated in one pass against the
+     * fleet and against the rest of the batch; duplicates and null records
+     * are rejected with an InvalidOperationException, as are off-heap
+     * vehicle views, and reported in the result by their position in the
+     * batch. A repeated ID is added once, from its first record. In ALL_OR_NOTHING mode a single rejection
+     * leaves the fleet unchanged and the valid records are reported as
+     * skipped. Prints one summary line instead of one line per vehicle.
+     */
+    public BulkOperationResult addVehicles(Collection<? extends Vehicle> batch, BatchMode mode) {
+        BulkOperationResult result = addBatch(batch, mode);
+        printBatchSummary(result, mode);
+        return result;
+    }
+
+    // addVehicles without the summary line, for callers that report several batches as one
+    BulkOperationResult addBatch(Collection<? extends Vehicle> batch, BatchMode mode) {
+        List<Vehicle> accepted = new ArrayList<>(batch.size());
+        List<BulkOperationResult.Rejection> rejected = new ArrayList<>();
+        Set<String> batchIds = new HashSet<>();
+        int position = 0;
+        for (Vehicle v : batch) {
+            if (v == null) {
+                rejected.add(new BulkOperationResult.Rejection(position, null,
+                        new InvalidOperationException("Batch record " + position + " is null.")));
+            } else if (v instanceof OffHeapVehicle) {
+                rejected.add(new BulkOperationResult.Rejection(position, v.getId(),
+                        new InvalidOperationException(OFF_HEAP_VIEW_REJECTED)));
+            } else if (fleet.containsKey(v.getId()) || !batchIds.add(v.getId())) {
+                rejected.add(new BulkOperationResult.Rejection(position, v.getId(),
+                        new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.")));
+            } else {
+                accepted.add(v);
+            }
+            position++;
+        }
+        if (mode == BatchMode.ALL_OR_NOTHING && !rejected.isEmpty()) {
+            return new BulkOperationResult(new ArrayList<>(), rejected, accepted.size());
+        }
+        List<String> added = new ArrayList<>(accepted.size());
+        FleetSnapshot snapshot = current;
+        beginChanges();
+        try {
+            for (Vehicle v : accepted) {
+                fleet.put(v.getId(), v);
+                indexVehicle(v, handles.assign(v));
+                VehicleState state = VehicleState.of(v);
+                snapshot = snapshot.with(state);
+                v.addStateListener(stateListener);
+                recordChange(FleetChange.added(state, snapshot.getVersion()), v);
+                added.add(v.getId());
+            }
+            current = snapshot;
+        } finally {
+            endChanges();
+        }
+        return new BulkOperationResult(added, rejected, 0);
+    }
+
+    // The one line printed for a batch; an ALL_OR_NOTHING batch with rejections added nothing
+    static void printBatchSummary(BulkOperationResult result, BatchMode mode) {
+        if (mode == BatchMode.ALL_OR_NOTHING && result.hasFailures()) {
+            System.out.println("Batch rejected: " + result.getFailureCount() + " invalid record(s), no vehicles added.");
+        } else {
+            System.out.println(result.getSuccessCount() + " vehicle(s) added to the fleet, " + result.getFailureCount() + " rejected.");
+        }
+    }
+
     //void removeVehicle(String id): Remove by ID; throw InvalidOperationException if not found
     public void removeVehicle(String id) throws InvalidOperationException {
-        boolean removed = fleet.removeIf(vehicle -> vehicle.getId().equals(id));
-        if (!removed) {
+        Vehicle removed = fleet.remove(id);
+        if (removed == null) {
             throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
         }
-        // rebuild model set
-        modelSet.clear();
-        for (Vehicle vehicle : fleet) {
-            if (vehicle.getModel() != null) {
-                modelSet.add(vehicle.getModel());
-            }
-        }
+        removed.removeStateListener(stateListener);
+        int handle = handles.handleOf(id);
+        unindexVehicle(removed, handle);
+        handles.release(handle);
+        VehicleState lastState = changedStates.remove(removed) != null ? VehicleState.of(removed) : current.get(id);
+        current = current.without(id);
+        recordChange(FleetChange.removed(lastState, current.getVersion()), removed);
         System.out.println("Vehicle with ID " + id + " removed.");
     }
 
     //void startAllJourneys(double distance): Call move(distance) on each; handle exceptions.
     public void startAllJourneys(double distance) {
         System.out.println("\nStarting all journeys of " + distance + " km...");
-        for (Vehicle vehicle : fleet) {
-            try {
-                vehicle.move(distance);
-            } catch (Exception e) {
-                System.err.println("Could not start journey for " + vehicle.getId() + ": " + e.getMessage());
+        beginChanges();
+        try {
+            for (Vehicle vehicle : fleet.values()) {
+                try {
+                    vehicle.move(distance);
+                } catch (Exception e) {
+                    System.err.println("Could not start journey for " + vehicle.getId() + ": " + e.getMessage());
+                }
             }
+        } finally {
+            endChanges();
         }
     }
 
+    /**
+     * Parallel variant of startAllJourneys: the fleet is partitioned across
+     * the given pool. Failures (InsufficientFuelException, ...) are reported
+     * in the result instead of being printed.
+     */
+    public BulkOperationResult startAllJourneys(double distance, ForkJoinPool pool) {
+        return runInParallel(pool, vehicle -> {
+            vehicle.move(distance);
+            return true;
+        });
+    }
+
     //double getTotalFuelConsumption(double distance): Sum consumeFuel(distance) for FuelConsumable vehicles.
     public double getTotalFuelConsumption(double distance) {
-        double totalFuelConsumption = 0.0;
-        for (Vehicle vehicle : fleet) {
-            if (vehicle instanceof FuelConsumable) {
-                double efficiency = vehicle.calculateFuelEfficiency();
-                if (efficiency > 0) {
-                    totalFuelConsumption += (distance / efficiency);
-                }
-            }
-        }
-        return totalFuelConsumption;
+        // Non-fuel vehicles carry an efficiency of 0 in the column store and are skipped
+        return columns.totalFuelConsumption(distance);
+    }
+
+    /**
+     * Journey time of every vehicle and the total fuel for all of them to
+     * travel the distance, computed over the column store with the fastest
+     * FleetKernels available (SIMD when jdk.incubator.vector is enabled).
+     */
+    public JourneyEstimates estimateJourneyTimes(double distance) {
+        FleetKernels kernels = FleetKernels.best();
+        return new JourneyEstimates(distance, columns.vehicles(), columns.journeyTimes(distance, kernels),
+                columns.fuelConsumption(distance, kernels));
     }
 
     //List<Vehicle> getVehiclesNeedingMaintenance(): Filter vehicles where needsMaintenance() is true.
+    // Served from the maintenance-due index, most overdue first (scheduled maintenance counts as most overdue).
     public List<Vehicle> getVehiclesNeedingMaintenance() {
-        return fleet.stream().filter(v -> v instanceof Maintainable && ((Maintainable) v).needsMaintenance()).collect(Collectors.toList());
+        return maintenanceIndex().range(Double.NEGATIVE_INFINITY, true, 0.0, false);
+    }
+
+    /**
+     * Vehicles that are due now or will be due within the given distance,
+     * most urgent first. Answered from the maintenance-due index without
+     * looking at the rest of the fleet.
+     */
+    public List<Vehicle> getVehiclesDueWithin(double kilometres) {
+        if (Double.isNaN(kilometres)) {
+            return new ArrayList<>();
+        }
+        return maintenanceIndex().range(Double.NEGATIVE_INFINITY, true, kilometres, true);
     }
 
     //void maintainAll(): Call performMaintenance() if needsMaintenance().
     public void maintainAll() {
         System.out.println("\nPerforming maintenance on vehicles.");
-        for (Vehicle vehicle : fleet) {
-            if ((vehicle instanceof interfaces.Maintainable)) {
-                boolean needsMaintenance = ((Maintainable) vehicle).needsMaintenance();
-                if (needsMaintenance) {
-                    ((interfaces.Maintainable) vehicle).performMaintenance();
-                }
+        // Copy first: each performMaintenance moves the vehicle within the index
+        beginChanges();
+        try {
+            for (Vehicle vehicle : getVehiclesNeedingMaintenance()) {
+                ((Maintainable) vehicle).performMaintenance();
             }
+        } finally {
+            endChanges();
         }
 
     }
 
+    @SuppressWarnings("unchecked")
+    private OrderedIndex<Double> maintenanceIndex() {
+        return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.MAINTENANCE);
+    }
+
+    /**
+     * Parallel variant of maintainAll. Only the vehicles in the
+     * maintenance-due index are visited; one whose state changed before its
+     * turn and no longer needs maintenance is counted as skipped.
+     */
+    public BulkOperationResult maintainAll(ForkJoinPool pool) {
+        return runInParallel(pool, getVehiclesNeedingMaintenance(), vehicle -> {
+            if (((Maintainable) vehicle).needsMaintenance()) {
+                ((Maintainable) vehicle).performMaintenance();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    // Apply an action to every vehicle on the given pool and collect the outcomes.
+    // Index updates for the resulting state changes are applied afterwards on the
+    // calling thread, since the indexes are not safe for concurrent updates.
+    private BulkOperationResult runInParallel(ForkJoinPool pool, BulkTask.VehicleAction action) {
+        return runInParallel(pool, new ArrayList<>(fleet.values()), action);
+    }
+
+    private BulkOperationResult runInParallel(ForkJoinPool pool, List<Vehicle> vehicles, BulkTask.VehicleAction action) {
+        BulkTask task = new BulkTask(vehicles, action);
+        Queue<StateChange> changed = new ConcurrentLinkedQueue<>();
+        deferredStateChanges = changed;
+        beginChanges();
+        try {
+            pool.invoke(task);
+        } finally {
+            deferredStateChanges = null;
+            try {
+                // Replay the changes once per vehicle, in the order first seen
+                Map<Vehicle, Set<VehicleProperty>> byVehicle = new LinkedHashMap<>();
+                for (StateChange change : changed) {
+                    byVehicle.computeIfAbsent(change.vehicle(), v -> EnumSet.noneOf(VehicleProperty.class))
+                            .add(change.property());
+                }
+                for (Map.Entry<Vehicle, Set<VehicleProperty>> entry : byVehicle.entrySet()) {
+                    onVehicleStateChanged(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                endChanges();
+            }
+        }
+        return task.toResult();
+    }
+
     //List<Vehicle> searchByType(Class<?> type): Return vehicles instanceof type
     public List<Vehicle> searchByType(Class<?> type) {
-        return fleet.stream().filter(type::isInstance).collect(Collectors.toList());
+        return new ArrayList<>(getTypeView(type));
+    }
+
+    /**
+     * Read-only live view of the vehicles that are instances of the given
+     * class or interface, in fleet order. The view is served from the type
+     * buckets, so obtaining it does not touch the rest of the fleet. It
+     * follows later adds, removes, sorts and loads.
+     */
+    public Collection<Vehicle> getTypeView(Class<?> type) {
+        return liveBucket(() -> typeIndex.get(type));
+    }
+
+    // Read-only view of whatever bucket the lookup finds at the time of each
+    // call, so it stays live when its bucket is emptied and dropped, created
+    // again, or refilled by a sort or a load.
+    private static Collection<Vehicle> liveBucket(Supplier<Map<String, Vehicle>> lookup) {
+        return new AbstractCollection<Vehicle>() {
+            @Override
+            public Iterator<Vehicle> iterator() {
+                Map<String, Vehicle> bucket = lookup.get();
+                if (bucket == null) {
+                    return Collections.emptyIterator();
+                }
+                return Collections.unmodifiableCollection(bucket.values()).iterator();
+            }
+
+            @Override
+            public int size() {
+                Map<String, Vehicle> bucket = lookup.get();
+                return bucket == null ? 0 : bucket.size();
+            }
+        };
+    }
+
+    public int countByType(Class<?> type) {
+        Map<String, Vehicle> bucket = typeIndex.get(type);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    // Add a vehicle to the type and model buckets, which follow fleet order.
+    private void indexByTypeAndModel(Vehicle v) {
+        for (Class<?> type : supertypesOf(v.getClass())) {
+            typeIndex.computeIfAbsent(type, t -> new LinkedHashMap<>()).put(v.getId(), v);
+        }
+        if (v.getModel() != null) {
+            vehiclesByModel.computeIfAbsent(v.getModel(), m -> new LinkedHashMap<>()).put(v.getId(), v);
+        }
+    }
+
+    // Add a vehicle to every secondary index.
+    private void indexVehicle(Vehicle v, int handle) {
+        indexByTypeAndModel(v);
+        for (OrderedIndex<?> index : orderedIndexes.values()) {
+            index.add(v, handle);
+        }
+        columns.add(v, handle);
+    }
+
+    // Remove a vehicle from every secondary index.
+    private void unindexVehicle(Vehicle v, int handle) {
+        for (Class<?> type : supertypesOf(v.getClass())) {
+            Map<String, Vehicle> bucket = typeIndex.get(type);
+            if (bucket != null) {
+                bucket.remove(v.getId());
+                if (bucket.isEmpty()) {
+                    typeIndex.remove(type);
+                }
+            }
+        }
+        if (v.getModel() != null) {
+            Map<String, Vehicle> sameModel = vehiclesByModel.get(v.getModel());
+            if (sameModel != null) {
+                sameModel.remove(v.getId());
+                if (sameModel.isEmpty()) {
+                    vehiclesByModel.remove(v.getModel());
+                }
+            }
+        }
+        for (OrderedIndex<?> index : orderedIndexes.values()) {
+            index.remove(v, handle);
+        }
+        columns.remove(handle);
+    }
+
+    // Rebuild all secondary indexes from the fleet, following its current order.
+    private void rebuildIndexes() {
+        typeIndex.clear();
+        vehiclesByModel.clear();
+        columns.clear();
+        Vehicle[] vehicles = fleet.values().toArray(new Vehicle[0]);
+        int[] vehicleHandles = new int[vehicles.length];
+        for (int i = 0; i < vehicles.length; i++) {
+            indexByTypeAndModel(vehicles[i]);
+            vehicleHandles[i] = handles.handleOf(vehicles[i].getId());
+            columns.add(vehicles[i], vehicleHandles[i]);
+        }
+        // The ordered indexes are independent of each other, so large fleets
+        // rebuild them side by side, one index per task
+        Stream<OrderedIndex<?>> indexes = vehicles.length >= PARALLEL_SCAN_THRESHOLD
+                ? orderedIndexes.values().parallelStream() : orderedIndexes.values().stream();
+        indexes.forEach(index -> {
+            index.clear();
+            for (int i = 0; i < vehicles.length; i++) {
+                index.add(vehicles[i], vehicleHandles[i]);
+            }
+        });
+    }
+
+    private void dispatchStateChange(Vehicle v, Set<VehicleProperty> properties) {
+        Queue<StateChange> deferred = deferredStateChanges;
+        if (deferred != null) {
+            for (VehicleProperty property : properties) {
+                deferred.add(new StateChange(v, property));
+            }
+            return;
+        }
+        onVehicleStateChanged(v, properties);
+    }
+
+    // Keep indexes keyed on mutable state in step with the vehicle. The
+    // change is one operation: the snapshot and the stream see it when it ends.
+    protected void onVehicleStateChanged(Vehicle v, Set<VehicleProperty> properties) {
+        int handle = handles.handleOf(v.getId());
+        if (handles.vehicleAt(handle) != v) {
+            return;
+        }
+        beginChanges();
+        try {
+            columns.update(handle);
+            for (Map.Entry<FleetOrder, OrderedIndex<?>> entry : orderedIndexes.entrySet()) {
+                for (VehicleProperty property : properties) {
+                    if (entry.getKey().dependsOn(property)) {
+                        entry.getValue().update(v, handle);
+                        break;
+                    }
+                }
+            }
+            changedStates.computeIfAbsent(v, k -> EnumSet.noneOf(VehicleProperty.class)).addAll(properties);
+        } finally {
+            endChanges();
+        }
+    }
+
+    // End of an operation: capture each changed vehicle's state once, so a
+    // snapshot never shows part of an operation, and record its changes.
+    private void publishChangedStates() {
+        if (changedStates.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Vehicle, Set<VehicleProperty>>> changed = new ArrayList<>(changedStates.entrySet());
+        changedStates.clear();
+        for (Map.Entry<Vehicle, Set<VehicleProperty>> entry : changed) {
+            Vehicle v = entry.getKey();
+            VehicleState state = VehicleState.of(v);
+            current = current.with(state);
+            for (VehicleProperty property : entry.getValue()) {
+                recordChange(FleetChange.updated(state, property, current.getVersion()), v);
+            }
+        }
+    }
+
+    /**
+     * Stream of fleet changes for consumers that mirror the fleet (dashboards,
+     * exports) and want to update incrementally instead of re-reading
+     * getFleetSnapshot(). Each item is the batch of changes made by one
+     * operation, in order. Examples: one vehicle added, a whole
+     * startAllJourneys, or a single state change made directly on a vehicle.
+     * A load is reported as one LOADED change carrying the new fleet.
+     *
+     * Delivery uses a SubmissionPublisher on the common pool and honours each
+     * subscriber's demand. While a subscriber's buffer is full, the thread
+     * publishing the next batch waits for it to catch up. A subscriber should
+     * therefore request promptly and must not wait for other changes to the
+     * same manager from inside onNext.
+     *
+     * Changes are recorded only after the first call. To start from a
+     * consistent state, take takeSnapshot() after subscribing and skip
+     * changes whose version is not above the snapshot's.
+     */
+    public Flow.Publisher<List<FleetChange>> getChanges() {
+        synchronized (publishLock) {
+            if (changePublisher == null) {
+                changePublisher = new SubmissionPublisher<>();
+            }
+            return changePublisher;
+        }
+    }
+
+    // Called by FleetJournal once recovery is done, and with null on close
+    void setJournal(FleetJournal journal) {
+        this.journal = journal;
+    }
+
+    // Copy the vehicles for a journal checkpoint and let the journal mark its
+    // rotation in the same step, so each change is either in the copy or in
+    // the next journal.
+    List<Vehicle> captureForCheckpoint(FleetJournal log) {
+        List<Vehicle> vehicles = new ArrayList<>(fleet.values());
+        log.markRotation(vehicles);
+        return vehicles;
+    }
+
+    // Journal a change and queue it for the stream; outside a bulk operation
+    // it goes out at once. The vehicle is the one changed (null for LOADED).
+    private void recordChange(FleetChange change, Vehicle vehicle) {
+        FleetJournal log = journal;
+        if (log != null) {
+            if (change.getType() == FleetChangeType.LOADED) {
+                log.recordLoad(fleet.values());
+            } else {
+                log.record(change, vehicle);
+            }
+        }
+        if (changePublisher != null) {
+            synchronized (pendingChanges) {
+                pendingChanges.add(change);
+            }
+        }
+        if (changeBatchDepth == 0) {
+            flushChanges();
+        }
+    }
+
+    private void beginChanges() {
+        changeBatchDepth++;
+    }
+
+    private void endChanges() {
+        if (changeBatchDepth == 1) {
+            // Still inside the operation, so these are recorded as part of its batch
+            publishChangedStates();
+        }
+        if (--changeBatchDepth == 0) {
+            flushChanges();
+        }
+    }
+
+    // End of an operation: send everything recorded so far to subscribers as
+    // one batch, then let the journal start a checkpoint if it has grown large enough.
+    protected void flushChanges() {
+        publishPendingChanges();
+        FleetJournal log = journal;
+        if (log != null) {
+            log.checkpointIfDue();
+        }
+    }
+
+    private void publishPendingChanges() {
+        SubmissionPublisher<List<FleetChange>> publisher = changePublisher;
+        if (publisher == null) {
+            return;
+        }
+        synchronized (publishLock) {
+            List<FleetChange> batch;
+            synchronized (pendingChanges) {
+                if (pendingChanges.isEmpty()) {
+                    return;
+                }
+                batch = Collections.unmodifiableList(new ArrayList<>(pendingChanges));
+                pendingChanges.clear();
+            }
+            publisher.submit(batch);
+        }
+    }
+
+    // All classes and interfaces the given class is assignable to, including itself.
+    private List<Class<?>> supertypesOf(Class<?> cls) {
+        List<Class<?>> cached = typeHierarchy.get(cls);
+        if (cached != null) {
+            return cached;
+        }
+        Set<Class<?>> found = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.push(cls);
+        while (!pending.isEmpty()) {
+            Class<?> c = pending.pop();
+            if (!found.add(c)) {
+                continue;
+            }
+            if (c.getSuperclass() != null) {
+                pending.push(c.getSuperclass());
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                pending.push(i);
+            }
+        }
+        List<Class<?>> result = new ArrayList<>(found);
+        typeHierarchy.put(cls, result);
+        return result;
     }
 
     //void sortFleetByEfficiency(): Implement Comparable<Vehicle> in Vehicle (compare by calculateFuelEfficiency()), use Collections.sort(fleet).
     public void sortFleetByEfficiency() {
-        Collections.sort(fleet);
+        // Same order as Vehicle.compareTo: most efficient first, ties by ID.
+        // A stable sort of the ID-ordered fleet gives the ID tie-break for free.
+        List<Vehicle> byId = orderedIndexes.get(FleetOrder.ID).page(true, 0, fleet.size());
+        sortByKey(byId, denseRanks(byId, Vehicle::calculateFuelEfficiency), false);
     }
 
     // Additional utilities:
-    // Get distinct vehicle models in the fleet using TreeSet for sorted order
+    // Distinct vehicle models in sorted order, as a read-only live view of the model dictionary
     public Set<String> getDistinctModels() {
-        return new TreeSet<>(modelSet);
+        return Collections.unmodifiableNavigableSet(vehiclesByModel.navigableKeySet());
+    }
+
+    // Number of vehicles in the fleet with the given model
+    public int getModelCount(String model) {
+        Map<String, Vehicle> sameModel = model == null ? null : vehiclesByModel.get(model);
+        return sameModel == null ? 0 : sameModel.size();
+    }
+
+    // Read-only live view of the vehicles with the given model, in fleet order.
+    // It follows later adds, removes, sorts and loads.
+    public Collection<Vehicle> getVehiclesByModel(String model) {
+        if (model == null) {
+            return Collections.emptyList();
+        }
+        return liveBucket(() -> vehiclesByModel.get(model));
     }
 
     public Vehicle getFastestVehicle() {
-        return fleet.stream().max(Comparator.comparingDouble(Vehicle::getMaxSpeed)).orElse(null);
+        return orderedIndexes.get(FleetOrder.SPEED).first(false);
     }
 
     public Vehicle getSlowestVehicle() {
-        return fleet.stream().min(Comparator.comparingDouble(Vehicle::getMaxSpeed)).orElse(null);
+        return orderedIndexes.get(FleetOrder.SPEED).first(true);
+    }
+
+    /**
+     * The k vehicles with the highest value of the metric, highest first.
+     * Ties are broken by ID. The fleet order is left untouched.
+     */
+    public List<Vehicle> topK(FleetMetric metric, int k) {
+        return vehiclesAtRows(columns.extremeRows(metric, k, true));
+    }
+
+    /**
+     * The k vehicles with the lowest value of the metric, lowest first.
+     * Ties are broken by ID. The fleet order is left untouched.
+     */
+    public List<Vehicle> bottomK(FleetMetric metric, int k) {
+        return vehiclesAtRows(columns.extremeRows(metric, k, false));
+    }
+
+    /**
+     * Vehicles whose metric lies between min and max (both inclusive), in
+     * ascending order of the metric. Served from the ordered index for the
+     * metric, so the cost is O(log n + k) for k results. Vehicles that are not
+     * FuelConsumable / CargoCarrier count as 0 fuel / 0 cargo.
+     */
+    public List<Vehicle> findInRange(FleetMetric metric, double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return new ArrayList<>();
+        }
+        return metricIndex(metric).range(min, true, max, true);
+    }
+
+    // As findInRange, restricted to vehicles that are instances of the given class or interface.
+    public List<Vehicle> findInRange(FleetMetric metric, double min, double max, Class<?> type) {
+        List<Vehicle> result = findInRange(metric, min, max);
+        result.removeIf(v -> !type.isInstance(v));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private OrderedIndex<Double> metricIndex(FleetMetric metric) {
+        switch (metric) {
+            case SPEED:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.SPEED);
+            case MILEAGE:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.MILEAGE);
+            case FUEL:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.FUEL);
+            case EFFICIENCY:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.EFFICIENCY);
+            case CARGO:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.CARGO);
+            case PASSENGERS:
+                return (OrderedIndex<Double>) orderedIndexes.get(FleetOrder.PASSENGERS);
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    private static double fuelLevelOf(Vehicle v) {
+        return v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+    }
+
+    // Vehicles that are not Maintainable are never due
+    static double kilometresUntilMaintenanceOf(Vehicle v) {
+        return v instanceof Maintainable ? ((Maintainable) v).getKilometresUntilMaintenance() : Double.POSITIVE_INFINITY;
+    }
+
+    private static double cargoOf(Vehicle v) {
+        return v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0;
+    }
+
+    private List<Vehicle> vehiclesAtRows(int[] rows) {
+        List<Vehicle> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(columns.vehicleAt(row));
+        }
+        return result;
+    }
+
+    /**
+     * Iterate the fleet in the given order without re-sorting or disturbing
+     * the fleet's own order. Ties are broken by vehicle ID. The view is live
+     * and read-only; do not modify the fleet while iterating.
+     */
+    public Iterable<Vehicle> orderedBy(FleetOrder order, boolean ascending) {
+        return () -> orderedIndexes.get(order).stream(ascending).iterator();
+    }
+
+    /**
+     * One page of the fleet in the given order: up to limit vehicles starting
+     * at position offset.
+     */
+    public List<Vehicle> getPage(FleetOrder order, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative.");
+        }
+        return orderedIndexes.get(order).page(ascending, offset, limit);
+    }
+
+    /**
+     * Run a FleetQuery. When a condition can be answered from an index (type,
+     * model, ID prefix or a metric range) the most selective one supplies the
+     * candidates; otherwise the fleet is scanned, in parallel for large
+     * fleets. See explain for the path chosen.
+     */
+    public List<Vehicle> query(FleetQuery query) {
+        return planQuery(query).execute();
+    }
+
+    // Describe how query(query) would be answered, without running it.
+    public String explain(FleetQuery query) {
+        return planQuery(query).explain();
+    }
+
+    // Candidate vehicles from an index: a superset of a predicate's matches.
+    private static class IndexAccess {
+        final String description;
+        final int estimate;
+        final Supplier<Collection<Vehicle>> fetch;
+
+        IndexAccess(String description, int estimate, Supplier<Collection<Vehicle>> fetch) {
+            this.description = description;
+            this.estimate = estimate;
+            this.fetch = fetch;
+        }
+    }
+
+    private QueryPlan planQuery(FleetQuery query) {
+        FleetOrder order = query.getOrderBy();
+        IndexAccess access = indexAccessFor(query.getWhere());
+        if (access != null && access.estimate < fleet.size()) {
+            Comparator<Vehicle> sort = order == null ? null : orderedIndexes.get(order).comparator(query.isAscending());
+            String description = access.description + ", " + access.estimate + " of " + fleet.size() + " vehicles";
+            return new QueryPlan(query, description, () -> access.fetch.get().stream(), sort);
+        }
+        if (order != null) {
+            // Walking the ordering's index gives sorted output and stops at the limit
+            OrderedIndex<?> index = orderedIndexes.get(order);
+            return new QueryPlan(query, "ordered scan of " + order + " index", () -> index.stream(query.isAscending()), null);
+        }
+        if (fleet.size() >= PARALLEL_SCAN_THRESHOLD) {
+            return new QueryPlan(query, "parallel scan of " + fleet.size() + " vehicles", () -> fleet.values().parallelStream(), null);
+        }
+        return new QueryPlan(query, "scan of " + fleet.size() + " vehicles", () -> fleet.values().stream(), null);
+    }
+
+    // Comparator matching the given ordering of orderedBy / FleetQuery.orderBy.
+    Comparator<Vehicle> orderComparator(FleetOrder order, boolean ascending) {
+        return orderedIndexes.get(order).comparator(ascending);
+    }
+
+    // Cheapest index access for a predicate, or null if it needs a scan.
+    @SuppressWarnings("unchecked")
+    private IndexAccess indexAccessFor(FleetPredicate p) {
+        if (p instanceof FleetPredicate.TypeIs) {
+            Class<?> type = ((FleetPredicate.TypeIs) p).type;
+            Map<String, Vehicle> bucket = typeIndex.getOrDefault(type, Collections.emptyMap());
+            return new IndexAccess("type index [" + type.getSimpleName() + "]", bucket.size(), bucket::values);
+        }
+        if (p instanceof FleetPredicate.ModelIs) {
+            String model = ((FleetPredicate.ModelIs) p).model;
+            Map<String, Vehicle> bucket = vehiclesByModel.getOrDefault(model, Collections.emptyMap());
+            return new IndexAccess("model index ['" + model + "']", bucket.size(), bucket::values);
+        }
+        if (p instanceof FleetPredicate.IdPrefix) {
+            String prefix = ((FleetPredicate.IdPrefix) p).prefix;
+            OrderedIndex<String> ids = (OrderedIndex<String>) orderedIndexes.get(FleetOrder.ID);
+            String end = prefixEnd(prefix);
+            String description = "ID index [prefix '" + prefix + "']";
+            if (end == null) {
+                List<Vehicle> matches = ids.tail(prefix);
+                return new IndexAccess(description, matches.size(), () -> matches);
+            }
+            return new IndexAccess(description, ids.count(prefix, true, end, false), () -> ids.range(prefix, true, end, false));
+        }
+        if (p instanceof FleetPredicate.InRange) {
+            FleetPredicate.InRange range = (FleetPredicate.InRange) p;
+            String description = range.metric + " index [" + range.min + ", " + range.max + "]";
+            if (Double.isNaN(range.min) || Double.isNaN(range.max) || range.min > range.max) {
+                return new IndexAccess(description, 0, Collections::emptyList);
+            }
+            OrderedIndex<Double> index = metricIndex(range.metric);
+            return new IndexAccess(description, index.count(range.min, true, range.max, true),
+                    () -> index.range(range.min, true, range.max, true));
+        }
+        if (p instanceof FleetPredicate.And) {
+            // Any one term narrows an AND; use the most selective
+            IndexAccess best = null;
+            for (FleetPredicate term : ((FleetPredicate.And) p).terms) {
+                IndexAccess access = indexAccessFor(term);
+                if (access != null && (best == null || access.estimate < best.estimate)) {
+                    best = access;
+                }
+            }
+            return best;
+        }
+        if (p instanceof FleetPredicate.Or) {
+            // An OR can use indexes only if every term can
+            List<IndexAccess> parts = new ArrayList<>();
+            int estimate = 0;
+            for (FleetPredicate term : ((FleetPredicate.Or) p).terms) {
+                IndexAccess access = indexAccessFor(term);
+                if (access == null) {
+                    return null;
+                }
+                parts.add(access);
+                estimate += access.estimate;
+            }
+            StringJoiner description = new StringJoiner(" + ", "union of ", "");
+            for (IndexAccess part : parts) {
+                description.add(part.description);
+            }
+            return new IndexAccess(description.toString(), estimate, () -> {
+                Map<String, Vehicle> union = new LinkedHashMap<>();
+                for (IndexAccess part : parts) {
+                    for (Vehicle v : part.fetch.get()) {
+                        union.putIfAbsent(v.getId(), v);
+                    }
+                }
+                return union.values();
+            });
+        }
+        return null;
+    }
+
+    // Smallest string greater than every string starting with prefix, or null if there is none.
+    private static String prefixEnd(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
     }
 
     public void sortFleetByModel() {
@@ -139,12 +925,16 @@ public class FleetManager {
      * Z->A.
      */
     public void sortFleetByModel(boolean ascending) {
-        Comparator<String> modelCmp = Comparator.nullsLast(String::compareTo);
-        Comparator<Vehicle> cmp = Comparator.comparing(Vehicle::getModel, modelCmp);
-        if (!ascending) {
-            cmp = cmp.reversed();
+        // Rank models once through the model dictionary; vehicles without a
+        // model rank after every model (so they come first when descending)
+        List<Vehicle> current = new ArrayList<>(fleet.values());
+        int[] modelRanks = handles.models().sortedRanks();
+        int[] ranks = new int[current.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            int code = handles.modelCodeAt(handles.handleOf(current.get(i).getId()));
+            ranks[i] = code < 0 ? modelRanks.length : modelRanks[code];
         }
-        fleet.sort(cmp);
+        sortByKey(current, ranks, ascending);
     }
 
     public void sortFleetBySpeed() {
@@ -156,11 +946,8 @@ public class FleetManager {
      * high->low.
      */
     public void sortFleetBySpeed(boolean ascending) {
-        Comparator<Vehicle> cmp = Comparator.comparingDouble(Vehicle::getMaxSpeed);
-        if (!ascending) {
-            cmp = cmp.reversed();
-        }
-        fleet.sort(cmp);
+        List<Vehicle> current = new ArrayList<>(fleet.values());
+        sortByKey(current, denseRanks(current, Vehicle::getMaxSpeed), ascending);
     }
 
     public void sortFleetByMileage() {
@@ -173,11 +960,8 @@ public class FleetManager {
      * otherwise high->low.
      */
     public void sortFleetByMileage(boolean ascending) {
-        Comparator<Vehicle> cmp = Comparator.comparingDouble(Vehicle::getCurrentMileage);
-        if (!ascending) {
-            cmp = cmp.reversed();
-        }
-        fleet.sort(cmp);
+        List<Vehicle> current = new ArrayList<>(fleet.values());
+        sortByKey(current, denseRanks(current, Vehicle::getCurrentMileage), ascending);
     }
 
     public void sortFleetById() {
@@ -188,90 +972,217 @@ public class FleetManager {
      * Sort fleet by ID. If ascending is true sorts A->Z, otherwise Z->A.
      */
     public void sortFleetById(boolean ascending) {
-        Comparator<Vehicle> cmp = Comparator.comparing(Vehicle::getId, Comparator.nullsLast(String::compareTo));
-        if (!ascending) {
-            cmp = cmp.reversed();
-        }
-        fleet.sort(cmp);
+        // IDs are unique, so the ID index already holds the sorted order
+        relink(orderedIndexes.get(FleetOrder.ID).page(ascending, 0, fleet.size()));
     }
 
     public double getTotalFuelRemaining() {
-        double total = 0.0;
-        for (Vehicle v : fleet) {
-            if (v instanceof FuelConsumable) {
-                total += ((FuelConsumable) v).getFuelLevel();
-            }
-        }
-        return total;
+        return columns.totalFuel();
     }
 
     public Vehicle getVehicleById(String id) {
-        return fleet.stream().filter(v -> v.getId().equals(id)).findFirst().orElse(null);
+        return fleet.get(id);
+    }
+
+    // Number of vehicles in the fleet
+    public int size() {
+        return fleet.size();
+    }
+
+    /**
+     * Dense integer handle of the vehicle with this ID, or -1 if it is not in
+     * the fleet. Handles are assigned on insert, reused after a removal and
+     * reassigned when a fleet is loaded from file, so they are only meaningful
+     * while the vehicle remains in the fleet.
+     */
+    public int getHandle(String id) {
+        return handles.handleOf(id);
+    }
+
+    // Vehicle holding the handle, or null if the handle is not in use
+    public Vehicle getVehicleByHandle(int handle) {
+        return handles.vehicleAt(handle);
+    }
+
+    // Dictionary code of a model, or -1 if no vehicle with that model has been added
+    public int getModelCode(String model) {
+        return model == null ? -1 : handles.models().codeOf(model);
+    }
+
+    public String getModelName(int code) {
+        return handles.models().decode(code);
     }
 
     // Return a snapshot copy of the fleet list for safe external iteration/display
     public List<Vehicle> getFleetSnapshot() {
-        return new ArrayList<>(fleet);
+        return new ArrayList<>(fleet.values());
+    }
+
+    /**
+     * Immutable point-in-time view of the fleet and the state of every
+     * vehicle. O(1): no copying happens here, and later changes to the fleet
+     * or its vehicles are not visible through the returned snapshot. A
+     * vehicle's state is captured when the operation that changed it ends,
+     * so an operation that updates several fields (a journey changes fuel
+     * and mileage) becomes visible all at once. A vehicle changed directly
+     * counts as one operation per grouped update (see Vehicle.beginUpdate).
+     */
+    public FleetSnapshot takeSnapshot() {
+        return current;
+    }
+
+    /**
+     * Decorate-sort-undecorate: reorder the vehicles by a precomputed int key
+     * per vehicle. Each key is packed with the vehicle's position into one
+     * long, (key << 32) | position, so a primitive sort orders by key and
+     * keeps ties in their original order (a stable sort) without calling
+     * back into the vehicles. Large fleets use Arrays.parallelSort.
+     */
+    private void sortByKey(List<Vehicle> vehicles, int[] ranks, boolean ascending) {
+        int top = 0;
+        for (int rank : ranks) {
+            top = Math.max(top, rank);
+        }
+        long[] packed = new long[ranks.length];
+        for (int i = 0; i < packed.length; i++) {
+            long rank = ascending ? ranks[i] : top - ranks[i];
+            packed[i] = (rank << 32) | i;
+        }
+        if (packed.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(packed);
+        } else {
+            Arrays.sort(packed);
+        }
+        List<Vehicle> sorted = new ArrayList<>(packed.length);
+        for (long entry : packed) {
+            sorted.add(vehicles.get((int) entry));
+        }
+        relink(sorted);
+    }
+
+    /**
+     * Key of every vehicle, extracted with one call per vehicle and replaced
+     * by its rank among the distinct keys (0 = smallest, equal keys share a
+     * rank). Ranks follow Double.compare, as Comparator.comparingDouble does.
+     */
+    private static int[] denseRanks(List<Vehicle> vehicles, ToDoubleFunction<Vehicle> key) {
+        double[] keys = new double[vehicles.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.applyAsDouble(vehicles.get(i));
+        }
+        double[] distinct = keys.clone();
+        if (distinct.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(distinct);
+        } else {
+            Arrays.sort(distinct);
+        }
+        int count = 0;
+        for (double value : distinct) {
+            if (count == 0 || Double.compare(distinct[count - 1], value) != 0) {
+                distinct[count++] = value;
+            }
+        }
+        int[] ranks = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranks[i] = Arrays.binarySearch(distinct, 0, count, keys[i]);
+        }
+        return ranks;
+    }
+
+    // Re-insert vehicles so that the map's iteration order follows the given list.
+    private void relink(List<Vehicle> ordered) {
+        fleet.clear();
+        for (Vehicle v : ordered) {
+            fleet.put(v.getId(), v);
+        }
+        // Only the type and model buckets follow fleet order; the ordered
+        // indexes, columns, handles and snapshot do not depend on it.
+        typeIndex.clear();
+        vehiclesByModel.clear();
+        for (Vehicle v : fleet.values()) {
+            indexByTypeAndModel(v);
+        }
+    }
+
+    /**
+     * Snapshot of the fleet-wide statistics. Built from running totals kept by
+     * the column store and the speed index, so it does not scan the fleet.
+     */
+    public FleetStatistics getStatistics() {
+        Map<String, Integer> countByType = new LinkedHashMap<>();
+        int[] countByCode = columns.countByTypeCode();
+        for (int code = 1; code < countByCode.length; code++) {
+            if (countByCode[code] > 0) {
+                countByType.put(ColumnarFleetStore.TYPE_NAMES[code], countByCode[code]);
+            }
+        }
+        if (countByCode[ColumnarFleetStore.TYPE_OTHER] > 0) {
+            // Vehicle classes without a type code are counted by class name
+            for (int row = 0; row < columns.size(); row++) {
+                if (columns.typeCodeAt(row) == ColumnarFleetStore.TYPE_OTHER) {
+                    String typeName = columns.vehicleAt(row).getClass().getSimpleName();
+                    countByType.put(typeName, countByType.getOrDefault(typeName, 0) + 1);
+                }
+            }
+        }
+        OrderedIndex<?> bySpeed = orderedIndexes.get(FleetOrder.SPEED);
+        return new FleetStatistics(fleet.size(), countByType, columns.totalMileage(), columns.totalFuel(),
+                columns.totalEfficiency(), columns.countFuelEfficient(), vehiclesByModel.size(),
+                columns.countMaintenanceDue(), bySpeed.first(false), bySpeed.first(true));
     }
 
     //String generateReport(): Summary of fleet stats (total vehicles, count by type, average efficiency, total mileage, maintenance status).
     public String generateReport() {
+        return generateReport(true);
+    }
+
+    /**
+     * Fleet report. The summary sections come from {@link #getStatistics()};
+     * the per-vehicle maintenance listing, the only part that grows with the
+     * fleet, is included only when includeMaintenanceListing is true.
+     */
+    public String generateReport(boolean includeMaintenanceListing) {
         if (fleet.isEmpty()) {
             return "The fleet is Empty.";
         }
-        int totalVehicles = 0, totalFuelVehicles = 0;
-        Map<String, Integer> countByType = new HashMap<>();
-        double totalEfficiency = 0, totalMileage = 0;
-        for (Vehicle vehicle : fleet) {
-            // increment the mileage by current vehicle current mileage
-            totalMileage += vehicle.getCurrentMileage();
-            //increment the number of vehicles
-            totalVehicles++;
-            // increment the class type
-            String typeName = vehicle.getClass().getSimpleName();
-            countByType.put(typeName, countByType.getOrDefault(typeName, 0) + 1);
-            //increment efficiency of fuel
-            double efficiency = vehicle.calculateFuelEfficiency();
-            if (efficiency > 0) {
-                totalEfficiency += efficiency;
-                totalFuelVehicles++;
-            }
-        }
-        double averageEfficiency = 0;
-        if (totalFuelVehicles > 0) {
-            averageEfficiency = totalEfficiency / totalFuelVehicles;
-        }
+        return formatReport(getStatistics(), includeMaintenanceListing ? fleet.values() : null);
+    }
 
+    // Report text shared with ShardedFleetManager; listing is null to leave out the per-vehicle section.
+    static String formatReport(FleetStatistics stats, Iterable<Vehicle> listing) {
         StringBuilder report = new StringBuilder();
         report.append("--- Fleet Status Report ---\n");
         report.append("=================================\n");
-        report.append(String.format("Total Vehicles: %d\n", totalVehicles));
+        report.append(String.format("Total Vehicles: %d\n", stats.getTotalVehicles()));
         report.append("Vehicles by Type:\n");
-        for (Map.Entry<String, Integer> entry : countByType.entrySet()) {
+        for (Map.Entry<String, Integer> entry : stats.getCountByType().entrySet()) {
             report.append(String.format("  - %s: %d\n", entry.getKey(), entry.getValue()));
         }
-        report.append(String.format("Total Fleet Mileage: %.2f km\n", totalMileage));
-        report.append(String.format("Distinct Models: %d\n", modelSet.size()));
-        report.append(String.format("Total Fuel Remaining: %.2f liters\n", getTotalFuelRemaining()));
-        report.append(String.format("Average Fuel Efficiency: %.2f km/l\n", averageEfficiency));
-        report.append("Maintenance status:\n");
-        for (Vehicle v : fleet) {
-            String status;
-            if (v instanceof Maintainable) {
-                if (((Maintainable) v).needsMaintenance()) {
-                    status = "Needs Maintenance";
+        report.append(String.format("Total Fleet Mileage: %.2f km\n", stats.getTotalMileage()));
+        report.append(String.format("Distinct Models: %d\n", stats.getDistinctModels()));
+        report.append(String.format("Total Fuel Remaining: %.2f liters\n", stats.getTotalFuelRemaining()));
+        report.append(String.format("Average Fuel Efficiency: %.2f km/l\n", stats.getAverageEfficiency()));
+        report.append(String.format("Vehicles Needing Maintenance: %d\n", stats.getVehiclesNeedingMaintenance()));
+        if (listing != null) {
+            report.append("Maintenance status:\n");
+            for (Vehicle v : listing) {
+                String status;
+                if (v instanceof Maintainable) {
+                    if (((Maintainable) v).needsMaintenance()) {
+                        status = "Needs Maintenance";
+                    } else {
+                        status = "Doesn't need Maintenance";
+                    }
                 } else {
-                    status = "Doesn't need Maintenance";
+                    status = "Not Maintainable";
                 }
-            } else {
-                status = "Not Maintainable";
+                report.append(String.format("  - %s (%s): %s\n", v.getId(), v.getModel(), status));
             }
-            report.append(String.format("  - %s (%s): %s\n", v.getId(), v.getModel(), status));
         }
         report.append("=================================\n");
         // fastest / slowest summary
-        Vehicle fastest = getFastestVehicle();
-        Vehicle slowest = getSlowestVehicle();
+        Vehicle fastest = stats.getFastest();
+        Vehicle slowest = stats.getSlowest();
         if (fastest != null || slowest != null) {
             report.append("--- Speed summary ---\n");
             if (fastest != null) {
@@ -289,102 +1200,69 @@ public class FleetManager {
         if (refuelAmount <= 0) {
             throw new InvalidOperationException("Refuel amount must be positive.");
         }
-        for (Vehicle vehicle : fleet) {
-            if (vehicle instanceof FuelConsumable) {
-                if (vehicle instanceof CargoShip) {
-                    if (((CargoShip) vehicle).getHasSail()) {
-                        // skip sail-powered ships
-                        continue;
+        beginChanges();
+        try {
+            for (Vehicle vehicle : fleet.values()) {
+                if (vehicle instanceof FuelConsumable) {
+                    if (vehicle instanceof CargoShip) {
+                        if (((CargoShip) vehicle).getHasSail()) {
+                            // skip sail-powered ships
+                            continue;
+                        }
+                    }
+                    try {
+                        ((FuelConsumable) vehicle).refuel(refuelAmount);
+                    } catch (InvalidOperationException e) {
+                        // This should not happen because we've validated refuelAmount > 0,
+                        // but log to stderr and continue to next vehicle.
+                        System.err.println("Failed to refuel vehicle " + vehicle.getId() + ": " + e.getMessage());
                     }
-                }
-                try {
-                    ((FuelConsumable) vehicle).refuel(refuelAmount);
-                } catch (InvalidOperationException e) {
-                    // This should not happen because we've validated refuelAmount > 0,
-                    // but log to stderr and continue to next vehicle.
-                    System.err.println("Failed to refuel vehicle " + vehicle.getId() + ": " + e.getMessage());
-                }
 
+                }
             }
+        } finally {
+            endChanges();
         }
         System.out.println("All compatible vehicles refueled.");
     }
 
+    /**
+     * Parallel variant of refuelAll. Sail-powered ships and vehicles that are
+     * not FuelConsumable are counted as skipped.
+     */
+    public BulkOperationResult refuelAll(double refuelAmount, ForkJoinPool pool) throws InvalidOperationException {
+        if (refuelAmount <= 0) {
+            throw new InvalidOperationException("Refuel amount must be positive.");
+        }
+        return runInParallel(pool, vehicle -> {
+            if (!(vehicle instanceof FuelConsumable)) {
+                return false;
+            }
+            if (vehicle instanceof CargoShip && ((CargoShip) vehicle).getHasSail()) {
+                return false;
+            }
+            ((FuelConsumable) vehicle).refuel(refuelAmount);
+            return true;
+        });
+    }
+
     /**
      * Sort fleet by fuel efficiency. If ascending is true sorts low->high,
      * otherwise high->low.
      */
     public void sortFleetByEfficiency(boolean ascending) {
-        Comparator<Vehicle> cmp = Comparator.comparingDouble(Vehicle::calculateFuelEfficiency);
-        if (!ascending) {
-            cmp = cmp.reversed();
-        }
-        fleet.sort(cmp);
+        List<Vehicle> current = new ArrayList<>(fleet.values());
+        sortByKey(current, denseRanks(current, Vehicle::calculateFuelEfficiency), ascending);
     }
     // PERSISTENCE
     // void saveToFile(String filename): Save fleet to CSV (e.g., “Car,V001,Toyota,120.0,4,50.0,5,0” for a Car).
     //• void loadFromFile(String filename): Load from CSV, recreate vehicles (use factory method for type parsing).
     //• Handle IOExceptions with user-friendly messages.
 
+    // The file is written as UTF-8 whatever the platform charset (see FleetCsvReader).
     public void saveToFile(String filename) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            // Explicit header to document common fields. Extra fields vary by type and
-            // are appended after the common columns.
-            writer.println("Type,ID,Model,MaxSpeed,Mileage,ExtraFields...");
-            for (Vehicle vehicle : fleet) {
-                // Common properties (VEHICLE)
-                String commonData = String.join(",",
-                        vehicle.getClass().getSimpleName(),
-                        vehicle.getId(),
-                        vehicle.getModel(),
-                        String.valueOf(vehicle.getMaxSpeed()),
-                        String.valueOf(vehicle.getCurrentMileage())
-                );
-                String vehicleSpecificData = "";
-                if (vehicle instanceof Car car) {
-                    // Format: NumWheels,FuelLevel,CurrentPassengers
-                    vehicleSpecificData = String.join(",",
-                            String.valueOf(car.getNumWheels()),
-                            String.valueOf(car.getFuelLevel()),
-                            String.valueOf(car.getCurrentPassengers())
-                    );
-                } else if (vehicle instanceof Truck truck) {
-                    // Format: NumWheels,FuelLevel,CurrentCargo
-                    vehicleSpecificData = String.join(",",
-                            String.valueOf(truck.getNumWheels()),
-                            String.valueOf(truck.getFuelLevel()),
-                            String.valueOf(truck.getCurrentCargo())
-                    );
-                } else if (vehicle instanceof Bus bus) {
-                    // Format: NumWheels,FuelLevel,CurrentPassengers,CurrentCargo
-                    vehicleSpecificData = String.join(",",
-                            String.valueOf(bus.getNumWheels()),
-                            String.valueOf(bus.getFuelLevel()),
-                            String.valueOf(bus.getCurrentPassengers()),
-                            String.valueOf(bus.getCurrentCargo())
-                    );
-                } else if (vehicle instanceof Airplane airplane) {
-                    // Format: MaxAltitude,FuelLevel,CurrentPassengers,CurrentCargo
-                    vehicleSpecificData = String.join(",",
-                            String.valueOf(airplane.getMaxAltitude()),
-                            String.valueOf(airplane.getFuelLevel()),
-                            String.valueOf(airplane.getCurrentPassengers()),
-                            String.valueOf(airplane.getCurrentCargo())
-                    );
-                } else if (vehicle instanceof CargoShip ship) {
-                    // Format: HasSail,FuelLevel,CurrentCargo
-                    vehicleSpecificData = String.join(",",
-                            String.valueOf(ship.getHasSail()),
-                            String.valueOf(ship.getFuelLevel()),
-                            String.valueOf(ship.getCurrentCargo())
-                    );
-                }
-                if (vehicleSpecificData.isEmpty()) {
-                    writer.println(commonData);
-                } else {
-                    writer.println(commonData + "," + vehicleSpecificData);
-                }
-            }
+        try {
+            FleetCsvWriter.writeFile(fleet.values(), filename);
             System.out.println("\nFleet saved to " + filename);
         } catch (IOException e) {
             System.err.println("Error saving fleet to file: " + e.getMessage());
@@ -392,44 +1270,106 @@ public class FleetManager {
         }
     }
 
+    /**
+     * Parallel variant of saveToFile for large fleets: parts of the fleet are
+     * encoded on the given pool and written in fleet order, so the file is
+     * the same as the one saveToFile writes.
+     */
+    public void saveToFile(String filename, ForkJoinPool pool) throws IOException {
+        try (FleetCsvWriter writer = FleetCsvWriter.create(filename)) {
+            writer.writeHeader();
+            writer.writeAll(new ArrayList<>(fleet.values()), pool);
+            writer.flush();
+            System.out.println("\nFleet saved to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error saving fleet to file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Swap in a freshly loaded fleet (keyed by ID, in file order) and rebuild all indexes.
+    protected void replaceFleet(Map<String, Vehicle> newFleet) {
+        for (Vehicle vehicle : fleet.values()) {
+            vehicle.removeStateListener(stateListener);
+        }
+        fleet = newFleet;
+        handles.clear();
+        for (Vehicle vehicle : fleet.values()) {
+            handles.assign(vehicle);
+        }
+        rebuildIndexes();
+        changedStates.clear();
+        List<VehicleState> states = new ArrayList<>(fleet.size());
+        for (Vehicle vehicle : fleet.values()) {
+            states.add(VehicleState.of(vehicle));
+        }
+        current = current.replacedBy(states);
+        for (Vehicle vehicle : fleet.values()) {
+            vehicle.addStateListener(stateListener);
+        }
+        recordChange(FleetChange.loaded(current), null);
+    }
+
+    // The file is read as UTF-8 whatever the platform charset (see FleetCsvReader).
     public void loadFromFile(String filename) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            List<Vehicle> tempList = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim();
-                if (trimmed.isEmpty()) {
-                    continue;
-                }
-                // Skip header if present
-                if (trimmed.toLowerCase().startsWith("type,")) {
-                    continue;
-                }
-                String[] data = line.split(",");
-                // Trim individual tokens to be robust to whitespace
-                for (int i = 0; i < data.length; i++) {
-                    data[i] = data[i].trim();
-                }
-                try {
-                    Vehicle v = VehicleFactory.createVehicle(data);
-                    if (v != null) {
-                        tempList.add(v);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Skipping malformed line in " + filename + ": " + line + " (" + e.getMessage() + ")");
-                }
-            }
+        try {
+            Map<String, Vehicle> tempFleet = FleetCsvReader.readFleet(filename);
 
             // Replace fleet atomically with parsed vehicles only if parsing completed.
-            fleet.clear();
-            fleet.addAll(tempList);
-            // rebuild modelSet
-            modelSet.clear();
-            for (Vehicle vehicle : fleet) {
-                if (vehicle.getModel() != null) {
-                    modelSet.add(vehicle.getModel());
-                }
-            }
+            replaceFleet(tempFleet);
+
+            System.out.println("Fleet loaded successfully from " + filename);
+        } catch (FileNotFoundException e) {
+            System.err.println("Load failed: File not found: " + filename);
+        } catch (IOException e) {
+            System.err.println("Error loading fleet from file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Parallel variant of loadFromFile for large files: the file is
+     * memory-mapped in line-aligned chunks that are parsed on the given pool.
+     * Loads the same fleet and reports duplicates and malformed lines the
+     * same way, in file order.
+     */
+    public void loadFromFile(String filename, ForkJoinPool pool) throws IOException {
+        try {
+            Map<String, Vehicle> tempFleet = MappedFleetLoader.load(filename, pool);
+
+            // Replace fleet atomically with parsed vehicles only if parsing completed.
+            replaceFleet(tempFleet);
+
+            System.out.println("Fleet loaded successfully from " + filename);
+        } catch (FileNotFoundException e) {
+            System.err.println("Load failed: File not found: " + filename);
+        } catch (IOException e) {
+            System.err.println("Error loading fleet from file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Save the fleet as a binary snapshot (see FleetBinaryFormat), which is
+     * much faster to write and load than CSV.
+     */
+    public void saveToBinaryFile(String filename) throws IOException {
+        try {
+            FleetBinaryFormat.write(fleet.values(), filename);
+            System.out.println("\nFleet saved to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error saving fleet to file: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Load a binary snapshot written by saveToBinaryFile, replacing the fleet.
+    public void loadFromBinaryFile(String filename) throws IOException {
+        try {
+            Map<String, Vehicle> tempFleet = FleetBinaryFormat.read(filename);
+
+            // Replace fleet atomically with parsed vehicles only if parsing completed.
+            replaceFleet(tempFleet);
 
             System.out.println("Fleet loaded successfully from " + filename);
         } catch (FileNotFoundException e) {
@@ -0,0 +1,39 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.PassengerCarrier;
+import vehicles.Vehicle;
+
+/**
+ * Numeric vehicle properties held as columns in the fleet's column store and
+ * usable for top-K / bottom-K, range and FleetQuery filters.
+ */
+public enum FleetMetric {
+    SPEED,
+    MILEAGE,
+    FUEL,
+    EFFICIENCY,
+    CARGO,
+    PASSENGERS;
+
+    // Current value for a vehicle; missing capabilities read as 0.
+    double of(Vehicle v) {
+        switch (this) {
+            case SPEED:
+                return v.getMaxSpeed();
+            case MILEAGE:
+                return v.getCurrentMileage();
+            case FUEL:
+                return v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+            case EFFICIENCY:
+                return v.calculateFuelEfficiency();
+            case CARGO:
+                return v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0;
+            case PASSENGERS:
+                return v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + this);
+        }
+    }
+}
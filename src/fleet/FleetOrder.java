@@ -0,0 +1,36 @@
+package fleet;
+
+import vehicles.VehicleProperty;
+
+/**
+ * Orderings maintained by FleetManager as ordered indexes. Each ordering
+ * lists the vehicle properties whose changes can move a vehicle within it.
+ */
+public enum FleetOrder {
+    ID,
+    MODEL,
+    SPEED,
+    MILEAGE(VehicleProperty.MILEAGE),
+    // Truck efficiency drops when it is loaded over half capacity
+    EFFICIENCY(VehicleProperty.CARGO),
+    FUEL(VehicleProperty.FUEL),
+    CARGO(VehicleProperty.CARGO),
+    PASSENGERS(VehicleProperty.PASSENGERS),
+    // Kilometres left until maintenance is due, most urgent first
+    MAINTENANCE(VehicleProperty.MILEAGE, VehicleProperty.MAINTENANCE);
+
+    private final VehicleProperty[] dependsOn;
+
+    FleetOrder(VehicleProperty... dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    public boolean dependsOn(VehicleProperty property) {
+        for (VehicleProperty p : dependsOn) {
+            if (p == property) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import vehicles.Vehicle;
+
+/**
+ * Filter condition for a FleetQuery. Conditions are built from the static
+ * factories and combined with and / or; FleetManager inspects their structure
+ * to choose an index, so only these shapes are supported.
+ */
+public abstract class FleetPredicate {
+
+    FleetPredicate() {
+    }
+
+    public abstract boolean test(Vehicle v);
+
+    // Matches every vehicle
+    public static FleetPredicate all() {
+        return All.INSTANCE;
+    }
+
+    // Vehicles that are instances of the given class or interface
+    public static FleetPredicate ofType(Class<?> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type must not be null.");
+        }
+        return new TypeIs(type);
+    }
+
+    public static FleetPredicate model(String model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model must not be null.");
+        }
+        return new ModelIs(model);
+    }
+
+    public static FleetPredicate idStartsWith(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix must not be null.");
+        }
+        return new IdPrefix(prefix);
+    }
+
+    // Metric between min and max, both inclusive
+    public static FleetPredicate between(FleetMetric metric, double min, double max) {
+        if (metric == null) {
+            throw new IllegalArgumentException("Metric must not be null.");
+        }
+        return new InRange(metric, min, max);
+    }
+
+    public static FleetPredicate atLeast(FleetMetric metric, double min) {
+        return between(metric, min, Double.POSITIVE_INFINITY);
+    }
+
+    public static FleetPredicate atMost(FleetMetric metric, double max) {
+        return between(metric, Double.NEGATIVE_INFINITY, max);
+    }
+
+    public FleetPredicate and(FleetPredicate other) {
+        return new And(join(And.class, this, other));
+    }
+
+    public FleetPredicate or(FleetPredicate other) {
+        return new Or(join(Or.class, this, other));
+    }
+
+    // Flatten nested ANDs (or ORs) so the planner sees all terms at one level
+    private static List<FleetPredicate> join(Class<? extends Combined> kind, FleetPredicate a, FleetPredicate b) {
+        List<FleetPredicate> terms = new ArrayList<>();
+        for (FleetPredicate p : new FleetPredicate[]{a, b}) {
+            if (p == null) {
+                throw new IllegalArgumentException("Predicate must not be null.");
+            }
+            if (kind.isInstance(p)) {
+                terms.addAll(((Combined) p).terms);
+            } else {
+                terms.add(p);
+            }
+        }
+        return Collections.unmodifiableList(terms);
+    }
+
+    static final class All extends FleetPredicate {
+        static final All INSTANCE = new All();
+
+        @Override
+        public boolean test(Vehicle v) {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "all";
+        }
+    }
+
+    static final class TypeIs extends FleetPredicate {
+        final Class<?> type;
+
+        TypeIs(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            return type.isInstance(v);
+        }
+
+        @Override
+        public String toString() {
+            return "type = " + type.getSimpleName();
+        }
+    }
+
+    static final class ModelIs extends FleetPredicate {
+        final String model;
+
+        ModelIs(String model) {
+            this.model = model;
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            return model.equals(v.getModel());
+        }
+
+        @Override
+        public String toString() {
+            return "model = '" + model + "'";
+        }
+    }
+
+    static final class IdPrefix extends FleetPredicate {
+        final String prefix;
+
+        IdPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            return v.getId().startsWith(prefix);
+        }
+
+        @Override
+        public String toString() {
+            return "id starts with '" + prefix + "'";
+        }
+    }
+
+    static final class InRange extends FleetPredicate {
+        final FleetMetric metric;
+        final double min;
+        final double max;
+
+        InRange(FleetMetric metric, double min, double max) {
+            this.metric = metric;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            double value = metric.of(v);
+            return value >= min && value <= max;
+        }
+
+        @Override
+        public String toString() {
+            return metric.name().toLowerCase() + " in [" + min + ", " + max + "]";
+        }
+    }
+
+    abstract static class Combined extends FleetPredicate {
+        final List<FleetPredicate> terms;
+
+        Combined(List<FleetPredicate> terms) {
+            this.terms = terms;
+        }
+
+        String joined(String operator) {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < terms.size(); i++) {
+                if (i > 0) {
+                    sb.append(' ').append(operator).append(' ');
+                }
+                sb.append(terms.get(i));
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    static final class And extends Combined {
+        And(List<FleetPredicate> terms) {
+            super(terms);
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            for (FleetPredicate p : terms) {
+                if (!p.test(v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return joined("AND");
+        }
+    }
+
+    static final class Or extends Combined {
+        Or(List<FleetPredicate> terms) {
+            super(terms);
+        }
+
+        @Override
+        public boolean test(Vehicle v) {
+            for (FleetPredicate p : terms) {
+                if (p.test(v)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return joined("OR");
+        }
+    }
+}
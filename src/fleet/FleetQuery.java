@@ -0,0 +1,94 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.util.HashMap;
+import java.util.Map;
+import vehicles.*;
+
+/**
+ * A filter over the fleet with an optional ordering and result limit, run
+ * with FleetManager.query. FleetManager.explain shows how it will be
+ * answered: from an index when one of the conditions narrows the fleet,
+ * otherwise by scanning.
+ *
+ * Without orderBy the result order depends on the access path chosen.
+ */
+public class FleetQuery {
+
+    // Vehicle classes and capability interfaces that can be searched by name
+    private static final Map<String, Class<?>> TYPES_BY_NAME = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{Car.class, Truck.class, Bus.class, Airplane.class, CargoShip.class,
+                LandVehicle.class, AirVehicle.class, WaterVehicle.class, FuelConsumable.class,
+                CargoCarrier.class, PassengerCarrier.class, Maintainable.class}) {
+            TYPES_BY_NAME.put(type.getSimpleName().toLowerCase(), type);
+        }
+    }
+
+    private final FleetPredicate where;
+    private FleetOrder orderBy;
+    private boolean ascending = true;
+    private int limit = -1;
+
+    public FleetQuery(FleetPredicate where) {
+        if (where == null) {
+            throw new IllegalArgumentException("Predicate must not be null.");
+        }
+        this.where = where;
+    }
+
+    public FleetQuery orderBy(FleetOrder order, boolean ascending) {
+        this.orderBy = order;
+        this.ascending = ascending;
+        return this;
+    }
+
+    public FleetQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative.");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    FleetPredicate getWhere() {
+        return where;
+    }
+
+    FleetOrder getOrderBy() {
+        return orderBy;
+    }
+
+    boolean isAscending() {
+        return ascending;
+    }
+
+    // -1 when unlimited
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Vehicle class or capability interface for a case-insensitive simple
+     * name such as "truck" or "CargoCarrier", or null if there is none.
+     */
+    public static Class<?> resolveType(String name) {
+        return name == null ? null : TYPES_BY_NAME.get(name.trim().toLowerCase());
+    }
+
+    @Override
+    public String toString() {
+        String s = "WHERE " + where;
+        if (orderBy != null) {
+            s += " ORDER BY " + orderBy + (ascending ? " ASC" : " DESC");
+        }
+        if (limit >= 0) {
+            s += " LIMIT " + limit;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,78 @@
+package fleet;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Immutable, versioned point-in-time view of the fleet: which vehicles it
+ * contained and the state of each one. Taking a snapshot is O(1) because
+ * FleetManager publishes a new persistent map on every change and a snapshot
+ * simply holds on to the current one; later changes never affect it.
+ * Iteration order is unspecified.
+ */
+public final class FleetSnapshot implements Iterable<VehicleState> {
+
+    static final FleetSnapshot EMPTY = new FleetSnapshot(0, PersistentVehicleMap.EMPTY);
+
+    private final long version;
+    private final PersistentVehicleMap states;
+
+    private FleetSnapshot(long version, PersistentVehicleMap states) {
+        this.version = version;
+        this.states = states;
+    }
+
+    // Next version with the vehicle's state added or replaced
+    FleetSnapshot with(VehicleState state) {
+        return new FleetSnapshot(version + 1, states.put(state));
+    }
+
+    // Next version without the given vehicle
+    FleetSnapshot without(String id) {
+        return new FleetSnapshot(version + 1, states.remove(id));
+    }
+
+    // Next version containing exactly the given states
+    FleetSnapshot replacedBy(Iterable<VehicleState> newStates) {
+        PersistentVehicleMap map = PersistentVehicleMap.EMPTY;
+        for (VehicleState state : newStates) {
+            map = map.put(state);
+        }
+        return new FleetSnapshot(version + 1, map);
+    }
+
+    // Increases by at least one with every change to the fleet
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public boolean isEmpty() {
+        return states.size() == 0;
+    }
+
+    public VehicleState get(String id) {
+        return id == null ? null : states.get(id);
+    }
+
+    public boolean contains(String id) {
+        return get(id) != null;
+    }
+
+    public List<VehicleState> toList() {
+        List<VehicleState> list = new ArrayList<>(states.size());
+        for (VehicleState state : states) {
+            list.add(state);
+        }
+        return list;
+    }
+
+    @Override
+    public Iterator<VehicleState> iterator() {
+        return states.iterator();
+    }
+}
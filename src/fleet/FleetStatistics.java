@@ -0,0 +1,123 @@
+package fleet;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import vehicles.Vehicle;
+
+/**
+ * Point-in-time summary of fleet-wide statistics, assembled by FleetManager
+ * from its running totals without a pass over the fleet.
+ */
+public class FleetStatistics {
+
+    private final int totalVehicles;
+    private final Map<String, Integer> countByType;
+    private final double totalMileage;
+    private final double totalFuelRemaining;
+    private final double totalEfficiency;
+    private final int fuelEfficientVehicles;
+    private final int distinctModels;
+    private final int vehiclesNeedingMaintenance;
+    private final Vehicle fastest;
+    private final Vehicle slowest;
+
+    FleetStatistics(int totalVehicles, Map<String, Integer> countByType, double totalMileage,
+            double totalFuelRemaining, double totalEfficiency, int fuelEfficientVehicles,
+            int distinctModels, int vehiclesNeedingMaintenance, Vehicle fastest, Vehicle slowest) {
+        this.totalVehicles = totalVehicles;
+        this.countByType = Collections.unmodifiableMap(new LinkedHashMap<>(countByType));
+        this.totalMileage = totalMileage;
+        this.totalFuelRemaining = totalFuelRemaining;
+        this.totalEfficiency = totalEfficiency;
+        this.fuelEfficientVehicles = fuelEfficientVehicles;
+        this.distinctModels = distinctModels;
+        this.vehiclesNeedingMaintenance = vehiclesNeedingMaintenance;
+        this.fastest = fastest;
+        this.slowest = slowest;
+    }
+
+    /**
+     * Combine the statistics of disjoint parts of a fleet (the shards of a
+     * ShardedFleetManager). Distinct models cannot be summed, so the caller
+     * supplies the size of the union. Ties for fastest / slowest are broken
+     * by ID the same way the speed index does.
+     */
+    static FleetStatistics merge(List<FleetStatistics> parts, int distinctModels) {
+        int totalVehicles = 0;
+        Map<String, Integer> countByType = new LinkedHashMap<>();
+        for (int code = 1; code < ColumnarFleetStore.TYPE_NAMES.length; code++) {
+            countByType.put(ColumnarFleetStore.TYPE_NAMES[code], 0);
+        }
+        double totalMileage = 0;
+        double totalFuelRemaining = 0;
+        double totalEfficiency = 0;
+        int fuelEfficientVehicles = 0;
+        int vehiclesNeedingMaintenance = 0;
+        Vehicle fastest = null;
+        Vehicle slowest = null;
+        for (FleetStatistics part : parts) {
+            totalVehicles += part.totalVehicles;
+            for (Map.Entry<String, Integer> entry : part.countByType.entrySet()) {
+                countByType.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+            totalMileage += part.totalMileage;
+            totalFuelRemaining += part.totalFuelRemaining;
+            totalEfficiency += part.totalEfficiency;
+            fuelEfficientVehicles += part.fuelEfficientVehicles;
+            vehiclesNeedingMaintenance += part.vehiclesNeedingMaintenance;
+            if (part.fastest != null && (fastest == null || compareSpeed(part.fastest, fastest) > 0)) {
+                fastest = part.fastest;
+            }
+            if (part.slowest != null && (slowest == null || compareSpeed(part.slowest, slowest) < 0)) {
+                slowest = part.slowest;
+            }
+        }
+        countByType.values().removeIf(count -> count == 0);
+        return new FleetStatistics(totalVehicles, countByType, totalMileage, totalFuelRemaining, totalEfficiency,
+                fuelEfficientVehicles, distinctModels, vehiclesNeedingMaintenance, fastest, slowest);
+    }
+
+    private static int compareSpeed(Vehicle a, Vehicle b) {
+        int bySpeed = Double.compare(a.getMaxSpeed(), b.getMaxSpeed());
+        return bySpeed != 0 ? bySpeed : a.getId().compareTo(b.getId());
+    }
+
+    public int getTotalVehicles() {
+        return totalVehicles;
+    }
+
+    public Map<String, Integer> getCountByType() {
+        return countByType;
+    }
+
+    public double getTotalMileage() {
+        return totalMileage;
+    }
+
+    public double getTotalFuelRemaining() {
+        return totalFuelRemaining;
+    }
+
+    // Average over vehicles with a positive fuel efficiency; 0 if there are none
+    public double getAverageEfficiency() {
+        return fuelEfficientVehicles > 0 ? totalEfficiency / fuelEfficientVehicles : 0;
+    }
+
+    public int getDistinctModels() {
+        return distinctModels;
+    }
+
+    public int getVehiclesNeedingMaintenance() {
+        return vehiclesNeedingMaintenance;
+    }
+
+    public Vehicle getFastest() {
+        return fastest;
+    }
+
+    public Vehicle getSlowest() {
+        return slowest;
+    }
+}
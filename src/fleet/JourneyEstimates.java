@@ -0,0 +1,44 @@
+package fleet;
+
+import vehicles.Vehicle;
+
+/**
+ * What-if figures for every vehicle in the fleet travelling the same distance:
+ * the journey time of each vehicle and the total fuel needed. Computed in one
+ * pass over the fleet's primitive columns.
+ */
+public class JourneyEstimates {
+
+    private final double distance;
+    private final Vehicle[] vehicles;
+    private final double[] hours;
+    private final double totalFuelConsumption;
+
+    JourneyEstimates(double distance, Vehicle[] vehicles, double[] hours, double totalFuelConsumption) {
+        this.distance = distance;
+        this.vehicles = vehicles;
+        this.hours = hours;
+        this.totalFuelConsumption = totalFuelConsumption;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public int size() {
+        return vehicles.length;
+    }
+
+    public Vehicle getVehicle(int i) {
+        return vehicles[i];
+    }
+
+    // Same value as getVehicle(i).estimateJourneyTime(getDistance())
+    public double getHours(int i) {
+        return hours[i];
+    }
+
+    public double getTotalFuelConsumption() {
+        return totalFuelConsumption;
+    }
+}
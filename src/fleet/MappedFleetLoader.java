@@ -0,0 +1,175 @@
+package fleet;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import vehicles.Vehicle;
+
+/**
+ * Parses a fleet CSV file on several threads for
+ * FleetManager.loadFromFile(String, ForkJoinPool).
+ *
+ * The file is cut into chunks that each end just after a line break. Each
+ * chunk is memory-mapped and parsed on its own with a FleetCsvReader and
+ * VehicleFactory. The chunk results are then merged in file order on the
+ * calling thread. Duplicate IDs are only detected during the merge, so
+ * the first occurrence in the file wins, and every skipped line is
+ * reported in file order with the same message as the sequential load.
+ */
+final class MappedFleetLoader {
+
+    private static final long MIN_CHUNK = 1L << 20;
+    // Keeps every mapped chunk well below the 2 GB limit of a ByteBuffer
+    private static final long MAX_CHUNK = 1L << 28;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_WINDOW = 8192;
+
+    private MappedFleetLoader() {
+    }
+
+    // The vehicles of the file by ID, in file order; malformed lines are reported on System.err.
+    static Map<String, Vehicle> load(String filename, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, pool.getParallelism());
+            List<Callable<Chunk>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(() -> parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+            }
+            Map<String, Vehicle> fleet = new LinkedHashMap<>();
+            for (Future<Chunk> result : pool.invokeAll(tasks)) {
+                merge(result.get(), fleet, filename);
+            }
+            return fleet;
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            throw new FileNotFoundException(filename);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + filename, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Chunk start offsets followed by the file size; every chunk but the
+    // last ends right after a \n, \r or \r\n
+    private static long[] chunkBounds(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / ((long) threads * CHUNKS_PER_THREAD) + 1));
+        long[] bounds = new long[16];
+        int count = 0;
+        bounds[count++] = 0;
+        long start = 0;
+        while (start < size) {
+            long end = start + chunk >= size ? size : lineEndAfter(channel, start + chunk, size);
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = end;
+            start = end;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // Offset just past the first line break that ends at or after the given offset
+    private static long lineEndAfter(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+        long position = offset - 1;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    // A \r\n pair stays in one chunk
+                    long next = position + i + 1;
+                    if (next < size && (i + 1 < read ? window.get(i + 1) : byteAt(channel, next)) == '\n') {
+                        return next + 1;
+                    }
+                    return next;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte byteAt(FileChannel channel, long offset) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, offset);
+        return one.get(0);
+    }
+
+    private static Chunk parse(ByteBuffer region) throws IOException {
+        FleetCsvReader reader = new FleetCsvReader(region);
+        Chunk chunk = new Chunk(reader);
+        while (reader.next()) {
+            try {
+                chunk.add(VehicleFactory.createVehicle(reader), reader.lineBounds());
+            } catch (Exception e) {
+                chunk.add(reader.line() + " (" + e.getMessage() + ")", 0);
+            }
+        }
+        return chunk;
+    }
+
+    private static void merge(Chunk chunk, Map<String, Vehicle> fleet, String filename) {
+        for (int i = 0; i < chunk.outcomes.size(); i++) {
+            Object outcome = chunk.outcomes.get(i);
+            if (outcome instanceof Vehicle v) {
+                if (!fleet.containsKey(v.getId())) {
+                    fleet.put(v.getId(), v);
+                    continue;
+                }
+                // Same message as the InvalidOperationException of the sequential load
+                outcome = chunk.reader.lineAt(chunk.lines[i]) + " (Vehicle with ID " + v.getId() + " already exists.)";
+            }
+            System.err.println("Skipping malformed line in " + filename + ": " + outcome);
+        }
+    }
+
+    // Parsed records of one chunk in file order: a Vehicle, or the
+    // "line (reason)" text of a line that failed to parse
+    private static final class Chunk {
+        final FleetCsvReader reader;
+        final List<Object> outcomes = new ArrayList<>();
+        // Line bounds within the chunk, per outcome, for reporting duplicates
+        long[] lines = new long[64];
+
+        Chunk(FleetCsvReader reader) {
+            this.reader = reader;
+        }
+
+        void add(Object outcome, long line) {
+            if (outcomes.size() == lines.length) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[outcomes.size()] = line;
+            outcomes.add(outcome);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import vehicles.*;
+
+/**
+ * Alternative fleet store for very large fleets. Each vehicle is a fixed-width
+ * record in direct (off-heap) ByteBuffers, so the garbage collector sees a few
+ * buffers instead of millions of vehicle objects, strings and listener lists.
+ *
+ * Vehicles are read and changed through OffHeapVehicle views, which implement
+ * the same Vehicle and capability interfaces as the heap classes and write
+ * through to the record. A view is only valid until its vehicle is removed;
+ * each record carries a generation, bumped on removal, that views check.
+ * The store is not thread-safe.
+ *
+ * Record layout (native byte order, RECORD_SIZE bytes):
+ *   type code, flags, ID length, model code, max speed, mileage, fuel,
+ *   cargo, mileage at last maintenance, passengers, wheels, ID hash,
+ *   generation, max altitude, ID bytes (UTF-8, inline).
+ * Models are dictionary-encoded; IDs are found through an open-addressing
+ * hash table of record slots.
+ */
+public class OffHeapFleetStore {
+
+    static final int TYPE = 0;
+    static final int FLAGS = 1;
+    static final int ID_LENGTH = 2;
+    static final int MODEL = 4;
+    static final int MAX_SPEED = 8;
+    static final int MILEAGE = 16;
+    static final int FUEL = 24;
+    static final int CARGO = 32;
+    static final int LAST_MAINTENANCE = 40;
+    static final int PASSENGERS = 48;
+    static final int WHEELS = 52;
+    static final int ID_HASH = 56;
+    static final int GENERATION = 60;
+    static final int ALTITUDE = 64;
+    static final int ID = 72;
+    static final int RECORD_SIZE = 128;
+    // Longest ID (in UTF-8 bytes) that fits inline
+    public static final int MAX_ID_BYTES = RECORD_SIZE - ID;
+
+    static final int FLAG_LIVE = 1;
+    static final int FLAG_MAINTENANCE_NEEDED = 2;
+    static final int FLAG_HAS_SAIL = 4;
+
+    // Records are allocated in chunks of 2^16 (8 MB) so the store can grow
+    // past the 2 GB limit of a single buffer without copying.
+    private static final int CHUNK_SHIFT = 16;
+    private static final int RECORDS_PER_CHUNK = 1 << CHUNK_SHIFT;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    // Slots below highWater have been used; freed ones are reused first.
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+
+    // Open-addressing (linear probing) table of slot + 1, 0 = empty
+    private int[] idTable = new int[16];
+
+    private final StringDictionary models = new StringDictionary();
+
+    /**
+     * Copy a heap vehicle into the store. Fails for duplicate IDs, IDs longer
+     * than MAX_ID_BYTES and vehicle classes other than the five built-in ones.
+     */
+    public void add(Vehicle v) throws InvalidOperationException {
+        int typeCode = ColumnarFleetStore.typeCodeOf(v);
+        if (typeCode == ColumnarFleetStore.TYPE_OTHER) {
+            throw new InvalidOperationException("Vehicle type " + v.getClass().getSimpleName() + " cannot be stored off-heap.");
+        }
+        byte[] id = v.getId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new InvalidOperationException("Vehicle ID " + v.getId() + " is longer than " + MAX_ID_BYTES + " bytes.");
+        }
+        int hash = hash(v.getId());
+        if (findSlot(id, hash) >= 0) {
+            throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
+        }
+        int slot = allocateSlot();
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        int flags = FLAG_LIVE;
+        if (v instanceof WaterVehicle && ((WaterVehicle) v).getHasSail()) {
+            flags |= FLAG_HAS_SAIL;
+        }
+        buf.put(base + TYPE, (byte) typeCode);
+        buf.put(base + FLAGS, (byte) flags);
+        buf.putShort(base + ID_LENGTH, (short) id.length);
+        buf.putInt(base + MODEL, v.getModel() == null ? -1 : models.encode(v.getModel()));
+        buf.putDouble(base + MAX_SPEED, v.getMaxSpeed());
+        writeState(slot, v);
+        buf.putInt(base + WHEELS, v instanceof LandVehicle ? ((LandVehicle) v).getNumWheels() : 0);
+        buf.putInt(base + ID_HASH, hash);
+        buf.putDouble(base + ALTITUDE, v instanceof AirVehicle ? ((AirVehicle) v).getMaxAltitude() : 0);
+        for (int i = 0; i < id.length; i++) {
+            buf.put(base + ID + i, id[i]);
+        }
+        insertIntoTable(slot, hash);
+        size++;
+    }
+
+    // A view of the vehicle with this ID, or null if it is not stored.
+    public OffHeapVehicle get(String id) {
+        int slot = findSlot(id);
+        return slot < 0 ? null : OffHeapVehicle.of(this, slot);
+    }
+
+    public boolean contains(String id) {
+        return findSlot(id) >= 0;
+    }
+
+    public void remove(String id) throws InvalidOperationException {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+        }
+        removeFromTable(slot);
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        buf.put(base + FLAGS, (byte) 0);
+        buf.putInt(base + GENERATION, buf.getInt(base + GENERATION) + 1);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Direct memory held by the record chunks.
+    public long offHeapBytes() {
+        return (long) chunks.size() * RECORDS_PER_CHUNK * RECORD_SIZE;
+    }
+
+    /**
+     * Visit every stored vehicle. One reusable view per vehicle type is
+     * re-pointed at each record, so no objects are created per vehicle; the
+     * view passed to the action is only valid during the call.
+     */
+    public void forEach(Consumer<? super OffHeapVehicle> action) {
+        OffHeapVehicle[] cursors = new OffHeapVehicle[ColumnarFleetStore.TYPE_NAMES.length];
+        for (int slot = 0; slot < highWater; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            int typeCode = typeCodeAt(slot);
+            if (cursors[typeCode] == null) {
+                cursors[typeCode] = OffHeapVehicle.of(this, slot);
+            } else {
+                cursors[typeCode].moveTo(slot);
+            }
+            action.accept(cursors[typeCode]);
+        }
+    }
+
+    public double getTotalFuelRemaining() {
+        return sum(FUEL);
+    }
+
+    public double getTotalMileage() {
+        return sum(MILEAGE);
+    }
+
+    // Sum one double field over all live records without creating views.
+    private double sum(int field) {
+        double total = 0;
+        for (int slot = 0; slot < highWater; slot++) {
+            if (isLive(slot)) {
+                total += chunk(slot).getDouble(offset(slot) + field);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Copy a stored vehicle back into an ordinary heap object (e.g. to add it
+     * to a FleetManager).
+     */
+    public Vehicle toVehicle(String id) throws InvalidOperationException {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+        }
+        return vehicleAt(slot);
+    }
+
+    // RECORD ACCESS (used by OffHeapVehicle)
+
+    ByteBuffer chunk(int slot) {
+        return chunks.get(slot >>> CHUNK_SHIFT);
+    }
+
+    static int offset(int slot) {
+        return (slot & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE;
+    }
+
+    int generationAt(int slot) {
+        return chunk(slot).getInt(offset(slot) + GENERATION);
+    }
+
+    // A heap vehicle with the state of the record in this slot
+    Vehicle vehicleAt(int slot) {
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        String id = idAt(slot);
+        String model = modelAt(slot);
+        double maxSpeed = buf.getDouble(base + MAX_SPEED);
+        double mileage = buf.getDouble(base + MILEAGE);
+        Vehicle v;
+        switch (typeCodeAt(slot)) {
+            case ColumnarFleetStore.TYPE_CAR:
+                v = new Car(id, model, maxSpeed, mileage, buf.getInt(base + WHEELS));
+                break;
+            case ColumnarFleetStore.TYPE_TRUCK:
+                v = new Truck(id, model, maxSpeed, mileage, buf.getInt(base + WHEELS));
+                break;
+            case ColumnarFleetStore.TYPE_BUS:
+                v = new Bus(id, model, maxSpeed, mileage, buf.getInt(base + WHEELS));
+                break;
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                v = new Airplane(id, model, maxSpeed, mileage, buf.getDouble(base + ALTITUDE));
+                break;
+            default:
+                v = new CargoShip(id, model, maxSpeed, mileage, (buf.get(base + FLAGS) & FLAG_HAS_SAIL) != 0);
+        }
+        double fuel = buf.getDouble(base + FUEL);
+        double cargo = buf.getDouble(base + CARGO);
+        int passengers = buf.getInt(base + PASSENGERS);
+        try {
+            if (v instanceof FuelConsumable && fuel > 0) {
+                ((FuelConsumable) v).refuel(fuel);
+            }
+            if (v instanceof CargoCarrier && cargo > 0) {
+                ((CargoCarrier) v).loadCargo(cargo);
+            }
+            if (v instanceof PassengerCarrier && passengers > 0) {
+                ((PassengerCarrier) v).boardPassengers(passengers);
+            }
+        } catch (InvalidOperationException | OverloadException e) {
+            // add() only stores states the vehicle classes accepted
+            throw new IllegalStateException("Corrupt off-heap record for vehicle " + id, e);
+        }
+        boolean scheduled = (buf.get(base + FLAGS) & FLAG_MAINTENANCE_NEEDED) != 0;
+        v.restoreMaintenanceState(buf.getDouble(base + LAST_MAINTENANCE), scheduled);
+        return v;
+    }
+
+    // Store the changeable state of a heap vehicle in this slot
+    void writeState(int slot, Vehicle v) {
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        byte flags = buf.get(base + FLAGS);
+        boolean scheduled = v instanceof Maintainable && v.isMaintenanceScheduled();
+        buf.put(base + FLAGS, (byte) (scheduled ? flags | FLAG_MAINTENANCE_NEEDED : flags & ~FLAG_MAINTENANCE_NEEDED));
+        buf.putDouble(base + MILEAGE, v.getCurrentMileage());
+        buf.putDouble(base + FUEL, v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0);
+        buf.putDouble(base + CARGO, v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0);
+        buf.putInt(base + PASSENGERS, v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0);
+        buf.putDouble(base + LAST_MAINTENANCE, v instanceof Maintainable ? v.getMileageAtLastMaintenance() : 0);
+    }
+
+    boolean isLive(int slot) {
+        return (chunk(slot).get(offset(slot) + FLAGS) & FLAG_LIVE) != 0;
+    }
+
+    int typeCodeAt(int slot) {
+        return chunk(slot).get(offset(slot) + TYPE);
+    }
+
+    String idAt(int slot) {
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        byte[] id = new byte[buf.getShort(base + ID_LENGTH)];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = buf.get(base + ID + i);
+        }
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    String modelAt(int slot) {
+        return models.decode(chunk(slot).getInt(offset(slot) + MODEL));
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == chunks.size() * RECORDS_PER_CHUNK) {
+            chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+        }
+        return highWater++;
+    }
+
+    // ID HASH TABLE
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int findSlot(String id) {
+        return id == null ? -1 : findSlot(id.getBytes(StandardCharsets.UTF_8), hash(id));
+    }
+
+    private int findSlot(byte[] id, int hash) {
+        int mask = idTable.length - 1;
+        for (int i = hash & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int slot = idTable[i] - 1;
+            if (chunk(slot).getInt(offset(slot) + ID_HASH) == hash && idEquals(slot, id)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean idEquals(int slot, byte[] id) {
+        ByteBuffer buf = chunk(slot);
+        int base = offset(slot);
+        if (buf.getShort(base + ID_LENGTH) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (buf.get(base + ID + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertIntoTable(int slot, int hash) {
+        // Keep the table at most half full
+        if ((size + 1) * 2 > idTable.length) {
+            int[] old = idTable;
+            idTable = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry, chunk(entry - 1).getInt(offset(entry - 1) + ID_HASH));
+                }
+            }
+        }
+        place(slot + 1, hash);
+    }
+
+    private void place(int entry, int hash) {
+        int mask = idTable.length - 1;
+        int i = hash & mask;
+        while (idTable[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idTable[i] = entry;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken without tombstones.
+    private void removeFromTable(int slot) {
+        int mask = idTable.length - 1;
+        int hole = chunk(slot).getInt(offset(slot) + ID_HASH) & mask;
+        while (idTable[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        idTable[hole] = 0;
+        for (int i = (hole + 1) & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int entry = idTable[i];
+            int home = chunk(entry - 1).getInt(offset(entry - 1) + ID_HASH) & mask;
+            // Entries whose home lies cyclically in (hole, i] stay where they are
+            boolean stays = hole <= i ? (home > hole && home <= i) : (home > hole || home <= i);
+            if (!stays) {
+                idTable[hole] = entry;
+                idTable[i] = 0;
+                hole = i;
+            }
+        }
+    }
+}
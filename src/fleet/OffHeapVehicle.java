@@ -0,0 +1,590 @@
+package fleet;
+
+import exceptions.InsufficientFuelException;
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.nio.ByteBuffer;
+import vehicles.*;
+
+/**
+ * Flyweight view of one record in an OffHeapFleetStore. Getters read the
+ * record and changes write straight into it, so no heap vehicle is created
+ * per call. Capacities, efficiency and journey-time factors are the
+ * constants of the heap vehicle classes, and each nested view type checks
+ * the same rules and throws the same exceptions, with the same messages, as
+ * the class it stands in for. Each nested view type implements the same
+ * capability interfaces as that class. Views are not instances of Car,
+ * LandVehicle, etc.; use getTypeName instead.
+ *
+ * A view remembers the generation of its record. Once its vehicle has been
+ * removed, any use of the view throws IllegalStateException, even after the
+ * slot has been reused for another vehicle. Views take no state listeners.
+ */
+public abstract class OffHeapVehicle extends Vehicle {
+
+    private final OffHeapFleetStore store;
+    private int slot;
+    private int generation;
+
+    OffHeapVehicle(OffHeapFleetStore store, int slot) {
+        this.store = store;
+        moveTo(slot);
+    }
+
+    static OffHeapVehicle of(OffHeapFleetStore store, int slot) {
+        switch (store.typeCodeAt(slot)) {
+            case ColumnarFleetStore.TYPE_CAR:
+                return new CarView(store, slot);
+            case ColumnarFleetStore.TYPE_TRUCK:
+                return new TruckView(store, slot);
+            case ColumnarFleetStore.TYPE_BUS:
+                return new BusView(store, slot);
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                return new AirplaneView(store, slot);
+            default:
+                return new CargoShipView(store, slot);
+        }
+    }
+
+    // Re-point this view at another record of the same type.
+    void moveTo(int slot) {
+        this.slot = slot;
+        this.generation = store.generationAt(slot);
+    }
+
+    // The record's slot, as long as it still holds this view's vehicle
+    private int slot() {
+        if (store.generationAt(slot) != generation) {
+            throw new IllegalStateException("Vehicle view used after its vehicle was removed.");
+        }
+        return slot;
+    }
+
+    private double getDouble(int field) {
+        int s = slot();
+        return store.chunk(s).getDouble(OffHeapFleetStore.offset(s) + field);
+    }
+
+    private int getInt(int field) {
+        int s = slot();
+        return store.chunk(s).getInt(OffHeapFleetStore.offset(s) + field);
+    }
+
+    private boolean hasFlag(int flag) {
+        int s = slot();
+        return (store.chunk(s).get(OffHeapFleetStore.offset(s) + OffHeapFleetStore.FLAGS) & flag) != 0;
+    }
+
+    // Record writes, also used by the nested views
+    void putDouble(int field, double value) {
+        int s = slot();
+        store.chunk(s).putDouble(OffHeapFleetStore.offset(s) + field, value);
+    }
+
+    void putInt(int field, int value) {
+        int s = slot();
+        store.chunk(s).putInt(OffHeapFleetStore.offset(s) + field, value);
+    }
+
+    void setFlag(int flag, boolean on) {
+        int s = slot();
+        ByteBuffer buf = store.chunk(s);
+        int at = OffHeapFleetStore.offset(s) + OffHeapFleetStore.FLAGS;
+        byte flags = buf.get(at);
+        buf.put(at, (byte) (on ? flags | flag : flags & ~flag));
+    }
+
+    // A change for a capability this vehicle's class does not have
+    private UnsupportedOperationException unsupported(Class<?> capability) {
+        return new UnsupportedOperationException(getTypeName() + " is not " + capability.getSimpleName() + ".");
+    }
+
+    int getTypeCode() {
+        return store.typeCodeAt(slot());
+    }
+
+    public String getTypeName() {
+        return ColumnarFleetStore.TYPE_NAMES[getTypeCode()];
+    }
+
+    @Override
+    public String getId() {
+        return store.idAt(slot());
+    }
+
+    @Override
+    public String getModel() {
+        return store.modelAt(slot());
+    }
+
+    @Override
+    public double getMaxSpeed() {
+        return getDouble(OffHeapFleetStore.MAX_SPEED);
+    }
+
+    @Override
+    public double getCurrentMileage() {
+        return getDouble(OffHeapFleetStore.MILEAGE);
+    }
+
+    @Override
+    public void setMileage(double newMileage) {
+        putDouble(OffHeapFleetStore.MILEAGE, newMileage);
+    }
+
+    public int getNumWheels() {
+        return getInt(OffHeapFleetStore.WHEELS);
+    }
+
+    public double getMaxAltitude() {
+        return getDouble(OffHeapFleetStore.ALTITUDE);
+    }
+
+    public boolean getHasSail() {
+        return hasFlag(OffHeapFleetStore.FLAG_HAS_SAIL);
+    }
+
+    // A listener would only hear about changes made through this one view,
+    // and forEach re-points its views at other vehicles.
+    @Override
+    public void addStateListener(VehicleStateListener listener) {
+        throw new UnsupportedOperationException("Off-heap vehicle views do not report state changes.");
+    }
+
+    @Override
+    public void displayInfo() {
+        System.out.println("ID: " + getId());
+        System.out.println("Model: " + getModel());
+        System.out.println("Max Speed: " + getMaxSpeed());
+        System.out.println("Current Mileage: " + getCurrentMileage());
+    }
+
+    @Override
+    public double calculateFuelEfficiency() {
+        switch (getTypeCode()) {
+            case ColumnarFleetStore.TYPE_CAR:
+                return Car.FUEL_EFFICIENCY;
+            case ColumnarFleetStore.TYPE_TRUCK:
+                return Truck.fuelEfficiency(getCurrentCargo());
+            case ColumnarFleetStore.TYPE_BUS:
+                return Bus.FUEL_EFFICIENCY;
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                return Airplane.FUEL_EFFICIENCY;
+            default:
+                return CargoShip.fuelEfficiency(getHasSail());
+        }
+    }
+
+    @Override
+    public double estimateJourneyTime(double distance) {
+        double basetime = distance / getMaxSpeed();
+        switch (getTypeCode()) {
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                return basetime * AirVehicle.JOURNEY_TIME_FACTOR;
+            case ColumnarFleetStore.TYPE_CARGO_SHIP:
+                return basetime * WaterVehicle.JOURNEY_TIME_FACTOR;
+            default:
+                return basetime * LandVehicle.JOURNEY_TIME_FACTOR;
+        }
+    }
+
+    // Shared body of move once the distance has been checked: burn the fuel, then add the distance
+    void travel(double distance) throws InsufficientFuelException {
+        consumeFuel(distance);
+        setMileage(getCurrentMileage() + distance);
+    }
+
+    // FuelConsumable
+
+    public void refuel(double amount) throws InvalidOperationException {
+        throw unsupported(FuelConsumable.class);
+    }
+
+    public double getFuelLevel() {
+        return getDouble(OffHeapFleetStore.FUEL);
+    }
+
+    public double consumeFuel(double distance) throws InsufficientFuelException {
+        throw unsupported(FuelConsumable.class);
+    }
+
+    // Shared body of consumeFuel; the message is the one of the heap class
+    double burnFuel(double distance, String message) throws InsufficientFuelException {
+        double fuelConsumed = distance / calculateFuelEfficiency();
+        double fuelLevel = getFuelLevel();
+        if (fuelConsumed > fuelLevel) {
+            throw new InsufficientFuelException(message);
+        }
+        putDouble(OffHeapFleetStore.FUEL, fuelLevel - fuelConsumed);
+        return fuelConsumed;
+    }
+
+    // CargoCarrier (capacity 0 for types that carry no cargo)
+
+    public void loadCargo(double weight) throws OverloadException {
+        throw unsupported(CargoCarrier.class);
+    }
+
+    public void unloadCargo(double weight) throws InvalidOperationException {
+        throw unsupported(CargoCarrier.class);
+    }
+
+    public double getCargoCapacity() {
+        switch (getTypeCode()) {
+            case ColumnarFleetStore.TYPE_TRUCK:
+                return Truck.CARGO_CAPACITY;
+            case ColumnarFleetStore.TYPE_BUS:
+                return Bus.CARGO_CAPACITY;
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                return Airplane.CARGO_CAPACITY;
+            case ColumnarFleetStore.TYPE_CARGO_SHIP:
+                return CargoShip.CARGO_CAPACITY;
+            default:
+                return 0;
+        }
+    }
+
+    public double getCurrentCargo() {
+        return getDouble(OffHeapFleetStore.CARGO);
+    }
+
+    // PassengerCarrier (capacity 0 for types that carry no passengers)
+
+    public void boardPassengers(int count) throws OverloadException {
+        throw unsupported(PassengerCarrier.class);
+    }
+
+    public void disembarkPassengers(int count) throws InvalidOperationException {
+        throw unsupported(PassengerCarrier.class);
+    }
+
+    public int getPassengerCapacity() {
+        switch (getTypeCode()) {
+            case ColumnarFleetStore.TYPE_CAR:
+                return Car.PASSENGER_CAPACITY;
+            case ColumnarFleetStore.TYPE_BUS:
+                return Bus.PASSENGER_CAPACITY;
+            case ColumnarFleetStore.TYPE_AIRPLANE:
+                return Airplane.PASSENGER_CAPACITY;
+            default:
+                return 0;
+        }
+    }
+
+    public int getCurrentPassengers() {
+        return getInt(OffHeapFleetStore.PASSENGERS);
+    }
+
+    // Maintainable (every built-in type is)
+
+    public void scheduleMaintenance() {
+        setFlag(OffHeapFleetStore.FLAG_MAINTENANCE_NEEDED, true);
+    }
+
+    public boolean needsMaintenance() {
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
+    }
+
+    public void performMaintenance() {
+        setFlag(OffHeapFleetStore.FLAG_MAINTENANCE_NEEDED, false);
+        putDouble(OffHeapFleetStore.LAST_MAINTENANCE, getCurrentMileage());
+        System.out.println("Maintenance performed on " + getTypeName() + " ID: " + getId());
+    }
+
+    @Override
+    public double getMileageAtLastMaintenance() {
+        return getDouble(OffHeapFleetStore.LAST_MAINTENANCE);
+    }
+
+    @Override
+    public boolean isMaintenanceScheduled() {
+        return hasFlag(OffHeapFleetStore.FLAG_MAINTENANCE_NEEDED);
+    }
+
+    @Override
+    public void restoreMaintenanceState(double mileageAtLastMaintenance, boolean scheduled) {
+        putDouble(OffHeapFleetStore.LAST_MAINTENANCE, mileageAtLastMaintenance);
+        setFlag(OffHeapFleetStore.FLAG_MAINTENANCE_NEEDED, scheduled);
+    }
+
+    static final class CarView extends OffHeapVehicle implements FuelConsumable, PassengerCarrier, Maintainable {
+        CarView(OffHeapFleetStore store, int slot) {
+            super(store, slot);
+        }
+
+        @Override
+        public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
+            if (distance < 0) {
+                throw new InvalidOperationException("Distance Can't be Negative");
+            }
+            travel(distance);
+            System.out.println("CAR with ID: " + getId() + " is driving for " + distance + "km.");
+        }
+
+        @Override
+        public void refuel(double amount) throws InvalidOperationException {
+            if (amount <= 0) {
+                throw new InvalidOperationException("Fuel is not sufficient.");
+            }
+            putDouble(OffHeapFleetStore.FUEL, getFuelLevel() + amount);
+        }
+
+        @Override
+        public double consumeFuel(double distance) throws InsufficientFuelException {
+            return burnFuel(distance, "Not enough Fuel to drive");
+        }
+
+        @Override
+        public void boardPassengers(int count) throws OverloadException {
+            int passengers = getCurrentPassengers();
+            if (passengers + count > Car.PASSENGER_CAPACITY) {
+                throw new OverloadException("Passenger Capacity Exceeded!!");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers + count);
+        }
+
+        @Override
+        public void disembarkPassengers(int count) throws InvalidOperationException {
+            int passengers = getCurrentPassengers();
+            if (count > passengers) {
+                throw new InvalidOperationException("Cannot disembark more passengers");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers - count);
+        }
+    }
+
+    static final class TruckView extends OffHeapVehicle implements FuelConsumable, CargoCarrier, Maintainable {
+        TruckView(OffHeapFleetStore store, int slot) {
+            super(store, slot);
+        }
+
+        @Override
+        public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
+            if (distance < 0) {
+                throw new InvalidOperationException("Distance cannot be less than zero");
+            }
+            travel(distance);
+            System.out.println("Truck ID: " + getId() + " is hauling cargo for " + distance + " km.");
+        }
+
+        @Override
+        public void refuel(double amount) throws InvalidOperationException {
+            if (amount <= 0) {
+                throw new InvalidOperationException("Fuel is not sufficient.");
+            }
+            putDouble(OffHeapFleetStore.FUEL, getFuelLevel() + amount);
+        }
+
+        @Override
+        public double consumeFuel(double distance) throws InsufficientFuelException {
+            return burnFuel(distance, "Not enough Fuel to drive");
+        }
+
+        @Override
+        public void loadCargo(double weight) throws OverloadException {
+            double cargo = getCurrentCargo();
+            if (cargo + weight > Truck.CARGO_CAPACITY) {
+                throw new OverloadException("Cargo capacity of " + Truck.CARGO_CAPACITY + " kg exceeded.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo + weight);
+        }
+
+        @Override
+        public void unloadCargo(double weight) throws InvalidOperationException {
+            double cargo = getCurrentCargo();
+            if (weight > cargo) {
+                throw new InvalidOperationException("Cannot unload more cargo than is on board.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo - weight);
+        }
+    }
+
+    static final class BusView extends OffHeapVehicle implements FuelConsumable, PassengerCarrier, CargoCarrier, Maintainable {
+        BusView(OffHeapFleetStore store, int slot) {
+            super(store, slot);
+        }
+
+        @Override
+        public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
+            if (distance < 0) {
+                throw new InvalidOperationException("Distance cannot be negative.");
+            }
+            travel(distance);
+            System.out.println("Bus ID: " + getId() + " is transporting passengers and cargo for " + distance + " km.");
+        }
+
+        @Override
+        public void refuel(double amount) throws InvalidOperationException {
+            if (amount <= 0) {
+                throw new InvalidOperationException("Fuel amount must not be negative.");
+            }
+            putDouble(OffHeapFleetStore.FUEL, getFuelLevel() + amount);
+        }
+
+        @Override
+        public double consumeFuel(double distance) throws InsufficientFuelException {
+            return burnFuel(distance, "Not enough fuel for the journey.");
+        }
+
+        @Override
+        public void boardPassengers(int count) throws OverloadException {
+            int passengers = getCurrentPassengers();
+            if (passengers + count > Bus.PASSENGER_CAPACITY) {
+                throw new OverloadException("Passenger capacity of " + Bus.PASSENGER_CAPACITY + " exceeded.");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers + count);
+        }
+
+        @Override
+        public void disembarkPassengers(int count) throws InvalidOperationException {
+            int passengers = getCurrentPassengers();
+            if (count > passengers) {
+                throw new InvalidOperationException("Cannot disembark more passengers than are on board.");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers - count);
+        }
+
+        @Override
+        public void loadCargo(double weight) throws OverloadException {
+            double cargo = getCurrentCargo();
+            if (cargo + weight > Bus.CARGO_CAPACITY) {
+                throw new OverloadException("Cargo capacity of " + Bus.CARGO_CAPACITY + " kg exceeded.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo + weight);
+        }
+
+        @Override
+        public void unloadCargo(double weight) throws InvalidOperationException {
+            double cargo = getCurrentCargo();
+            if (weight > cargo) {
+                throw new InvalidOperationException("Cannot unload more cargo than is on board.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo - weight);
+        }
+    }
+
+    static final class AirplaneView extends OffHeapVehicle implements FuelConsumable, PassengerCarrier, CargoCarrier, Maintainable {
+        AirplaneView(OffHeapFleetStore store, int slot) {
+            super(store, slot);
+        }
+
+        @Override
+        public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
+            if (distance < 0) {
+                throw new InvalidOperationException("Distance cannot be negative.");
+            }
+            travel(distance);
+            System.out.println("Airplane ID: " + getId() + " is flying at " + getMaxAltitude() + " feet for " + distance + " km.");
+        }
+
+        @Override
+        public void refuel(double amount) throws InvalidOperationException {
+            if (amount <= 0) {
+                throw new InvalidOperationException("Fuel amount must not be negative.");
+            }
+            putDouble(OffHeapFleetStore.FUEL, getFuelLevel() + amount);
+        }
+
+        @Override
+        public double consumeFuel(double distance) throws InsufficientFuelException {
+            return burnFuel(distance, "Not enough fuel for the journey.");
+        }
+
+        @Override
+        public void boardPassengers(int count) throws OverloadException {
+            int passengers = getCurrentPassengers();
+            if (passengers + count > Airplane.PASSENGER_CAPACITY) {
+                throw new OverloadException("Passenger capacity of " + Airplane.PASSENGER_CAPACITY + " exceeded.");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers + count);
+        }
+
+        @Override
+        public void disembarkPassengers(int count) throws InvalidOperationException {
+            int passengers = getCurrentPassengers();
+            if (count > passengers) {
+                throw new InvalidOperationException("Cannot disembark more passengers than are on board.");
+            }
+            putInt(OffHeapFleetStore.PASSENGERS, passengers - count);
+        }
+
+        @Override
+        public void loadCargo(double weight) throws OverloadException {
+            double cargo = getCurrentCargo();
+            if (cargo + weight > Airplane.CARGO_CAPACITY) {
+                throw new OverloadException("Cargo capacity of " + Airplane.CARGO_CAPACITY + " kg exceeded.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo + weight);
+        }
+
+        @Override
+        public void unloadCargo(double weight) throws InvalidOperationException {
+            double cargo = getCurrentCargo();
+            if (weight > cargo) {
+                throw new InvalidOperationException("Cannot unload more cargo than is on board.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo - weight);
+        }
+    }
+
+    static final class CargoShipView extends OffHeapVehicle implements CargoCarrier, Maintainable, FuelConsumable {
+        CargoShipView(OffHeapFleetStore store, int slot) {
+            super(store, slot);
+        }
+
+        // A sailing ship burns no fuel (consumeFuel returns 0), as CargoShip.move skips it
+        @Override
+        public void move(double distance) throws InvalidOperationException, InsufficientFuelException {
+            if (distance < 0) {
+                throw new InvalidOperationException("Distance cannot be negative.");
+            }
+            travel(distance);
+            System.out.println("CargoShip ID: " + getId() + " is sailing with cargo for " + distance + " km.");
+        }
+
+        @Override
+        public void refuel(double amount) throws InvalidOperationException {
+            if (getHasSail()) {
+                throw new InvalidOperationException("A sailboat cannot be refueled.");
+            }
+            if (amount <= 0) {
+                throw new InvalidOperationException("Fuel amount must be positive.");
+            }
+            putDouble(OffHeapFleetStore.FUEL, getFuelLevel() + amount);
+        }
+
+        @Override
+        public double consumeFuel(double distance) throws InsufficientFuelException {
+            if (getHasSail()) {
+                return 0;
+            }
+            return burnFuel(distance, "Not enough fuel for the journey.");
+        }
+
+        @Override
+        public void loadCargo(double weight) throws OverloadException {
+            double cargo = getCurrentCargo();
+            if (cargo + weight > CargoShip.CARGO_CAPACITY) {
+                throw new OverloadException("Attempt to load " + weight + " kg exceeds remaining capacity. " + "Current: " + cargo + " kg, " + "Capacity: " + CargoShip.CARGO_CAPACITY + " kg.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo + weight);
+        }
+
+        @Override
+        public void unloadCargo(double weight) throws InvalidOperationException {
+            double cargo = getCurrentCargo();
+            if (weight > cargo) {
+                throw new InvalidOperationException("Cannot unload " + weight + " kg. " + "Only " + cargo + " kg is on board.");
+            }
+            putDouble(OffHeapFleetStore.CARGO, cargo - weight);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package fleet;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import vehicles.Vehicle;
+
+/**
+ * Secondary index that keeps vehicles ordered by a key, with ties broken by
+ * vehicle ID. The key each vehicle was filed under is remembered, in an
+ * array indexed by the vehicle's fleet handle, so that an entry can be found
+ * and moved after the vehicle's state has changed.
+ */
+class OrderedIndex<K> {
+
+    private final Function<Vehicle, K> keyOf;
+    private final Comparator<? super K> order;
+    private final NavigableMap<K, NavigableMap<String, Vehicle>> tree;
+    // Filed key per handle; a key may be null (no model), so filed marks the handles in use
+    private Object[] filedKeys = new Object[16];
+    private boolean[] filed = new boolean[16];
+    private int size;
+
+    OrderedIndex(Function<Vehicle, K> keyOf, Comparator<? super K> order) {
+        this.keyOf = keyOf;
+        this.order = order;
+        this.tree = new TreeMap<>(order);
+    }
+
+    void add(Vehicle v, int handle) {
+        if (handle >= filed.length) {
+            int capacity = Math.max(handle + 1, filed.length * 2);
+            filedKeys = Arrays.copyOf(filedKeys, capacity);
+            filed = Arrays.copyOf(filed, capacity);
+        }
+        K key = keyOf.apply(v);
+        filedKeys[handle] = key;
+        filed[handle] = true;
+        size++;
+        tree.computeIfAbsent(key, k -> new TreeMap<>()).put(v.getId(), v);
+    }
+
+    void remove(Vehicle v, int handle) {
+        if (!isFiled(handle)) {
+            return;
+        }
+        K key = filedKey(handle);
+        filedKeys[handle] = null;
+        filed[handle] = false;
+        size--;
+        NavigableMap<String, Vehicle> sameKey = tree.get(key);
+        if (sameKey != null) {
+            sameKey.remove(v.getId());
+            if (sameKey.isEmpty()) {
+                tree.remove(key);
+            }
+        }
+    }
+
+    // Re-file the vehicle if its key has changed since it was indexed.
+    void update(Vehicle v, int handle) {
+        if (!isFiled(handle)) {
+            return;
+        }
+        K current = keyOf.apply(v);
+        if (Objects.equals(current, filedKey(handle))) {
+            return;
+        }
+        remove(v, handle);
+        add(v, handle);
+    }
+
+    void clear() {
+        tree.clear();
+        Arrays.fill(filedKeys, null);
+        Arrays.fill(filed, false);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Vehicle with the smallest key (ascending) or largest key (descending), or null if empty
+    Vehicle first(boolean ascending) {
+        if (tree.isEmpty()) {
+            return null;
+        }
+        if (ascending) {
+            return tree.firstEntry().getValue().firstEntry().getValue();
+        }
+        return tree.lastEntry().getValue().lastEntry().getValue();
+    }
+
+    Stream<Vehicle> stream(boolean ascending) {
+        if (ascending) {
+            return tree.values().stream().flatMap(sameKey -> sameKey.values().stream());
+        }
+        return tree.descendingMap().values().stream().flatMap(sameKey -> sameKey.descendingMap().values().stream());
+    }
+
+    // Vehicles whose key lies between from and to, in ascending order.
+    List<Vehicle> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        List<Vehicle> result = new ArrayList<>();
+        for (NavigableMap<String, Vehicle> sameKey : tree.subMap(from, fromInclusive, to, toInclusive).values()) {
+            result.addAll(sameKey.values());
+        }
+        return result;
+    }
+
+    // Number of vehicles whose key lies between from and to, without collecting them.
+    int count(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        int count = 0;
+        for (NavigableMap<String, Vehicle> sameKey : tree.subMap(from, fromInclusive, to, toInclusive).values()) {
+            count += sameKey.size();
+        }
+        return count;
+    }
+
+    // Vehicles whose key is at least from, in ascending order.
+    List<Vehicle> tail(K from) {
+        List<Vehicle> result = new ArrayList<>();
+        for (NavigableMap<String, Vehicle> sameKey : tree.tailMap(from, true).values()) {
+            result.addAll(sameKey.values());
+        }
+        return result;
+    }
+
+    // The same ordering as stream(ascending), applied to arbitrary vehicles.
+    Comparator<Vehicle> comparator(boolean ascending) {
+        Comparator<Vehicle> cmp = Comparator.comparing(keyOf, order);
+        cmp = cmp.thenComparing(Vehicle::getId);
+        return ascending ? cmp : cmp.reversed();
+    }
+
+    List<Vehicle> page(boolean ascending, int offset, int limit) {
+        return stream(ascending).skip(offset).limit(limit).collect(Collectors.toList());
+    }
+
+    private boolean isFiled(int handle) {
+        return handle >= 0 && handle < filed.length && filed[handle];
+    }
+
+    @SuppressWarnings("unchecked")
+    private K filedKey(int handle) {
+        return (K) filedKeys[handle];
+    }
+}
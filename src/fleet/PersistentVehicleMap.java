@@ -0,0 +1,288 @@
+package fleet;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash array mapped trie from vehicle ID to VehicleState. put and
+ * remove return a new map that shares every untouched node with the old one,
+ * so an update copies only the O(log32 n) nodes on the path to the entry and
+ * old versions stay valid for as long as someone holds them.
+ */
+final class PersistentVehicleMap implements Iterable<VehicleState> {
+
+    static final PersistentVehicleMap EMPTY = new PersistentVehicleMap(new BitmapNode(0, new Object[0]), 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private PersistentVehicleMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    VehicleState get(String id) {
+        return root.get(id, id.hashCode(), 0);
+    }
+
+    PersistentVehicleMap put(VehicleState state) {
+        boolean present = get(state.id()) != null;
+        return new PersistentVehicleMap(root.put(state, state.id().hashCode(), 0), present ? size : size + 1);
+    }
+
+    PersistentVehicleMap remove(String id) {
+        if (get(id) == null) {
+            return this;
+        }
+        Node newRoot = root.remove(id, id.hashCode(), 0);
+        return new PersistentVehicleMap(newRoot == null ? EMPTY.root : newRoot, size - 1);
+    }
+
+    @Override
+    public Iterator<VehicleState> iterator() {
+        return new StateIterator(root);
+    }
+
+    private interface Node {
+        VehicleState get(String id, int hash, int shift);
+
+        Node put(VehicleState state, int hash, int shift);
+
+        // Returns null when the node becomes empty
+        Node remove(String id, int hash, int shift);
+    }
+
+    // Interior node: bitmap of occupied slots, entries are VehicleState leaves or child Nodes
+    private static final class BitmapNode implements Node {
+        private final int bitmap;
+        private final Object[] entries;
+
+        BitmapNode(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        @Override
+        public VehicleState get(String id, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object entry = entries[Integer.bitCount(bitmap & (bit - 1))];
+            if (entry instanceof Node) {
+                return ((Node) entry).get(id, hash, shift + BITS);
+            }
+            VehicleState state = (VehicleState) entry;
+            return state.id().equals(id) ? state : null;
+        }
+
+        @Override
+        public Node put(VehicleState state, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int idx = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, copy, 0, idx);
+                copy[idx] = state;
+                System.arraycopy(entries, idx, copy, idx + 1, entries.length - idx);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object entry = entries[idx];
+            Object replacement;
+            if (entry instanceof Node) {
+                replacement = ((Node) entry).put(state, hash, shift + BITS);
+            } else {
+                VehicleState existing = (VehicleState) entry;
+                if (existing.id().equals(state.id())) {
+                    replacement = state;
+                } else {
+                    replacement = merge(existing, existing.id().hashCode(), state, hash, shift + BITS);
+                }
+            }
+            Object[] copy = entries.clone();
+            copy[idx] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public Node remove(String id, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = Integer.bitCount(bitmap & (bit - 1));
+            Object entry = entries[idx];
+            if (entry instanceof Node) {
+                Node child = ((Node) entry).remove(id, hash, shift + BITS);
+                if (child == entry) {
+                    return this;
+                }
+                if (child != null) {
+                    // A child left with one leaf is folded back into this node
+                    VehicleState leaf = singleLeaf(child);
+                    Object[] copy = entries.clone();
+                    copy[idx] = leaf != null ? leaf : child;
+                    return new BitmapNode(bitmap, copy);
+                }
+            } else if (!((VehicleState) entry).id().equals(id)) {
+                return this;
+            }
+            if (entries.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[entries.length - 1];
+            System.arraycopy(entries, 0, copy, 0, idx);
+            System.arraycopy(entries, idx + 1, copy, idx, entries.length - idx - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        // Node holding two entries whose hashes agree on all bits below shift.
+        // Equal hashes only occur for two leaves; a collision node is merged
+        // with a leaf of a different hash when that leaf needs its own slot.
+        private static Node merge(Object a, int hashA, Object b, int hashB, int shift) {
+            if (hashA == hashB) {
+                return new CollisionNode(hashA, new VehicleState[]{(VehicleState) a, (VehicleState) b});
+            }
+            int fragA = (hashA >>> shift) & MASK;
+            int fragB = (hashB >>> shift) & MASK;
+            if (fragA == fragB) {
+                return new BitmapNode(1 << fragA, new Object[]{merge(a, hashA, b, hashB, shift + BITS)});
+            }
+            Object[] pair = fragA < fragB ? new Object[]{a, b} : new Object[]{b, a};
+            return new BitmapNode((1 << fragA) | (1 << fragB), pair);
+        }
+
+        // The only leaf of a node that holds exactly one, or null
+        private static VehicleState singleLeaf(Node node) {
+            if (node instanceof CollisionNode) {
+                VehicleState[] states = ((CollisionNode) node).states;
+                return states.length == 1 ? states[0] : null;
+            }
+            Object[] entries = ((BitmapNode) node).entries;
+            return entries.length == 1 && entries[0] instanceof VehicleState ? (VehicleState) entries[0] : null;
+        }
+    }
+
+    // Leaves whose IDs share the same full hash code
+    private static final class CollisionNode implements Node {
+        private final int hash;
+        private final VehicleState[] states;
+
+        CollisionNode(int hash, VehicleState[] states) {
+            this.hash = hash;
+            this.states = states;
+        }
+
+        @Override
+        public VehicleState get(String id, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (VehicleState state : states) {
+                if (state.id().equals(id)) {
+                    return state;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(VehicleState state, int hash, int shift) {
+            if (hash != this.hash) {
+                // Only the hash fragments seen so far agree: split below this level
+                return BitmapNode.merge(this, this.hash, state, hash, shift);
+            }
+            for (int i = 0; i < states.length; i++) {
+                if (states[i].id().equals(state.id())) {
+                    VehicleState[] copy = states.clone();
+                    copy[i] = state;
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            VehicleState[] copy = Arrays.copyOf(states, states.length + 1);
+            copy[states.length] = state;
+            return new CollisionNode(this.hash, copy);
+        }
+
+        @Override
+        public Node remove(String id, int hash, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            for (int i = 0; i < states.length; i++) {
+                if (states[i].id().equals(id)) {
+                    if (states.length == 1) {
+                        return null;
+                    }
+                    VehicleState[] copy = new VehicleState[states.length - 1];
+                    System.arraycopy(states, 0, copy, 0, i);
+                    System.arraycopy(states, i + 1, copy, i, states.length - i - 1);
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            return this;
+        }
+    }
+
+    // Depth-first walk over the trie using an explicit stack of (node, position) frames
+    private static final class StateIterator implements Iterator<VehicleState> {
+        private final Deque<Object[]> nodes = new ArrayDeque<>();
+        private final Deque<int[]> positions = new ArrayDeque<>();
+        private VehicleState next;
+
+        StateIterator(Node root) {
+            push(root);
+            advance();
+        }
+
+        private void push(Node node) {
+            nodes.push(node instanceof BitmapNode ? ((BitmapNode) node).entries : ((CollisionNode) node).states);
+            positions.push(new int[]{0});
+        }
+
+        private void advance() {
+            next = null;
+            while (!nodes.isEmpty()) {
+                Object[] entries = nodes.peek();
+                int[] pos = positions.peek();
+                if (pos[0] >= entries.length) {
+                    nodes.pop();
+                    positions.pop();
+                    continue;
+                }
+                Object entry = entries[pos[0]++];
+                if (entry instanceof Node) {
+                    push((Node) entry);
+                } else {
+                    next = (VehicleState) entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public VehicleState next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            VehicleState current = next;
+            advance();
+            return current;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package fleet;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import vehicles.Vehicle;
+
+/**
+ * How FleetManager answers one FleetQuery: where candidate vehicles come from,
+ * and the filter, sort and limit applied to them. The full predicate is
+ * always re-checked on the candidates, so an access path only has to return a
+ * superset of the matches.
+ */
+class QueryPlan {
+
+    private final FleetQuery query;
+    private final String access;
+    private final Supplier<Stream<Vehicle>> candidates;
+    // Null when the candidates already arrive in the requested order
+    private final Comparator<Vehicle> sort;
+
+    QueryPlan(FleetQuery query, String access, Supplier<Stream<Vehicle>> candidates, Comparator<Vehicle> sort) {
+        this.query = query;
+        this.access = access;
+        this.candidates = candidates;
+        this.sort = sort;
+    }
+
+    List<Vehicle> execute() {
+        FleetPredicate where = query.getWhere();
+        Stream<Vehicle> stream = candidates.get();
+        if (!(where instanceof FleetPredicate.All)) {
+            stream = stream.filter(where::test);
+        }
+        if (sort != null) {
+            stream = stream.sorted(sort);
+        }
+        if (query.getLimit() >= 0) {
+            stream = stream.limit(query.getLimit());
+        }
+        return stream.collect(Collectors.toList());
+    }
+
+    String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Query:  ").append(query).append('\n');
+        sb.append("Access: ").append(access).append('\n');
+        if (!(query.getWhere() instanceof FleetPredicate.All)) {
+            sb.append("Filter: ").append(query.getWhere()).append('\n');
+        }
+        if (query.getOrderBy() != null) {
+            sb.append("Order:  ").append(query.getOrderBy()).append(query.isAscending() ? " ascending" : " descending")
+                    .append(sort == null ? " (from index)" : " (sort candidates)").append('\n');
+        }
+        if (query.getLimit() >= 0) {
+            sb.append("Limit:  ").append(query.getLimit()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package fleet;
+
+/**
+ * Plain-loop FleetKernels; the fallback when the Vector API is unavailable.
+ */
+class ScalarFleetKernels implements FleetKernels {
+
+    static final ScalarFleetKernels INSTANCE = new ScalarFleetKernels();
+
+    @Override
+    public double totalFuelConsumption(double distance, double[] efficiency, int length) {
+        double total = 0;
+        for (int i = 0; i < length; i++) {
+            if (efficiency[i] > 0) {
+                total += distance / efficiency[i];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void journeyTimes(double distance, double[] maxSpeed, double[] factor, int length, double[] out) {
+        for (int i = 0; i < length; i++) {
+            out[i] = distance / maxSpeed[i] * factor[i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
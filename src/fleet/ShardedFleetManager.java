@@ -0,0 +1,334 @@
+package fleet;
+
+import exceptions.InvalidOperationException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import vehicles.AirVehicle;
+import vehicles.LandVehicle;
+import vehicles.Vehicle;
+import vehicles.WaterVehicle;
+
+/**
+ * Fleet split into independent shards, each a ConcurrentFleetManager with its
+ * own lock and indexes, so that work on different shards never contends.
+ * Single-vehicle operations are routed to the vehicle's shard; fleet-wide
+ * operations and aggregates run on all shards in parallel and their results
+ * are merged.
+ *
+ * With ID_HASH the shard follows from the ID alone. With VEHICLE_FAMILY it
+ * follows from the vehicle's class. Under both strategies a concurrent map
+ * from ID to shard reserves each ID before its shard is touched, so IDs stay
+ * unique across shards and a batch cannot lose a record to a concurrent add
+ * after its IDs were checked. With VEHICLE_FAMILY the map also routes
+ * lookups.
+ */
+public class ShardedFleetManager {
+
+    private static final int FAMILY_LAND = 0;
+    private static final int FAMILY_AIR = 1;
+    private static final int FAMILY_WATER = 2;
+    private static final int FAMILY_OTHER = 3;
+
+    private final ShardingStrategy strategy;
+    private final List<FleetManager> shards;
+    // Shard of every vehicle by ID, reserved before the vehicle is added
+    private final Map<String, Integer> shardOfId = new ConcurrentHashMap<>();
+
+    // ID-hash sharding with one shard per available processor.
+    public ShardedFleetManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedFleetManager(int shardCount) {
+        this(ShardingStrategy.ID_HASH, shardCount);
+    }
+
+    public ShardedFleetManager(ShardingStrategy strategy) {
+        this(strategy, strategy == ShardingStrategy.VEHICLE_FAMILY ? 4 : Runtime.getRuntime().availableProcessors());
+    }
+
+    private ShardedFleetManager(ShardingStrategy strategy, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1.");
+        }
+        this.strategy = strategy;
+        List<FleetManager> created = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            created.add(new ConcurrentFleetManager());
+        }
+        this.shards = Collections.unmodifiableList(created);
+    }
+
+    public ShardingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    // Number of vehicles held by each shard
+    public int[] getShardSizes() {
+        int[] sizes = new int[shards.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = shards.get(i).size();
+        }
+        return sizes;
+    }
+
+    // ROUTING
+
+    private int shardIndexFor(Vehicle v) {
+        if (strategy == ShardingStrategy.ID_HASH) {
+            return hashShard(v.getId());
+        }
+        if (v instanceof LandVehicle) {
+            return FAMILY_LAND;
+        } else if (v instanceof AirVehicle) {
+            return FAMILY_AIR;
+        } else if (v instanceof WaterVehicle) {
+            return FAMILY_WATER;
+        }
+        return FAMILY_OTHER;
+    }
+
+    private int hashShard(String id) {
+        int h = id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.size());
+    }
+
+    // Shard currently holding the ID, or null
+    private FleetManager shardOf(String id) {
+        if (id == null) {
+            return null;
+        }
+        if (strategy == ShardingStrategy.ID_HASH) {
+            return shards.get(hashShard(id));
+        }
+        Integer index = shardOfId.get(id);
+        return index == null ? null : shards.get(index);
+    }
+
+    // SINGLE-VEHICLE OPERATIONS
+
+    public void addVehicle(Vehicle v) throws InvalidOperationException {
+        int index = shardIndexFor(v);
+        // Claim the ID first so that two shards cannot accept the same ID
+        if (shardOfId.putIfAbsent(v.getId(), index) != null) {
+            throw new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.");
+        }
+        try {
+            shards.get(index).addVehicle(v);
+        } catch (InvalidOperationException | RuntimeException e) {
+            shardOfId.remove(v.getId(), index);
+            throw e;
+        }
+    }
+
+    public void removeVehicle(String id) throws InvalidOperationException {
+        FleetManager shard = shardOf(id);
+        if (shard == null) {
+            throw new InvalidOperationException("Vehicle with ID " + id + " not found.");
+        }
+        shard.removeVehicle(id);
+        shardOfId.remove(id);
+    }
+
+    public Vehicle getVehicleById(String id) {
+        FleetManager shard = shardOf(id);
+        return shard == null ? null : shard.getVehicleById(id);
+    }
+
+    /**
+     * Add a batch, split by shard and added to the shards in parallel. IDs are
+     * reserved against every shard and the rest of the batch up front, so
+     * ALL_OR_NOTHING rejects the whole batch before any shard is touched, and
+     * an accepted batch is added in full even while other threads add
+     * vehicles. Prints one summary line for the whole batch.
+     */
+    public BulkOperationResult addVehicles(Collection<? extends Vehicle> batch, BatchMode mode) {
+        List<BulkOperationResult.Rejection> rejected = new ArrayList<>();
+        Set<String> batchIds = new HashSet<>();
+        List<List<Vehicle>> perShard = new ArrayList<>(shards.size());
+        // Batch position of each record handed to a shard
+        List<List<Integer>> positions = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            perShard.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        int accepted = 0;
+        int position = 0;
+        for (Vehicle v : batch) {
+            if (v == null) {
+                rejected.add(new BulkOperationResult.Rejection(position, null,
+                        new InvalidOperationException("Batch record " + position + " is null.")));
+            } else if (v instanceof OffHeapVehicle) {
+                rejected.add(new BulkOperationResult.Rejection(position, v.getId(),
+                        new InvalidOperationException(FleetManager.OFF_HEAP_VIEW_REJECTED)));
+            } else if (!batchIds.add(v.getId()) || !claim(v)) {
+                rejected.add(new BulkOperationResult.Rejection(position, v.getId(),
+                        new InvalidOperationException("Vehicle with ID " + v.getId() + " already exists.")));
+            } else {
+                int index = shardIndexFor(v);
+                perShard.get(index).add(v);
+                positions.get(index).add(position);
+                accepted++;
+            }
+            position++;
+        }
+        if (mode == BatchMode.ALL_OR_NOTHING && !rejected.isEmpty()) {
+            for (List<Vehicle> vehicles : perShard) {
+                for (Vehicle v : vehicles) {
+                    shardOfId.remove(v.getId(), shardIndexFor(v));
+                }
+            }
+            BulkOperationResult result = new BulkOperationResult(new ArrayList<>(), rejected, accepted);
+            FleetManager.printBatchSummary(result, mode);
+            return result;
+        }
+        // The shards add quietly; the batch is reported once, below
+        List<BulkOperationResult> results = indices().parallel()
+                .mapToObj(i -> shards.get(i).addBatch(perShard.get(i), BatchMode.BEST_EFFORT))
+                .collect(Collectors.toList());
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            added.addAll(results.get(i).getSucceeded());
+            // A shard reports positions within its own part of the batch
+            for (BulkOperationResult.Rejection r : results.get(i).getRejections()) {
+                rejected.add(new BulkOperationResult.Rejection(positions.get(i).get(r.getPosition()), r.getId(), r.getException()));
+                shardOfId.remove(r.getId(), i);
+            }
+        }
+        rejected.sort(Comparator.comparingInt(BulkOperationResult.Rejection::getPosition));
+        BulkOperationResult result = new BulkOperationResult(added, rejected, 0);
+        // The batch was accepted, so the summary reports what went in
+        FleetManager.printBatchSummary(result, BatchMode.BEST_EFFORT);
+        return result;
+    }
+
+    // Reserve the ID if no shard holds or has reserved it
+    private boolean claim(Vehicle v) {
+        return shardOfId.putIfAbsent(v.getId(), shardIndexFor(v)) == null;
+    }
+
+    // FLEET-WIDE OPERATIONS (all shards in parallel)
+
+    private IntStream indices() {
+        return IntStream.range(0, shards.size());
+    }
+
+    public void startAllJourneys(double distance) {
+        shards.parallelStream().forEach(shard -> shard.startAllJourneys(distance));
+    }
+
+    public void refuelAll(double refuelAmount) throws InvalidOperationException {
+        if (refuelAmount <= 0) {
+            throw new InvalidOperationException("Refuel amount must be positive.");
+        }
+        shards.parallelStream().forEach(shard -> {
+            try {
+                shard.refuelAll(refuelAmount);
+            } catch (InvalidOperationException e) {
+                // Not reachable: the amount has been validated above
+                System.err.println("Failed to refuel shard: " + e.getMessage());
+            }
+        });
+    }
+
+    public void maintainAll() {
+        shards.parallelStream().forEach(FleetManager::maintainAll);
+    }
+
+    public double getTotalFuelConsumption(double distance) {
+        return shards.parallelStream().mapToDouble(shard -> shard.getTotalFuelConsumption(distance)).sum();
+    }
+
+    public double getTotalFuelRemaining() {
+        return shards.parallelStream().mapToDouble(FleetManager::getTotalFuelRemaining).sum();
+    }
+
+    // Most urgent first, as in FleetManager
+    public List<Vehicle> getVehiclesNeedingMaintenance() {
+        List<Vehicle> due = gather(FleetManager::getVehiclesNeedingMaintenance);
+        due.sort(Comparator.comparingDouble(FleetManager::kilometresUntilMaintenanceOf).thenComparing(Vehicle::getId));
+        return due;
+    }
+
+    public List<Vehicle> searchByType(Class<?> type) {
+        return gather(shard -> shard.searchByType(type));
+    }
+
+    /**
+     * Run the query on every shard and merge. Each shard already applies the
+     * ordering and limit, so the merged result only needs re-sorting and
+     * cutting to the limit. Without orderBy results are grouped by shard.
+     */
+    public List<Vehicle> query(FleetQuery query) {
+        List<Vehicle> merged = gather(shard -> shard.query(query));
+        if (query.getOrderBy() != null) {
+            merged.sort(shards.get(0).orderComparator(query.getOrderBy(), query.isAscending()));
+        }
+        if (query.getLimit() >= 0 && merged.size() > query.getLimit()) {
+            return new ArrayList<>(merged.subList(0, query.getLimit()));
+        }
+        return merged;
+    }
+
+    public List<Vehicle> topK(FleetMetric metric, int k) {
+        return mergeExtremes(gather(shard -> shard.topK(metric, k)), metric, k, true);
+    }
+
+    public List<Vehicle> bottomK(FleetMetric metric, int k) {
+        return mergeExtremes(gather(shard -> shard.bottomK(metric, k)), metric, k, false);
+    }
+
+    private static List<Vehicle> mergeExtremes(List<Vehicle> candidates, FleetMetric metric, int k, boolean largest) {
+        Comparator<Vehicle> byValue = Comparator.comparingDouble(metric::of);
+        candidates.sort((largest ? byValue.reversed() : byValue).thenComparing(Vehicle::getId));
+        return candidates.size() > k ? new ArrayList<>(candidates.subList(0, Math.max(k, 0))) : candidates;
+    }
+
+    public Set<String> getDistinctModels() {
+        Set<String> models = new TreeSet<>();
+        for (Set<String> shardModels : shards.parallelStream().map(FleetManager::getDistinctModels).collect(Collectors.toList())) {
+            models.addAll(shardModels);
+        }
+        return models;
+    }
+
+    public FleetStatistics getStatistics() {
+        List<FleetStatistics> parts = shards.parallelStream().map(FleetManager::getStatistics).collect(Collectors.toList());
+        return FleetStatistics.merge(parts, getDistinctModels().size());
+    }
+
+    public String generateReport() {
+        return generateReport(true);
+    }
+
+    // Same report as FleetManager.generateReport, built from the merged statistics
+    public String generateReport(boolean includeMaintenanceListing) {
+        FleetStatistics stats = getStatistics();
+        if (stats.getTotalVehicles() == 0) {
+            return "The fleet is Empty.";
+        }
+        return FleetManager.formatReport(stats, includeMaintenanceListing ? getFleetSnapshot() : null);
+    }
+
+    // All vehicles, grouped by shard
+    public List<Vehicle> getFleetSnapshot() {
+        return gather(FleetManager::getFleetSnapshot);
+    }
+
+    // Run a query on every shard in parallel and concatenate the results in shard order
+    private List<Vehicle> gather(Function<FleetManager, List<Vehicle>> perShard) {
+        List<List<Vehicle>> parts = shards.parallelStream().map(perShard).collect(Collectors.toList());
+        List<Vehicle> all = new ArrayList<>();
+        for (List<Vehicle> part : parts) {
+            all.addAll(part);
+        }
+        return all;
+    }
+}
@@ -0,0 +1,11 @@
+package fleet;
+
+/**
+ * How ShardedFleetManager assigns vehicles to shards.
+ */
+public enum ShardingStrategy {
+    // Spread vehicles evenly by a hash of their ID
+    ID_HASH,
+    // One shard each for land, air and water vehicles, plus one for any other type
+    VEHICLE_FAMILY
+}
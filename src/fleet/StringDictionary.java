@@ -0,0 +1,66 @@
+package fleet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for repeated strings such as model names: each distinct
+ * value gets a dense int code, assigned in order of first appearance and never
+ * reused, so code arrays can stand in for string columns.
+ */
+class StringDictionary {
+
+    private String[] values = new String[16];
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    // Code for the value, adding it if new
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            if (code == values.length) {
+                values = Arrays.copyOf(values, code * 2);
+            }
+            values[code] = value;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    // Code for the value, or -1 if it has never been encoded
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return code < 0 || code >= codes.size() ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    /**
+     * Rank of every code in the natural order of its value: comparing
+     * ranks[a] with ranks[b] gives the same answer as comparing the strings.
+     */
+    int[] sortedRanks() {
+        Integer[] byValue = new Integer[codes.size()];
+        for (int i = 0; i < byValue.length; i++) {
+            byValue[i] = i;
+        }
+        Arrays.sort(byValue, (a, b) -> values[a].compareTo(values[b]));
+        int[] ranks = new int[byValue.length];
+        for (int rank = 0; rank < byValue.length; rank++) {
+            ranks[byValue[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0, codes.size(), null);
+        codes.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package fleet;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * FleetKernels using SIMD lanes through the incubating Vector API. Compiling
+ * and running this class needs {@code --add-modules jdk.incubator.vector};
+ * without it FleetKernels falls back to the scalar loops. Each lane performs
+ * the same IEEE operations as the scalar code, so journey times match
+ * exactly; totals may differ in the last bits because the additions happen
+ * in a different order.
+ */
+class VectorFleetKernels implements FleetKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double totalFuelConsumption(double distance, double[] efficiency, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector e = DoubleVector.fromArray(SPECIES, efficiency, i);
+            VectorMask<Double> fuelled = e.compare(VectorOperators.GT, 0.0);
+            sum = sum.add(DoubleVector.broadcast(SPECIES, distance).div(e), fuelled);
+        }
+        double total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            if (efficiency[i] > 0) {
+                total += distance / efficiency[i];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void journeyTimes(double distance, double[] maxSpeed, double[] factor, int length, double[] out) {
+        DoubleVector d = DoubleVector.broadcast(SPECIES, distance);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector speed = DoubleVector.fromArray(SPECIES, maxSpeed, i);
+            DoubleVector f = DoubleVector.fromArray(SPECIES, factor, i);
+            d.div(speed).mul(f).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = distance / maxSpeed[i] * factor[i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -6,83 +6,164 @@ import vehicles.*;
 
 public class VehicleFactory {
 
+    /**
+     * One vehicle as a line of the fleet CSV file, without the line break:
+     * Type,ID,Model,MaxSpeed,Mileage followed by the type-specific fields
+     * that createVehicle reads back.
+     */
+    public static String toCsvRow(Vehicle vehicle) {
+        // Common properties (VEHICLE)
+        String commonData = String.join(",",
+                vehicle.getClass().getSimpleName(),
+                vehicle.getId(),
+                vehicle.getModel(),
+                String.valueOf(vehicle.getMaxSpeed()),
+                String.valueOf(vehicle.getCurrentMileage())
+        );
+        String vehicleSpecificData = "";
+        if (vehicle instanceof Car car) {
+            // Format: NumWheels,FuelLevel,CurrentPassengers
+            vehicleSpecificData = String.join(",",
+                    String.valueOf(car.getNumWheels()),
+                    String.valueOf(car.getFuelLevel()),
+                    String.valueOf(car.getCurrentPassengers())
+            );
+        } else if (vehicle instanceof Truck truck) {
+            // Format: NumWheels,FuelLevel,CurrentCargo
+            vehicleSpecificData = String.join(",",
+                    String.valueOf(truck.getNumWheels()),
+                    String.valueOf(truck.getFuelLevel()),
+                    String.valueOf(truck.getCurrentCargo())
+            );
+        } else if (vehicle instanceof Bus bus) {
+            // Format: NumWheels,FuelLevel,CurrentPassengers,CurrentCargo
+            vehicleSpecificData = String.join(",",
+                    String.valueOf(bus.getNumWheels()),
+                    String.valueOf(bus.getFuelLevel()),
+                    String.valueOf(bus.getCurrentPassengers()),
+                    String.valueOf(bus.getCurrentCargo())
+            );
+        } else if (vehicle instanceof Airplane airplane) {
+            // Format: MaxAltitude,FuelLevel,CurrentPassengers,CurrentCargo
+            vehicleSpecificData = String.join(",",
+                    String.valueOf(airplane.getMaxAltitude()),
+                    String.valueOf(airplane.getFuelLevel()),
+                    String.valueOf(airplane.getCurrentPassengers()),
+                    String.valueOf(airplane.getCurrentCargo())
+            );
+        } else if (vehicle instanceof CargoShip ship) {
+            // Format: HasSail,FuelLevel,CurrentCargo
+            vehicleSpecificData = String.join(",",
+                    String.valueOf(ship.getHasSail()),
+                    String.valueOf(ship.getFuelLevel()),
+                    String.valueOf(ship.getCurrentCargo())
+            );
+        }
+        if (vehicleSpecificData.isEmpty()) {
+            return commonData;
+        }
+        return commonData + "," + vehicleSpecificData;
+    }
+
     public static Vehicle createVehicle(String[] data) throws OverloadException, InvalidOperationException {
-        if (data == null || data.length < 5) {
+        if (data == null) {
             throw new IllegalArgumentException("Not enough fields to create a vehicle");
         }
-        String type = data[0];
-        String id = data[1];
-        String model = data[2];
-        double maxSpeed = Double.parseDouble(data[3]);
-        double mileage = Double.parseDouble(data[4]);
+        return createVehicle(new StringFields(data));
+    }
 
+    /**
+     * Same as createVehicle(String[]) for a record that has not been split
+     * into strings, such as the current line of a FleetCsvReader. Numbers are
+     * read straight from the record; only the ID and model become strings.
+     */
+    static Vehicle createVehicle(Fields data) throws OverloadException, InvalidOperationException {
+        if (data.size() < 5) {
+            throw new IllegalArgumentException("Not enough fields to create a vehicle");
+        }
+        String type = data.sharedText(0);
+        String id = data.text(1);
+        String model = data.sharedText(2);
+        double maxSpeed = data.doubleAt(3);
+        double mileage = data.doubleAt(4);
+
+        // An empty tank is saved as 0.0, which refuel() rejects, so only a
+        // non-zero fuel level is refuelled (a negative one still fails).
         switch (type) {
             case "Car": {
-                if (data.length < 8) {
+                if (data.size() < 8) {
                     throw new IllegalArgumentException("Car record requires 8 fields");
                 }
-                int numWheels = Integer.parseInt(data[5]);
-                double fuelLevel = Double.parseDouble(data[6]);
-                int currentPassengers = Integer.parseInt(data[7]);
+                int numWheels = data.intAt(5);
+                double fuelLevel = data.doubleAt(6);
+                int currentPassengers = data.intAt(7);
 
                 Car car = new Car(id, model, maxSpeed, mileage, numWheels);
-                car.refuel(fuelLevel);
+                if (fuelLevel != 0) {
+                    car.refuel(fuelLevel);
+                }
                 car.boardPassengers(currentPassengers);
                 return car;
             }
             case "Truck": {
-                if (data.length < 8) {
+                if (data.size() < 8) {
                     throw new IllegalArgumentException("Truck record requires 8 fields");
                 }
-                int numWheels = Integer.parseInt(data[5]);
-                double fuelLevel = Double.parseDouble(data[6]);
-                double currentCargo = Double.parseDouble(data[7]);
+                int numWheels = data.intAt(5);
+                double fuelLevel = data.doubleAt(6);
+                double currentCargo = data.doubleAt(7);
 
                 Truck truck = new Truck(id, model, maxSpeed, mileage, numWheels);
-                truck.refuel(fuelLevel);
+                if (fuelLevel != 0) {
+                    truck.refuel(fuelLevel);
+                }
                 truck.loadCargo(currentCargo);
                 return truck;
             }
             case "Bus": {
-                if (data.length < 9) {
+                if (data.size() < 9) {
                     throw new IllegalArgumentException("Bus record requires 9 fields");
                 }
-                int numWheels = Integer.parseInt(data[5]);
-                double fuelLevel = Double.parseDouble(data[6]);
-                int currentPassengers = Integer.parseInt(data[7]);
-                double currentCargo = Double.parseDouble(data[8]);
+                int numWheels = data.intAt(5);
+                double fuelLevel = data.doubleAt(6);
+                int currentPassengers = data.intAt(7);
+                double currentCargo = data.doubleAt(8);
 
                 Bus bus = new Bus(id, model, maxSpeed, mileage, numWheels);
-                bus.refuel(fuelLevel);
+                if (fuelLevel != 0) {
+                    bus.refuel(fuelLevel);
+                }
                 bus.boardPassengers(currentPassengers);
                 bus.loadCargo(currentCargo);
                 return bus;
             }
             case "Airplane": {
-                if (data.length < 9) {
+                if (data.size() < 9) {
                     throw new IllegalArgumentException("Airplane record requires 9 fields");
                 }
-                double maxAltitude = Double.parseDouble(data[5]);
-                double fuelLevel = Double.parseDouble(data[6]);
-                int currentPassengers = Integer.parseInt(data[7]);
-                double currentCargo = Double.parseDouble(data[8]);
+                double maxAltitude = data.doubleAt(5);
+                double fuelLevel = data.doubleAt(6);
+                int currentPassengers = data.intAt(7);
+                double currentCargo = data.doubleAt(8);
 
                 Airplane airplane = new Airplane(id, model, maxSpeed, mileage, maxAltitude);
-                airplane.refuel(fuelLevel);
+                if (fuelLevel != 0) {
+                    airplane.refuel(fuelLevel);
+                }
                 airplane.boardPassengers(currentPassengers);
                 airplane.loadCargo(currentCargo);
                 return airplane;
             }
             case "CargoShip": {
-                if (data.length < 8) {
+                if (data.size() < 8) {
                     throw new IllegalArgumentException("CargoShip record requires 8 fields");
                 }
-                boolean hasSail = Boolean.parseBoolean(data[5]);
-                double fuelLevel = Double.parseDouble(data[6]);
-                double currentCargo = Double.parseDouble(data[7]);
+                boolean hasSail = data.booleanAt(5);
+                double fuelLevel = data.doubleAt(6);
+                double currentCargo = data.doubleAt(7);
 
                 CargoShip ship = new CargoShip(id, model, maxSpeed, mileage, hasSail);
-                if (!hasSail) {
+                if (!hasSail && fuelLevel != 0) {
                     ship.refuel(fuelLevel);
                 }
                 ship.loadCargo(currentCargo);
@@ -92,4 +173,57 @@ public class VehicleFactory {
                 throw new IllegalArgumentException("Unknown vehicle type in file: " + type);
         }
     }
+
+    /**
+     * The fields of one CSV record by position (0 is the type), already
+     * trimmed. Numeric accessors behave like Double.parseDouble,
+     * Integer.parseInt and Boolean.parseBoolean on the field text, including
+     * the exceptions they throw.
+     */
+    interface Fields {
+        int size();
+
+        String text(int i);
+
+        // Like text, for values that repeat from record to record (type, model)
+        String sharedText(int i);
+
+        double doubleAt(int i);
+
+        int intAt(int i);
+
+        boolean booleanAt(int i);
+    }
+
+    private static final class StringFields implements Fields {
+        private final String[] data;
+
+        StringFields(String[] data) {
+            this.data = data;
+        }
+
+        public int size() {
+            return data.length;
+        }
+
+        public String text(int i) {
+            return data[i];
+        }
+
+        public String sharedText(int i) {
+            return data[i];
+        }
+
+        public double doubleAt(int i) {
+            return Double.parseDouble(data[i]);
+        }
+
+        public int intAt(int i) {
+            return Integer.parseInt(data[i]);
+        }
+
+        public boolean booleanAt(int i) {
+            return Boolean.parseBoolean(data[i]);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package fleet;
+
+import java.util.Arrays;
+import vehicles.Vehicle;
+
+/**
+ * Dense int handles for the vehicles in a fleet. A handle is assigned when a
+ * vehicle joins and released when it leaves; released handles are reused
+ * first, so handles stay below the peak fleet size and can index plain
+ * arrays. Each handle also carries the vehicle's dictionary-encoded model.
+ *
+ * The ID to handle mapping is an open-addressing (linear probing) table of
+ * ints, so lookups do not box and the table itself holds no objects.
+ */
+class VehicleHandleTable {
+
+    private Vehicle[] vehicles = new Vehicle[16];
+    private int[] modelCodes = new int[16];
+    private int[] idHashes = new int[16];
+    private int highWater;
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int size;
+
+    // handle + 1 per occupied cell, 0 = empty; at most half full
+    private int[] idTable = new int[32];
+
+    private final StringDictionary models = new StringDictionary();
+
+    // Assign a handle to a vehicle whose ID is not in the table yet.
+    int assign(Vehicle v) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (highWater == vehicles.length) {
+                int capacity = vehicles.length * 2;
+                vehicles = Arrays.copyOf(vehicles, capacity);
+                modelCodes = Arrays.copyOf(modelCodes, capacity);
+                idHashes = Arrays.copyOf(idHashes, capacity);
+            }
+            handle = highWater++;
+        }
+        vehicles[handle] = v;
+        modelCodes[handle] = v.getModel() == null ? -1 : models.encode(v.getModel());
+        idHashes[handle] = hash(v.getId());
+        if ((size + 1) * 2 > idTable.length) {
+            int[] old = idTable;
+            idTable = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry);
+                }
+            }
+        }
+        place(handle + 1);
+        size++;
+        return handle;
+    }
+
+    void release(int handle) {
+        if (handle < 0 || handle >= highWater || vehicles[handle] == null) {
+            return;
+        }
+        int mask = idTable.length - 1;
+        int hole = idHashes[handle] & mask;
+        while (idTable[hole] != handle + 1) {
+            hole = (hole + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe chain into the hole
+        idTable[hole] = 0;
+        for (int i = (hole + 1) & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int home = idHashes[idTable[i] - 1] & mask;
+            boolean stays = hole <= i ? (home > hole && home <= i) : (home > hole || home <= i);
+            if (!stays) {
+                idTable[hole] = idTable[i];
+                idTable[i] = 0;
+                hole = i;
+            }
+        }
+        vehicles[handle] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+        size--;
+    }
+
+    // Handle of the vehicle with this ID, or -1
+    int handleOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = hash(id);
+        int mask = idTable.length - 1;
+        for (int i = hash & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int handle = idTable[i] - 1;
+            if (idHashes[handle] == hash && vehicles[handle].getId().equals(id)) {
+                return handle;
+            }
+        }
+        return -1;
+    }
+
+    Vehicle vehicleAt(int handle) {
+        return handle < 0 || handle >= highWater ? null : vehicles[handle];
+    }
+
+    int modelCodeAt(int handle) {
+        return modelCodes[handle];
+    }
+
+    StringDictionary models() {
+        return models;
+    }
+
+    // Every handle in use is below this bound
+    int capacity() {
+        return highWater;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(vehicles, 0, highWater, null);
+        Arrays.fill(idTable, 0);
+        highWater = 0;
+        freeCount = 0;
+        size = 0;
+        models.clear();
+    }
+
+    private void place(int entry) {
+        int mask = idTable.length - 1;
+        int i = idHashes[entry - 1] & mask;
+        while (idTable[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idTable[i] = entry;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
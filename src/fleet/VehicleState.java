@@ -0,0 +1,31 @@
+package fleet;
+
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import vehicles.Vehicle;
+
+/**
+ * Immutable copy of one vehicle's state, as captured into a FleetSnapshot.
+ * Capabilities a vehicle lacks read as 0 (fuel, cargo, passengers) or as
+ * "never due" for maintenance.
+ */
+public record VehicleState(String type, String id, String model, double maxSpeed, double mileage,
+        double fuelLevel, double efficiency, double currentCargo, int currentPassengers,
+        boolean needsMaintenance, double kilometresUntilMaintenance) {
+
+    public static VehicleState of(Vehicle v) {
+        double fuel = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+        double cargo = v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0;
+        int passengers = v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+        boolean due = false;
+        double untilDue = Double.POSITIVE_INFINITY;
+        if (v instanceof Maintainable) {
+            due = ((Maintainable) v).needsMaintenance();
+            untilDue = ((Maintainable) v).getKilometresUntilMaintenance();
+        }
+        return new VehicleState(v.getClass().getSimpleName(), v.getId(), v.getModel(), v.getMaxSpeed(),
+                v.getCurrentMileage(), fuel, v.calculateFuelEfficiency(), cargo, passengers, due, untilDue);
+    }
+}
@@ -3,9 +3,20 @@ package interfaces;
 //– void scheduleMaintenance(): Sets maintenance flag.
 //– boolean needsMaintenance(): True if mileage > 10000 km.
 //– void performMaintenance(): Resets flag, prints message.
+//– double getKilometresUntilMaintenance(): Distance left before the interval is exceeded;
+//  negative once overdue, negative infinity while maintenance is scheduled.
 
 public interface Maintainable {
+    // Distance between services (km)
+    double MAINTENANCE_INTERVAL_KM = 10000;
+
     void scheduleMaintenance();
     boolean needsMaintenance();
     void performMaintenance();
+
+    // Implementations that do not track their last service only know whether
+    // they are due; the built-in vehicles override this with the exact distance.
+    default double getKilometresUntilMaintenance() {
+        return needsMaintenance() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    }
 }
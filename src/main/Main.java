@@ -1,10 +1,11 @@
 package main;
 
 import exceptions.*;
+import fleet.ConcurrentFleetManager;
 import fleet.FleetManager;
+import fleet.FleetPredicate;
+import fleet.FleetQuery;
 import interfaces.CargoCarrier;
-import interfaces.FuelConsumable;
-import interfaces.Maintainable;
 import interfaces.PassengerCarrier;
 import java.io.IOException;
 import java.util.List;
@@ -16,7 +17,8 @@ import vehicles.*;
 public class Main {
 
     public static void main(String[] args) throws InvalidOperationException, IOException, OverloadException {
-        FleetManager manager = new FleetManager();
+        // The highway simulator mutates fleet vehicles from its own threads
+        FleetManager manager = new ConcurrentFleetManager();
         Scanner scanner = new Scanner(System.in);
         boolean run = true;
         while (run) {
@@ -377,49 +379,12 @@ public class Main {
     }
 
     private static void searchByType(String searchTypeStr, FleetManager manager) {
-        Class<?> searchType;
-        switch (searchTypeStr.toLowerCase()) {
-            case "car":
-                searchType = Car.class;
-                break;
-            case "truck":
-                searchType = Truck.class;
-                break;
-            case "bus":
-                searchType = Bus.class;
-                break;
-            case "airplane":
-                searchType = Airplane.class;
-                break;
-            case "cargoship":
-                searchType = CargoShip.class;
-                break;
-            case "landvehicle":
-                searchType = LandVehicle.class;
-                break;
-            case "airvehicle":
-                searchType = AirVehicle.class;
-                break;
-            case "watervehicle":
-                searchType = WaterVehicle.class;
-                break;
-            case "fuelconsumable":
-                searchType = FuelConsumable.class;
-                break;
-            case "cargocarrier":
-                searchType = CargoCarrier.class;
-                break;
-            case "passengercarrier":
-                searchType = PassengerCarrier.class;
-                break;
-            case "maintainable":
-                searchType = Maintainable.class;
-                break;
-            default:
-                System.out.println("Unknown or unsupported type for searching.");
-                return;
+        Class<?> searchType = FleetQuery.resolveType(searchTypeStr);
+        if (searchType == null) {
+            System.out.println("Unknown or unsupported type for searching.");
+            return;
         }
-        List<Vehicle> results = manager.searchByType(searchType);
+        List<Vehicle> results = manager.query(new FleetQuery(FleetPredicate.ofType(searchType)));
         if (results.isEmpty()) {
             System.out.println("No vehicles found of type " + searchType.getSimpleName());
         } else {
@@ -135,11 +135,14 @@ public class VehicleThread implements Runnable {
                 // Update vehicle state
                 double distance = DISTANCE_PER_UPDATE;
 
-                // Update mileage
-                vehicle.setMileage(vehicle.getCurrentMileage() + distance);
-
-                // Consume fuel
-                consumeFuel(distance);
+                // Update mileage and consume fuel as one update of the vehicle
+                vehicle.beginUpdate();
+                try {
+                    vehicle.setMileage(vehicle.getCurrentMileage() + distance);
+                    consumeFuel(distance);
+                } finally {
+                    vehicle.endUpdate();
+                }
 
                 // Update shared highway counter
                 double beforeCounter = counter.getTotalDistance();
@@ -0,0 +1,157 @@
+package tests;
+
+import fleet.BulkOperationResult;
+import fleet.FleetChange;
+import fleet.FleetChangeType;
+import fleet.FleetManager;
+import fleet.FleetOrder;
+import fleet.FleetSnapshot;
+import fleet.VehicleState;
+import interfaces.FuelConsumable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import vehicles.*;
+
+public class BulkOperationTest {
+
+    // Runs the parallel bulk operations on a fleet large enough to be split
+    // across the pool, then checks that the state changes queued by the pool
+    // threads reached every index, the snapshot and the change stream exactly
+    // once. Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FleetManager fm = new FleetManager();
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            int ships = 0;
+            int expectedMoves = 0;
+            for (int i = 0; i < 5000; i++) {
+                String id = "B" + i;
+                if (i % 3 == 0) {
+                    fm.addVehicle(new CargoShip(id, "OldSail", 20, i, true));
+                    ships++;
+                    expectedMoves++;
+                } else {
+                    Car car = new Car(id, "Toyota", 100 + i % 50, 1000.0 * (i % 7), 4);
+                    // Every fifth car has too little fuel for the journey
+                    car.refuel(i % 5 == 0 ? 1.0 : 50.0);
+                    fm.addVehicle(car);
+                    expectedMoves += i % 5 == 0 ? 0 : 1;
+                }
+            }
+            BlockingQueue<List<FleetChange>> batches = new LinkedBlockingQueue<>();
+            fm.getChanges().subscribe(new Flow.Subscriber<List<FleetChange>>() {
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+                public void onNext(List<FleetChange> batch) {
+                    batches.add(batch);
+                }
+                public void onError(Throwable error) {
+                }
+                public void onComplete() {
+                }
+            });
+            long before = fm.takeSnapshot().getVersion();
+
+            BulkOperationResult journeys = fm.startAllJourneys(120.0, pool);
+            System.setOut(out);
+            check(journeys.getSuccessCount() == expectedMoves, "journeys succeeded " + journeys.getSuccessCount());
+            check(journeys.getFailureCount() == 5000 - expectedMoves, "journeys failed " + journeys.getFailureCount());
+            checkIndexes(fm, "after startAllJourneys");
+
+            List<FleetChange> batch = batches.poll(5, TimeUnit.SECONDS);
+            check(batch != null, "startAllJourneys published a batch");
+            check(batches.poll(200, TimeUnit.MILLISECONDS) == null, "startAllJourneys published one batch");
+            Set<String> seen = new HashSet<>();
+            for (FleetChange change : batch) {
+                check(change.getType() == FleetChangeType.UPDATED, "journey change type");
+                check(seen.add(change.getVehicleId() + "/" + change.getProperty()), "change replayed once: " + change);
+                check(change.getVersion() > before, "change version above the starting snapshot");
+            }
+            // A car reports fuel and mileage; a sail ship only mileage
+            int cars = journeys.getSuccessCount() - ships;
+            check(batch.size() == 2 * cars + ships, "one change per vehicle and property, got " + batch.size());
+
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            BulkOperationResult refuelled = fm.refuelAll(10.0, pool);
+            System.setOut(out);
+            check(refuelled.getSuccessCount() == 5000 - ships, "refuelAll succeeded " + refuelled.getSuccessCount());
+            check(refuelled.getSkippedCount() == ships, "sail ships skipped");
+            checkIndexes(fm, "after refuelAll");
+
+            for (Vehicle v : fm.getFleetSnapshot()) {
+                if (v instanceof Car && Integer.parseInt(v.getId().substring(1)) % 4 == 0) {
+                    ((Car) v).scheduleMaintenance();
+                }
+            }
+            int due = fm.getVehiclesNeedingMaintenance().size();
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            BulkOperationResult maintained = fm.maintainAll(pool);
+            System.setOut(out);
+            check(maintained.getSuccessCount() == due, "maintainAll succeeded " + maintained.getSuccessCount());
+            check(fm.getVehiclesNeedingMaintenance().isEmpty(), "nothing due after maintainAll");
+            check(fm.getStatistics().getVehiclesNeedingMaintenance() == 0, "running due count after maintainAll");
+            checkIndexes(fm, "after maintainAll");
+
+            System.out.println("All bulk operation assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Bulk operation test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // The indexes, running totals and snapshot must agree with the vehicles
+    private static void checkIndexes(FleetManager fm, String when) {
+        List<Vehicle> all = fm.getFleetSnapshot();
+        checkOrder(fm, all, FleetOrder.MILEAGE, Vehicle::getCurrentMileage, when);
+        checkOrder(fm, all, FleetOrder.FUEL, v -> v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0, when);
+        double mileage = 0;
+        double fuel = 0;
+        for (Vehicle v : all) {
+            mileage += v.getCurrentMileage();
+            fuel += v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+        }
+        check(Math.abs(fm.getStatistics().getTotalMileage() - mileage) < 1e-6, "total mileage " + when);
+        check(Math.abs(fm.getTotalFuelRemaining() - fuel) < 1e-6, "total fuel " + when);
+        FleetSnapshot snapshot = fm.takeSnapshot();
+        for (Vehicle v : all) {
+            VehicleState state = snapshot.get(v.getId());
+            check(state != null && state.equals(VehicleState.of(v)), "snapshot state of " + v.getId() + " " + when);
+        }
+    }
+
+    private static void checkOrder(FleetManager fm, List<Vehicle> all, FleetOrder order, ToDoubleFunction<Vehicle> key, String when) {
+        List<Vehicle> expected = new ArrayList<>(all);
+        expected.sort(Comparator.comparingDouble(key).thenComparing(Vehicle::getId));
+        List<Vehicle> actual = new ArrayList<>();
+        for (Vehicle v : fm.orderedBy(order, true)) {
+            actual.add(v);
+        }
+        check(expected.equals(actual), "ordered view " + order + " " + when);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package tests;
+
+import exceptions.InsufficientFuelException;
+import exceptions.InvalidOperationException;
+import exceptions.OverloadException;
+import fleet.BatchMode;
+import fleet.ConcurrentFleetManager;
+import fleet.FleetMetric;
+import fleet.FleetOrder;
+import fleet.FleetSnapshot;
+import fleet.FleetStatistics;
+import fleet.VehicleState;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import vehicles.*;
+
+public class ConcurrentFleetManagerTest {
+
+    private static final int SIMULATORS = 4;
+    private static final int VEHICLES_PER_SIMULATOR = 50;
+    private static final int ROUNDS = 300;
+    private static final String[] MODELS = {"Toyota", "Volvo", "Mercedes", "Boeing", "Maersk"};
+    private static final Class<?>[] TYPES = {Car.class, Truck.class, Bus.class, Airplane.class, CargoShip.class,
+            PassengerCarrier.class, CargoCarrier.class};
+
+    // Simulator threads drive the fleet's vehicles (journeys, refuelling,
+    // cargo, passengers, maintenance) while other threads run queries and
+    // reports and one thread adds, removes, batch-adds and sorts. Failures
+    // on any thread fail the test. Once every thread has finished, the
+    // ordered indexes, the column store behind the statistics and top-K,
+    // the type and model indexes and the snapshot must all agree with a
+    // fresh pass over the fleet. Runs as a normal main program; exits
+    // non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            ConcurrentFleetManager fm = new ConcurrentFleetManager();
+            for (int t = 0; t < SIMULATORS; t++) {
+                for (int i = 0; i < VEHICLES_PER_SIMULATOR; i++) {
+                    fm.addVehicle(vehicle("S" + t + "-" + i, t * VEHICLES_PER_SIMULATOR + i));
+                }
+            }
+            run(fm);
+            checkConsistent(fm);
+
+            System.setOut(out);
+            System.out.println("All concurrent fleet assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Concurrent fleet test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Vehicle vehicle(String id, int n) throws Exception {
+        String model = MODELS[n % MODELS.length];
+        switch (n % 5) {
+            case 0:
+                return new Car(id, model, 100 + n % 7 * 10, n, 4);
+            case 1:
+                return new Truck(id, model, 80 + n % 5 * 10, n, 6);
+            case 2:
+                return new Bus(id, model, 70 + n % 3 * 10, n, 6);
+            case 3:
+                return new Airplane(id, model, 800 + n % 4 * 50, n, 30000.0);
+            default:
+                return new CargoShip(id, model, 20 + n % 3 * 5, n, n % 2 == 0);
+        }
+    }
+
+    private static void run(ConcurrentFleetManager fm) throws InterruptedException {
+        AtomicReference<Throwable> failed = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < SIMULATORS; t++) {
+            String prefix = "S" + t + "-";
+            Random random = new Random(t);
+            threads.add(worker(failed, start, () -> {
+                while (!done.get()) {
+                    drive(fm.getVehicleById(prefix + random.nextInt(VEHICLES_PER_SIMULATOR)), random);
+                }
+            }));
+        }
+        for (int q = 0; q < 2; q++) {
+            Random random = new Random(100 + q);
+            threads.add(worker(failed, start, () -> {
+                while (!done.get()) {
+                    query(fm, random);
+                }
+            }));
+        }
+        Random random = new Random(200);
+        Thread changer = worker(failed, start, () -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                change(fm, round, random);
+            }
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        changer.start();
+        start.countDown();
+        changer.join();
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failed.get() != null) {
+            throw new IllegalStateException("a worker thread failed: " + failed.get(), failed.get());
+        }
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    // Runs the work once every thread has started; the first failure is kept
+    private static Thread worker(AtomicReference<Throwable> failed, CountDownLatch start, Work work) {
+        return new Thread(() -> {
+            try {
+                start.await();
+                work.run();
+            } catch (Throwable e) {
+                failed.compareAndSet(null, e);
+            }
+        });
+    }
+
+    // One simulator step on a vehicle this thread owns. A vehicle refusing
+    // the operation is part of the simulation; anything else is a failure
+    private static void drive(Vehicle v, Random random) {
+        try {
+            switch (random.nextInt(6)) {
+                case 0:
+                    v.move(1 + random.nextInt(200));
+                    break;
+                case 1:
+                    ((FuelConsumable) v).refuel(1 + random.nextInt(500));
+                    break;
+                case 2:
+                    if (v instanceof CargoCarrier) {
+                        if (random.nextBoolean()) {
+                            ((CargoCarrier) v).loadCargo(1 + random.nextInt(5000));
+                        } else {
+                            ((CargoCarrier) v).unloadCargo(1 + random.nextInt(5000));
+                        }
+                    }
+                    break;
+                case 3:
+                    if (v instanceof PassengerCarrier) {
+                        if (random.nextBoolean()) {
+                            ((PassengerCarrier) v).boardPassengers(1 + random.nextInt(20));
+                        } else {
+                            ((PassengerCarrier) v).disembarkPassengers(1 + random.nextInt(20));
+                        }
+                    }
+                    break;
+                case 4:
+                    if (random.nextBoolean()) {
+                        ((Maintainable) v).scheduleMaintenance();
+                    } else {
+                        ((Maintainable) v).performMaintenance();
+                    }
+                    break;
+                default:
+                    // A journey as the highway simulator makes it: mileage and fuel as one update
+                    v.beginUpdate();
+                    try {
+                        v.setMileage(v.getCurrentMileage() + 1 + random.nextInt(3000));
+                        ((FuelConsumable) v).consumeFuel(1);
+                    } finally {
+                        v.endUpdate();
+                    }
+            }
+        } catch (InsufficientFuelException | OverloadException | InvalidOperationException refused) {
+            // The vehicle was left as it was
+        }
+    }
+
+    // Reads while the fleet changes; each result must be consistent in itself
+    private static void query(ConcurrentFleetManager fm, Random random) {
+        FleetStatistics stats = fm.getStatistics();
+        int byType = 0;
+        for (int count : stats.getCountByType().values()) {
+            byType += count;
+        }
+        check(byType == stats.getTotalVehicles(), "statistics count by type sums to the total");
+
+        FleetSnapshot snapshot = fm.takeSnapshot();
+        Set<String> ids = new HashSet<>();
+        for (VehicleState state : snapshot) {
+            check(ids.add(state.id()), "snapshot lists " + state.id() + " once");
+        }
+        check(ids.size() == snapshot.size(), "snapshot size");
+
+        FleetMetric metric = FleetMetric.values()[random.nextInt(FleetMetric.values().length)];
+        check(fm.topK(metric, 5).size() <= 5, "top-K size");
+        fm.findInRange(metric, 0, 1000);
+        FleetOrder order = FleetOrder.values()[random.nextInt(FleetOrder.values().length)];
+        check(fm.getPage(order, random.nextBoolean(), 10, 20).size() <= 20, "page size");
+        for (Vehicle v : fm.getTypeView(TYPES[random.nextInt(TYPES.length)])) {
+            check(v != null, "type view holds vehicles");
+        }
+        fm.getVehiclesByModel(MODELS[random.nextInt(MODELS.length)]);
+        fm.getVehiclesNeedingMaintenance();
+        fm.generateReport(false);
+    }
+
+    // One round of structural changes with vehicles no simulator drives
+    private static void change(ConcurrentFleetManager fm, int round, Random random) throws Exception {
+        fm.addVehicle(vehicle("T" + round, round));
+        if (round >= 3 && round % 3 == 0) {
+            fm.removeVehicle("T" + (round - 3));
+        }
+        if (round % 10 == 0) {
+            List<Vehicle> batch = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                batch.add(vehicle("B" + round + "-" + i, round + i));
+            }
+            // An ID already in the fleet is rejected on its own
+            batch.add(vehicle("S0-0", round));
+            check(fm.addVehicles(batch, BatchMode.BEST_EFFORT).getSuccessCount() == 5, "batch added");
+            if (round >= 20) {
+                for (int i = 0; i < 5; i += 2) {
+                    fm.removeVehicle("B" + (round - 20) + "-" + i);
+                }
+            }
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                fm.sortFleetByEfficiency();
+                break;
+            case 1:
+                fm.sortFleetByModel(random.nextBoolean());
+                break;
+            case 2:
+                fm.sortFleetBySpeed(random.nextBoolean());
+                break;
+            case 3:
+                fm.sortFleetByMileage(random.nextBoolean());
+                break;
+            case 4:
+                fm.sortFleetById(random.nextBoolean());
+                break;
+            default:
+                fm.sortFleetByEfficiency(random.nextBoolean());
+        }
+    }
+
+    private static void checkConsistent(ConcurrentFleetManager fm) {
+        List<Vehicle> fleet = fm.getFleetSnapshot();
+        check(fleet.size() > SIMULATORS * VEHICLES_PER_SIMULATOR, "structural changes added vehicles");
+        check(fm.size() == fleet.size(), "size " + fm.size() + " vs " + fleet.size());
+        Map<String, VehicleState> states = new HashMap<>();
+        for (Vehicle v : fleet) {
+            check(states.put(v.getId(), VehicleState.of(v)) == null, v.getId() + " listed once");
+            check(fm.getVehicleById(v.getId()) == v, "lookup of " + v.getId());
+            check(fm.getVehicleByHandle(fm.getHandle(v.getId())) == v, "handle of " + v.getId());
+        }
+
+        checkStatistics(fm, fleet, states);
+        checkOrders(fm, fleet, states);
+        checkMetrics(fm, fleet, states);
+
+        for (Class<?> type : TYPES) {
+            List<Vehicle> expected = new ArrayList<>();
+            for (Vehicle v : fleet) {
+                if (type.isInstance(v)) {
+                    expected.add(v);
+                }
+            }
+            check(new ArrayList<>(fm.getTypeView(type)).equals(expected), type.getSimpleName() + " view");
+            check(fm.countByType(type) == expected.size(), type.getSimpleName() + " count");
+        }
+        for (String model : MODELS) {
+            List<Vehicle> expected = new ArrayList<>();
+            for (Vehicle v : fleet) {
+                if (model.equals(v.getModel())) {
+                    expected.add(v);
+                }
+            }
+            check(new ArrayList<>(fm.getVehiclesByModel(model)).equals(expected), model + " view");
+            check(fm.getModelCount(model) == expected.size(), model + " count");
+        }
+
+        Set<Vehicle> due = new HashSet<>();
+        for (Vehicle v : fleet) {
+            if (states.get(v.getId()).needsMaintenance()) {
+                due.add(v);
+            }
+        }
+        check(new HashSet<>(fm.getVehiclesNeedingMaintenance()).equals(due), "vehicles needing maintenance");
+
+        FleetSnapshot snapshot = fm.takeSnapshot();
+        check(snapshot.size() == fleet.size(), "snapshot size " + snapshot.size());
+        for (Vehicle v : fleet) {
+            check(states.get(v.getId()).equals(snapshot.get(v.getId())), "snapshot state of " + v.getId());
+        }
+    }
+
+    private static void checkStatistics(ConcurrentFleetManager fm, List<Vehicle> fleet, Map<String, VehicleState> states) {
+        Map<String, Integer> countByType = new HashMap<>();
+        double mileage = 0;
+        double fuel = 0;
+        double scale = 1;
+        int due = 0;
+        Set<String> models = new HashSet<>();
+        for (Vehicle v : fleet) {
+            VehicleState state = states.get(v.getId());
+            countByType.merge(state.type(), 1, Integer::sum);
+            mileage += state.mileage();
+            fuel += state.fuelLevel();
+            scale += Math.abs(state.mileage()) + Math.abs(state.fuelLevel());
+            due += state.needsMaintenance() ? 1 : 0;
+            models.add(state.model());
+        }
+        FleetStatistics stats = fm.getStatistics();
+        check(stats.getTotalVehicles() == fleet.size(), "statistics total");
+        check(new HashMap<>(stats.getCountByType()).equals(countByType), "statistics count by type " + stats.getCountByType());
+        // The totals are kept as running sums, so allow for rounding
+        check(Math.abs(stats.getTotalMileage() - mileage) <= scale * 1e-9,
+                "total mileage " + stats.getTotalMileage() + " vs " + mileage);
+        check(Math.abs(stats.getTotalFuelRemaining() - fuel) <= scale * 1e-9,
+                "total fuel " + stats.getTotalFuelRemaining() + " vs " + fuel);
+        check(Math.abs(fm.getTotalFuelRemaining() - fuel) <= scale * 1e-9, "fuel remaining");
+        check(stats.getVehiclesNeedingMaintenance() == due, "statistics maintenance count");
+        check(stats.getDistinctModels() == models.size(), "statistics distinct models");
+        List<Vehicle> bySpeed = sorted(fleet, Comparator.comparingDouble(Vehicle::getMaxSpeed).thenComparing(Vehicle::getId));
+        check(stats.getFastest() == bySpeed.get(bySpeed.size() - 1) && stats.getSlowest() == bySpeed.get(0),
+                "fastest and slowest");
+    }
+
+    // Every ordered index lists the fleet by its key, ties by ID
+    private static void checkOrders(ConcurrentFleetManager fm, List<Vehicle> fleet, Map<String, VehicleState> states) {
+        for (FleetOrder order : FleetOrder.values()) {
+            Comparator<Vehicle> byKey;
+            if (order == FleetOrder.ID) {
+                byKey = Comparator.comparing(Vehicle::getId);
+            } else if (order == FleetOrder.MODEL) {
+                byKey = Comparator.comparing(Vehicle::getModel, Comparator.nullsLast(String::compareTo));
+            } else {
+                byKey = Comparator.comparingDouble(v -> key(order, states.get(v.getId())));
+            }
+            List<Vehicle> expected = sorted(fleet, byKey.thenComparing(Vehicle::getId));
+            check(fm.getPage(order, true, 0, fleet.size()).equals(expected), order + " index ascending");
+            List<Vehicle> descending = new ArrayList<>();
+            for (Vehicle v : fm.orderedBy(order, false)) {
+                descending.add(v);
+            }
+            Collections.reverse(expected);
+            check(descending.equals(expected), order + " index descending");
+        }
+    }
+
+    private static double key(FleetOrder order, VehicleState state) {
+        switch (order) {
+            case SPEED:
+                return state.maxSpeed();
+            case MILEAGE:
+                return state.mileage();
+            case EFFICIENCY:
+                return state.efficiency();
+            case FUEL:
+                return state.fuelLevel();
+            case CARGO:
+                return state.currentCargo();
+            case PASSENGERS:
+                return state.currentPassengers();
+            default:
+                return state.kilometresUntilMaintenance();
+        }
+    }
+
+    // Top-K and bottom-K come from the columns, range queries from the indexes
+    private static void checkMetrics(ConcurrentFleetManager fm, List<Vehicle> fleet, Map<String, VehicleState> states) {
+        for (FleetMetric metric : FleetMetric.values()) {
+            FleetOrder order = FleetOrder.valueOf(metric.name());
+            Comparator<Vehicle> byValue = Comparator.comparingDouble(v -> key(order, states.get(v.getId())));
+            List<Vehicle> ascending = sorted(fleet, byValue.thenComparing(Vehicle::getId));
+            List<Vehicle> descending = sorted(fleet, byValue.reversed().thenComparing(Vehicle::getId));
+            check(fm.topK(metric, 10).equals(descending.subList(0, 10)), metric + " top 10");
+            check(fm.bottomK(metric, 10).equals(ascending.subList(0, 10)), metric + " bottom 10");
+
+            double low = key(order, states.get(ascending.get(fleet.size() / 4).getId()));
+            double high = key(order, states.get(ascending.get(fleet.size() * 3 / 4).getId()));
+            List<Vehicle> inRange = new ArrayList<>();
+            for (Vehicle v : ascending) {
+                double value = key(order, states.get(v.getId()));
+                if (value >= low && value <= high) {
+                    inRange.add(v);
+                }
+            }
+            check(fm.findInRange(metric, low, high).equals(inRange), metric + " range [" + low + ", " + high + "]");
+        }
+    }
+
+    private static List<Vehicle> sorted(List<Vehicle> fleet, Comparator<Vehicle> order) {
+        List<Vehicle> copy = new ArrayList<>(fleet);
+        copy.sort(order);
+        return copy;
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package tests;
+
+import exceptions.InvalidOperationException;
+import fleet.BatchMode;
+import fleet.BulkOperationResult;
+import fleet.FleetManager;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import vehicles.*;
+
+public class FleetBatchAddTest {
+
+    // Adds batches holding null records, IDs already in the fleet and IDs
+    // repeated within the batch (one of them looking like a position) to a
+    // FleetManager in both batch modes, and checks that every rejected
+    // record is reported once, by its position, and that the fleet, its
+    // indexes and its snapshot hold exactly the added vehicles. Runs as a
+    // normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkBestEffort();
+            checkAllOrNothing();
+
+            System.setOut(out);
+            System.out.println("All batch add assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Batch add test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static FleetManager fleetWithExisting() throws Exception {
+        FleetManager fm = new FleetManager();
+        fm.addVehicle(new Bus("E1", "Mercedes", 80, 0.0, 6));
+        return fm;
+    }
+
+    // Positions 1 (null), 2 (in the fleet), 3 and 6 (repeats of A1) are rejected
+    private static List<Vehicle> mixedBatch(Car first) {
+        return new ArrayList<>(Arrays.asList(
+                first,
+                null,
+                new Car("E1", "Honda", 110, 0.0, 4),
+                new Truck("A1", "Volvo", 90, 0.0, 6),
+                new Car("#1", "Honda", 110, 0.0, 4),
+                new Airplane("P1", "Boeing", 900, 0.0, 30000.0),
+                new Car("A1", "Toyota", 130, 0.0, 4)));
+    }
+
+    private static void checkBestEffort() throws Exception {
+        FleetManager fm = fleetWithExisting();
+        Car first = new Car("A1", "Toyota", 120, 0.0, 4);
+        BulkOperationResult result = fm.addVehicles(mixedBatch(first), BatchMode.BEST_EFFORT);
+
+        check(result.getSucceeded().equals(List.of("A1", "#1", "P1")), "best-effort succeeded " + result.getSucceeded());
+        checkRejections(result, "best-effort");
+        check(result.getSkippedCount() == 0, "best-effort skips nothing");
+        check(fm.getVehicleById("A1") == first, "first record of a repeated ID added");
+        check(fm.getVehicleById("E1") instanceof Bus, "existing vehicle kept");
+        check(fm.getFleetSnapshot().size() == 4 && fm.takeSnapshot().size() == 4, "best-effort fleet size");
+        check(fm.countByType(Car.class) == 2 && fm.countByType(Truck.class) == 0, "type index after best-effort");
+        check(fm.getModelCount("Toyota") == 1 && fm.getModelCount("Honda") == 1 && fm.getModelCount("Volvo") == 0,
+                "model index after best-effort");
+        check(fm.takeSnapshot().get("#1") != null && fm.getHandle("P1") >= 0, "snapshot and handles after best-effort");
+    }
+
+    private static void checkAllOrNothing() throws Exception {
+        FleetManager fm = fleetWithExisting();
+        long version = fm.takeSnapshot().getVersion();
+        BulkOperationResult result = fm.addVehicles(mixedBatch(new Car("A1", "Toyota", 120, 0.0, 4)), BatchMode.ALL_OR_NOTHING);
+
+        check(result.getSuccessCount() == 0, "all-or-nothing adds nothing");
+        checkRejections(result, "all-or-nothing");
+        check(result.getSkippedCount() == 3, "valid records skipped: " + result.getSkippedCount());
+        check(fm.getFleetSnapshot().size() == 1 && fm.getVehicleById("A1") == null, "fleet unchanged");
+        check(fm.takeSnapshot().getVersion() == version, "snapshot unchanged");
+        check(fm.countByType(Car.class) == 0 && fm.getModelCount("Toyota") == 0, "indexes unchanged");
+
+        List<Vehicle> clean = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            clean.add(new Car("C" + i, "Toyota", 100 + i, i, 4));
+        }
+        BulkOperationResult added = fm.addVehicles(clean, BatchMode.ALL_OR_NOTHING);
+        check(added.getSuccessCount() == 20 && !added.hasFailures() && added.getRejections().isEmpty(), "clean batch added");
+        check(fm.getFleetSnapshot().size() == 21 && fm.countByType(Car.class) == 20, "fleet after clean batch");
+        check(fm.getFleetSnapshot().get(1).getId().equals("C0"), "batch added in order");
+    }
+
+    private static void checkRejections(BulkOperationResult result, String what) {
+        List<BulkOperationResult.Rejection> rejections = result.getRejections();
+        int[] positions = new int[rejections.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = rejections.get(i).getPosition();
+            check(rejections.get(i).getException() instanceof InvalidOperationException, what + " rejection type " + i);
+        }
+        check(Arrays.equals(positions, new int[] {1, 2, 3, 6}), what + " rejected positions " + Arrays.toString(positions));
+        check(rejections.get(0).getId() == null, what + " null record has no ID");
+        check("E1".equals(rejections.get(1).getId()) && "A1".equals(rejections.get(2).getId())
+                && "A1".equals(rejections.get(3).getId()), what + " rejected IDs");
+        check(result.getFailureCount() == 4 && result.hasFailures() && result.getFailures().isEmpty(),
+                what + " failure count");
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package tests;
+
+import fleet.FleetBinaryFormat;
+import fleet.FleetManager;
+import fleet.VehicleFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import vehicles.*;
+
+public class FleetBinaryFormatTest {
+
+    // Converts a saved CSV file to a binary snapshot and back and checks
+    // that the CSV comes back byte for byte; then checks that a binary file
+    // with any single flipped bit is rejected as a whole, and so is one with
+    // a string table index out of range or a count or length larger than the
+    // file under a valid checksum. Runs as a normal main program; exits
+    // non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            File dir = Files.createTempDirectory("fleet-binary").toFile();
+            try {
+                File csv = new File(dir, "fleet.csv");
+                File binary = new File(dir, "fleet.bin");
+                File back = new File(dir, "back.csv");
+                FleetManager fm = sampleFleet();
+                fm.saveToFile(csv.getPath());
+                FleetBinaryFormat.csvToBinary(csv.getPath(), binary.getPath());
+                FleetBinaryFormat.binaryToCsv(binary.getPath(), back.getPath());
+                check(Arrays.equals(Files.readAllBytes(back.toPath()), Files.readAllBytes(csv.toPath())),
+                        "CSV to binary to CSV is byte-identical");
+
+                FleetManager loaded = new FleetManager();
+                loaded.loadFromBinaryFile(binary.getPath());
+                List<Vehicle> expected = fm.getFleetSnapshot();
+                List<Vehicle> actual = loaded.getFleetSnapshot();
+                check(actual.size() == expected.size(), "binary load size");
+                for (int i = 0; i < expected.size(); i++) {
+                    check(VehicleFactory.toCsvRow(actual.get(i)).equals(VehicleFactory.toCsvRow(expected.get(i))),
+                            "binary load of " + expected.get(i).getId());
+                }
+
+                checkFlippedBits(Files.readAllBytes(binary.toPath()), new File(dir, "flipped.bin"));
+                checkStringIndexes(dir);
+                checkCounts(dir);
+            } finally {
+                for (File file : dir.listFiles()) {
+                    file.delete();
+                }
+                dir.delete();
+            }
+
+            System.setOut(out);
+            System.out.println("All binary format assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Binary format test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static FleetManager sampleFleet() throws Exception {
+        FleetManager fm = new FleetManager();
+        Car car = new Car("C1", "Toyota", 120.0, 1000.125, 4);
+        car.refuel(50.0);
+        car.boardPassengers(2);
+        fm.addVehicle(car);
+        Truck truck = new Truck("T1", "Volvo", 90.0, 0.1 + 0.2, 6);
+        truck.refuel(1e-7);
+        truck.loadCargo(2000.0);
+        fm.addVehicle(truck);
+        Bus bus = new Bus("B1", "Mercedes", 80.0, 1e7, 6);
+        bus.boardPassengers(31);
+        bus.loadCargo(120.5);
+        fm.addVehicle(bus);
+        Airplane plane = new Airplane("Ü-Ω-€-🚗", "Škoda", 900.0, Double.MIN_VALUE, 35000.0);
+        plane.refuel(12345.678);
+        fm.addVehicle(plane);
+        fm.addVehicle(new CargoShip("S1", "OldSail", 15.0, 12000.0, true));
+        CargoShip ship = new CargoShip("S2", "Maersk", 30.0, -0.0, false);
+        ship.refuel(99.5);
+        ship.loadCargo(40000.0);
+        fm.addVehicle(ship);
+        // A model shared by several vehicles is stored once
+        for (int i = 0; i < 50; i++) {
+            fm.addVehicle(new Car("V" + i, "Toyota", 100 + i, i * 1.5, 4));
+        }
+        return fm;
+    }
+
+    // Every single-bit change fails the whole load and leaves the fleet as it was
+    private static void checkFlippedBits(byte[] original, File file) throws Exception {
+        for (int position = 0; position < original.length; position++) {
+            for (int bit = 0; bit < 8; bit += 3) {
+                byte[] flipped = original.clone();
+                flipped[position] ^= (byte) (1 << bit);
+                Files.write(file.toPath(), flipped);
+                checkRejected(file, "bit " + bit + " of byte " + position);
+            }
+        }
+    }
+
+    // Indexes outside the string table are a corrupt file even when the
+    // checksum matches, not a record to skip
+    private static void checkStringIndexes(File dir) throws Exception {
+        FleetManager fm = new FleetManager();
+        fm.addVehicle(new Car("X1", "Toyota", 120.0, 0.0, 4));
+        File binary = new File(dir, "one.bin");
+        fm.saveToBinaryFile(binary.getPath());
+        byte[] original = Files.readAllBytes(binary.toPath());
+        int record = firstRecord(original);
+
+        // The string table holds "X1" and "Toyota"; -1 only means "no model"
+        int[][] cases = {{1, 2}, {1, -1}, {1, Integer.MIN_VALUE}, {5, 2}, {5, 7}, {5, -2}};
+        for (int[] c : cases) {
+            Files.write(binary.toPath(), withInt(original, record + c[0], c[1]));
+            checkRejected(binary, "string index " + c[1] + " at record offset " + c[0]);
+        }
+    }
+
+    // A count or length beyond what is left of the file is a corrupt file,
+    // rejected before anything is allocated for it
+    private static void checkCounts(File dir) throws Exception {
+        FleetManager fm = new FleetManager();
+        fm.addVehicle(new Car("X1", "Toyota", 120.0, 0.0, 4));
+        fm.addVehicle(new Truck("X2", "Volvo", 90.0, 0.0, 6));
+        File binary = new File(dir, "counts.bin");
+        fm.saveToBinaryFile(binary.getPath());
+        byte[] original = Files.readAllBytes(binary.toPath());
+        int string = firstString(original);
+
+        // Offsets 8 and 12 hold the string and vehicle counts
+        int[][] cases = {{8, Integer.MAX_VALUE}, {8, 1 << 28}, {8, -1},
+                {12, Integer.MAX_VALUE}, {12, 1 << 28}, {12, -1},
+                {string, Integer.MAX_VALUE}, {string, 1 << 28}, {string, -1}, {string, original.length}};
+        for (int[] c : cases) {
+            Files.write(binary.toPath(), withInt(original, c[0], c[1]));
+            checkRejected(binary, (c[0] == string ? "string length " : "count at offset " + c[0] + " of ") + c[1]);
+        }
+        // Offset 6 holds the type count
+        Files.write(binary.toPath(), patched(original, bytes -> bytes.putShort(6, (short) 0xffff)));
+        checkRejected(binary, "type count 65535");
+    }
+
+    private static byte[] withInt(byte[] original, int offset, int value) {
+        return patched(original, bytes -> bytes.putInt(offset, value));
+    }
+
+    // The file with a change applied and its checksum recomputed
+    private static byte[] patched(byte[] original, Consumer<ByteBuffer> change) {
+        ByteBuffer bytes = ByteBuffer.wrap(original.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        change.accept(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, original.length - 4);
+        bytes.putInt(original.length - 4, (int) crc.getValue());
+        return bytes.array();
+    }
+
+    // Offset of the string table: after the header and the type dictionary
+    private static int firstString(byte[] file) {
+        ByteBuffer bytes = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        int types = bytes.getShort(6) & 0xffff;
+        int p = 16;
+        for (int i = 0; i < types; i++) {
+            p += 1 + (file[p] & 0xff) + 2;
+        }
+        return p;
+    }
+
+    // Offset of the first record: after the header, the type dictionary and the string table
+    private static int firstRecord(byte[] file) {
+        ByteBuffer bytes = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        int strings = bytes.getInt(8);
+        int p = firstString(file);
+        for (int i = 0; i < strings; i++) {
+            p += 4 + bytes.getInt(p);
+        }
+        return p;
+    }
+
+    private static void checkRejected(File file, String what) throws Exception {
+        FleetManager fm = new FleetManager();
+        fm.addVehicle(new Car("KEEP", "Toyota", 120.0, 0.0, 4));
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errors, true, "UTF-8"));
+        boolean rejected = false;
+        try {
+            fm.loadFromBinaryFile(file.getPath());
+        } catch (IOException expected) {
+            rejected = true;
+        } finally {
+            System.setErr(err);
+        }
+        check(rejected, what + " rejected");
+        check(!errors.toString("UTF-8").contains("Skipping"), what + " fails the whole file: " + errors);
+        check(fm.getFleetSnapshot().size() == 1 && fm.getVehicleById("KEEP") != null, what + " leaves the fleet");
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package tests;
+
+import fleet.FleetManager;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import vehicles.*;
+
+public class FleetCsvReaderTest {
+
+    // Loads CSV files whose mileage and wheel fields hold all kinds of number
+    // text and checks each value, or each error message, against
+    // Double.parseDouble and Integer.parseInt on the same text; then checks
+    // that files are read as UTF-8. Runs as a normal main program; exits
+    // non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkDoubles();
+            checkInts();
+            checkUtf8();
+
+            System.setOut(out);
+            System.out.println("All CSV reader assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.setErr(err);
+            System.err.println("CSV reader test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void checkDoubles() throws Exception {
+        List<String> cases = new ArrayList<>(Arrays.asList(
+                "0", "-0", "+0", "0.0", "-0.0", "00012.500", "1.", ".5", "-.5", "+7.25",
+                "0.1", "0.2", "0.30000000000000004", "123456789012345678", "1234567890123456789",
+                "12345678901234567.8", "9007199254740992", "9007199254740993", "900719925474099.3",
+                "0.0000000000000000000001", "0.00000000000000000000001", "1.0000000000000000000001",
+                "4.9E-324", "1.7976931348623157E308", "2.2250738585072014E-308", "1e3", "1E-3",
+                "NaN", "-Infinity", "Infinity", "0x1p3", "1.5d", "2f", " 12.5 ", "\t3\t",
+                ".", "-", "+", "", "1.2.3", "1,5", "1_000", "--1", "+-1", "12a", "0..1", "1e", "e5"));
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            cases.add(randomDecimal(random));
+        }
+        for (int i = 0; i < 2000; i++) {
+            cases.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            cases.add(Long.toString(random.nextLong() >> random.nextInt(64)));
+        }
+        cases.removeIf(text -> text.contains(","));
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < cases.size(); i++) {
+            lines.add("Car,D" + i + ",Toyota,120.0," + cases.get(i) + ",4,0.0,0");
+        }
+        Load load = load(lines);
+        for (int i = 0; i < cases.size(); i++) {
+            String text = cases.get(i);
+            Vehicle v = load.fleet.getVehicleById("D" + i);
+            try {
+                double expected = Double.parseDouble(text.trim());
+                check(v != null && Double.doubleToLongBits(v.getCurrentMileage()) == Double.doubleToLongBits(expected),
+                        "value of \"" + text + "\": " + (v == null ? "not loaded" : v.getCurrentMileage()) + " vs " + expected);
+            } catch (NumberFormatException e) {
+                check(v == null, "\"" + text + "\" rejected");
+                check(load.errors.contains(lines.get(i) + " (" + e.getMessage() + ")"), "error message for \"" + text + "\"");
+            }
+        }
+    }
+
+    // Random decimal text around the fast path's limits: up to 22 digits,
+    // leading and trailing zeros, a point anywhere, an optional sign
+    private static String randomDecimal(Random random) {
+        StringBuilder text = new StringBuilder();
+        int sign = random.nextInt(4);
+        if (sign == 0) {
+            text.append('-');
+        } else if (sign == 1) {
+            text.append('+');
+        }
+        int digits = 1 + random.nextInt(22);
+        int point = random.nextInt(digits + 2) - 1;
+        for (int d = 0; d < digits; d++) {
+            if (d == point) {
+                text.append('.');
+            }
+            text.append((char) ('0' + (random.nextInt(5) == 0 ? 0 : random.nextInt(10))));
+        }
+        if (point == digits) {
+            text.append('.');
+        }
+        return text.toString();
+    }
+
+    private static void checkInts() throws Exception {
+        List<String> cases = new ArrayList<>(Arrays.asList(
+                "4", "+4", "-4", "04", "000000000", "999999999", "1000000000", "2147483647", "2147483648",
+                "-2147483648", "-2147483649", "0000000000004", "4.0", "", "-", "+", "4a", " 6 ", "1e2", "٤"));
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            cases.add(Integer.toString(random.nextInt() >> random.nextInt(32)));
+        }
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < cases.size(); i++) {
+            lines.add("Car,I" + i + ",Toyota,120.0,0.0," + cases.get(i) + ",0.0,0");
+        }
+        Load load = load(lines);
+        for (int i = 0; i < cases.size(); i++) {
+            String text = cases.get(i);
+            Vehicle v = load.fleet.getVehicleById("I" + i);
+            try {
+                int expected = Integer.parseInt(text.trim());
+                check(v instanceof Car && ((Car) v).getNumWheels() == expected, "value of \"" + text + "\"");
+            } catch (NumberFormatException e) {
+                check(v == null, "\"" + text + "\" rejected");
+                check(load.errors.contains(lines.get(i) + " (" + e.getMessage() + ")"), "error message for \"" + text + "\"");
+            }
+        }
+    }
+
+    // Files are UTF-8 whatever the platform charset; bytes that are not valid
+    // UTF-8 (here windows-1252 text) come out as U+FFFD
+    private static void checkUtf8() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write("Car,Ü-Ω-€-🚗,Škoda,120.0,0.0,4,0.0,0\n".getBytes(StandardCharsets.UTF_8));
+        bytes.write("Car,Café,Renault,120.0,0.0,4,0.0,0\n".getBytes("windows-1252"));
+        File file = File.createTempFile("fleet-utf8", ".csv");
+        try {
+            Files.write(file.toPath(), bytes.toByteArray());
+            FleetManager fm = new FleetManager();
+            fm.loadFromFile(file.getPath());
+            Vehicle v = fm.getVehicleById("Ü-Ω-€-🚗");
+            check(v != null && v.getModel().equals("Škoda"), "UTF-8 ID and model");
+            check(fm.getVehicleById("Caf�") != null, "invalid UTF-8 read as U+FFFD");
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static final class Load {
+        final FleetManager fleet = new FleetManager();
+        String errors;
+    }
+
+    // Load the lines from a temporary file, collecting what is reported on System.err
+    private static Load load(List<String> lines) throws Exception {
+        File file = File.createTempFile("fleet-numbers", ".csv");
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        Load load = new Load();
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+            System.setErr(new PrintStream(errors, true, "UTF-8"));
+            load.fleet.loadFromFile(file.getPath());
+        } finally {
+            System.setErr(err);
+            file.delete();
+        }
+        load.errors = errors.toString("UTF-8");
+        return load;
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
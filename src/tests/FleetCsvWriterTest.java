@@ -0,0 +1,134 @@
+package tests;
+
+import fleet.FleetManager;
+import fleet.VehicleFactory;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import vehicles.*;
+
+public class FleetCsvWriterTest {
+
+    // Saves vehicles whose numbers hit the writer's own number formatting
+    // (decimals with up to three fraction digits below 10^7, their
+    // neighbours, special values, int extremes) and checks the file against
+    // VehicleFactory.toCsvRow, i.e. Double.toString and Long.toString, byte
+    // for byte in UTF-8, for both the sequential and the parallel save.
+    // Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            List<Double> doubles = doubles();
+            List<Integer> ints = ints();
+            FleetManager fm = new FleetManager();
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (int i = 0; i < doubles.size(); i++) {
+                Car car = new Car("D" + i, "Toyota", doubles.get(doubles.size() - 1 - i), 0.0, ints.get(i % ints.size()));
+                car.setMileage(doubles.get(i));
+                vehicles.add(car);
+            }
+            for (int i = 0; i < ints.size(); i++) {
+                vehicles.add(new Truck("I" + i, "Volvo", 90.0, 0.0, ints.get(i)));
+            }
+            // Non-ASCII text is written as UTF-8 whatever the platform charset
+            CargoShip ship = new CargoShip("Ü-Ω-€-🚗", "Škoda", 30.0, 0.5, false);
+            ship.refuel(12.5);
+            ship.loadCargo(1000.125);
+            vehicles.add(ship);
+            Bus bus = new Bus("B1", "Mercedes", 80.0, 1e7, 6);
+            bus.boardPassengers(50);
+            vehicles.add(bus);
+            vehicles.add(new Airplane("A1", "Boeing", 900.0, 9999999.999, 35000.0));
+            for (Vehicle v : vehicles) {
+                fm.addVehicle(v);
+            }
+
+            StringBuilder expected = new StringBuilder("Type,ID,Model,MaxSpeed,Mileage,ExtraFields...");
+            expected.append(System.lineSeparator());
+            for (Vehicle v : vehicles) {
+                expected.append(VehicleFactory.toCsvRow(v)).append(System.lineSeparator());
+            }
+            byte[] expectedBytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+
+            File file = File.createTempFile("fleet-writer", ".csv");
+            try {
+                fm.saveToFile(file.getPath());
+                checkSameBytes(Files.readAllBytes(file.toPath()), expectedBytes, "sequential save");
+                fm.saveToFile(file.getPath(), pool);
+                checkSameBytes(Files.readAllBytes(file.toPath()), expectedBytes, "parallel save");
+            } finally {
+                file.delete();
+            }
+
+            System.setOut(out);
+            System.out.println("All CSV writer assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("CSV writer test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Double> doubles() {
+        List<Double> values = new ArrayList<>(Arrays.asList(
+                0.0, -0.0, 1.0, -1.0, 0.5, 0.1, 0.2, 0.1 + 0.2, 0.001, 0.002, 0.0015, 0.0001, 1e-3 / 3, 100.0, 120.25,
+                9999999.0, 9999999.5, 9999999.999, 1e7, 1e7 + 0.5, 1.5e7, 1e-7, 123456.789, 0.125, 0.375, 10.10,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MIN_VALUE,
+                Double.MAX_VALUE, Double.MIN_NORMAL, (double) Long.MAX_VALUE, 2e23, 1e23, 4.35, 2.675, 1.005));
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            // Decimals the fast path writes itself, their neighbours, and arbitrary bits
+            int scale = random.nextInt(4);
+            double decimal = (long) (random.nextDouble() * 1e7 * Math.pow(10, scale)) / Math.pow(10, scale);
+            if (random.nextBoolean()) {
+                decimal = -decimal;
+            }
+            values.add(decimal);
+            values.add(Math.nextUp(decimal));
+            values.add(Math.nextDown(decimal));
+            values.add(Double.longBitsToDouble(random.nextLong()));
+            values.add(random.nextDouble() * Math.pow(10, random.nextInt(20) - 8));
+        }
+        return values;
+    }
+
+    private static List<Integer> ints() {
+        List<Integer> values = new ArrayList<>(Arrays.asList(
+                0, 1, -1, 9, 10, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1));
+        Random random = new Random(13);
+        for (int i = 0; i < 2000; i++) {
+            values.add(random.nextInt() >> random.nextInt(32));
+        }
+        return values;
+    }
+
+    private static void checkSameBytes(byte[] actual, byte[] expected, String what) {
+        int mismatch = Arrays.mismatch(actual, expected);
+        if (mismatch != -1) {
+            int from = Math.max(0, mismatch - 60);
+            String near = new String(actual, from, Math.min(actual.length, mismatch + 40) - from, StandardCharsets.UTF_8);
+            check(false, what + " differs at byte " + mismatch + ": ..." + near);
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package tests;
+
+import fleet.FleetChange;
+import fleet.FleetChangeType;
+import fleet.FleetManager;
+import fleet.FleetMetric;
+import fleet.FleetOrder;
+import fleet.FleetPredicate;
+import fleet.FleetQuery;
+import fleet.FleetSnapshot;
+import fleet.VehicleState;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import vehicles.*;
+
+public class FleetIndexSmokeTest {
+
+    // Exercises the FleetManager indexes through adds, removes and state
+    // changes and checks every answer against a brute-force pass over the
+    // fleet snapshot. Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        try {
+            FleetManager fm = new FleetManager();
+            for (int i = 0; i < 40; i++) {
+                String id = String.format("V%03d", (i * 17) % 40);
+                switch (i % 5) {
+                    case 0: {
+                        Car car = new Car(id, "Toyota", 100 + i, 1000.0 * i, 4);
+                        car.refuel(40.0);
+                        fm.addVehicle(car);
+                        break;
+                    }
+                    case 1: {
+                        Truck truck = new Truck(id, "Volvo", 80 + i, 500.0 * i, 6);
+                        truck.refuel(200.0);
+                        fm.addVehicle(truck);
+                        break;
+                    }
+                    case 2: {
+                        Bus bus = new Bus(id, "Mercedes", 70 + i, 800.0 * i, 6);
+                        bus.refuel(100.0);
+                        fm.addVehicle(bus);
+                        break;
+                    }
+                    case 3: {
+                        Airplane plane = new Airplane(id, "Boeing", 800 + i, 2000.0 * i, 35000.0);
+                        plane.refuel(3000.0);
+                        fm.addVehicle(plane);
+                        break;
+                    }
+                    default:
+                        fm.addVehicle(new CargoShip(id, i % 2 == 0 ? "Maersk" : "OldSail", 20 + i, 300.0 * i, i % 2 == 0));
+                }
+            }
+            fm.removeVehicle("V005");
+            fm.removeVehicle("V021");
+
+            // State changes made directly on the vehicles must reach the indexes.
+            fm.startAllJourneys(150.0);
+            for (Vehicle v : fm.getFleetSnapshot()) {
+                if (v instanceof Truck) {
+                    ((CargoCarrier) v).loadCargo(3000.0);
+                    break;
+                }
+            }
+
+            List<Vehicle> all = fm.getFleetSnapshot();
+            check(fm.getVehicleById("V005") == null, "removed vehicle still found by ID");
+            int handle = fm.getHandle(all.get(3).getId());
+            fm.sortFleetBySpeed();
+            check(fm.getHandle(all.get(3).getId()) == handle && fm.getVehicleByHandle(handle) == all.get(3), "handle stable across sort");
+            check(fm.getHandle("V005") == -1 && fm.getModelName(fm.getModelCode("Volvo")).equals("Volvo"), "handle and model lookups");
+            check(fm.searchByType(FuelConsumable.class).size() == count(all, FuelConsumable.class), "FuelConsumable bucket size");
+            check(fm.searchByType(LandVehicle.class).size() == count(all, LandVehicle.class), "LandVehicle bucket size");
+            check(fm.getModelCount("Toyota") == (int) all.stream().filter(v -> "Toyota".equals(v.getModel())).count(), "Toyota model count");
+
+            double fuel = all.stream().mapToDouble(v -> ((FuelConsumable) v).getFuelLevel()).sum();
+            check(Math.abs(fm.getTotalFuelRemaining() - fuel) < 1e-6, "total fuel remaining");
+            double maxSpeed = all.stream().mapToDouble(Vehicle::getMaxSpeed).max().orElse(0);
+            check(fm.getFastestVehicle().getMaxSpeed() == maxSpeed, "fastest vehicle");
+            double mileage = all.stream().mapToDouble(Vehicle::getCurrentMileage).sum();
+            check(Math.abs(fm.getStatistics().getTotalMileage() - mileage) < 1e-6, "running total mileage");
+            check(fm.getStatistics().getVehiclesNeedingMaintenance() == fm.getVehiclesNeedingMaintenance().size(), "maintenance due count");
+
+            checkOrder(fm, all, FleetOrder.MILEAGE, Comparator.comparingDouble(Vehicle::getCurrentMileage));
+            checkOrder(fm, all, FleetOrder.SPEED, Comparator.comparingDouble(Vehicle::getMaxSpeed));
+            checkOrder(fm, all, FleetOrder.EFFICIENCY, Comparator.comparingDouble(Vehicle::calculateFuelEfficiency));
+            checkOrder(fm, all, FleetOrder.ID, Comparator.comparing(Vehicle::getId));
+
+            List<Vehicle> byMileage = new ArrayList<>(all);
+            byMileage.sort(Comparator.comparingDouble(Vehicle::getCurrentMileage).reversed().thenComparing(Vehicle::getId));
+            check(fm.topK(FleetMetric.MILEAGE, 5).equals(byMileage.subList(0, 5)), "top 5 by mileage");
+            List<Vehicle> bySpeed = new ArrayList<>(all);
+            bySpeed.sort(Comparator.comparingDouble(Vehicle::getMaxSpeed).thenComparing(Vehicle::getId));
+            check(fm.bottomK(FleetMetric.SPEED, 3).equals(bySpeed.subList(0, 3)), "bottom 3 by speed");
+
+            List<Vehicle> lowFuel = new ArrayList<>();
+            for (Vehicle v : all) {
+                if (((FuelConsumable) v).getFuelLevel() <= 20.0) {
+                    lowFuel.add(v);
+                }
+            }
+            lowFuel.sort(Comparator.comparingDouble((Vehicle v) -> ((FuelConsumable) v).getFuelLevel()).thenComparing(Vehicle::getId));
+            check(fm.findInRange(FleetMetric.FUEL, 0.0, 20.0, FuelConsumable.class).equals(lowFuel), "fuel range query");
+            check(fm.findInRange(FleetMetric.CARGO, 3000.0, 3000.0).size() == 1, "cargo range query");
+
+            int dueSoon = 0;
+            for (Vehicle v : all) {
+                if (((Maintainable) v).getKilometresUntilMaintenance() <= 500.0) {
+                    dueSoon++;
+                }
+            }
+            check(fm.getVehiclesDueWithin(500.0).size() == dueSoon, "due within 500 km");
+            ((Maintainable) all.get(0)).scheduleMaintenance();
+            check(fm.getVehiclesNeedingMaintenance().get(0) == all.get(0), "scheduled maintenance is most urgent");
+            FleetQuery heavyLand = new FleetQuery(FleetPredicate.ofType(LandVehicle.class)
+                    .and(FleetPredicate.atLeast(FleetMetric.SPEED, 100.0))
+                    .or(FleetPredicate.model("Boeing")))
+                    .orderBy(FleetOrder.SPEED, false).limit(4);
+            List<Vehicle> expected = new ArrayList<>();
+            for (Vehicle v : all) {
+                if ((v instanceof LandVehicle && v.getMaxSpeed() >= 100.0) || "Boeing".equals(v.getModel())) {
+                    expected.add(v);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(Vehicle::getMaxSpeed).thenComparing(Vehicle::getId).reversed());
+            check(fm.query(heavyLand).equals(expected.subList(0, 4)), "OR query ordered by speed");
+            FleetQuery volvo = new FleetQuery(FleetPredicate.model("Volvo").and(FleetPredicate.idStartsWith("V0")));
+            check(fm.explain(volvo).contains("model index") || fm.explain(volvo).contains("ID index"), "AND query uses an index");
+            for (Vehicle v : fm.query(volvo)) {
+                check(v instanceof Truck && v.getId().startsWith("V0"), "AND query result");
+            }
+            check(fm.query(new FleetQuery(FleetPredicate.between(FleetMetric.PASSENGERS, 1.0, 1000.0))).isEmpty(), "passenger range");
+
+            FleetSnapshot before = fm.takeSnapshot();
+            check(before.size() == all.size(), "snapshot size");
+            for (Vehicle v : all) {
+                VehicleState state = before.get(v.getId());
+                check(state != null && state.mileage() == v.getCurrentMileage(), "snapshot state");
+            }
+            BlockingQueue<List<FleetChange>> batches = new LinkedBlockingQueue<>();
+            fm.getChanges().subscribe(new Flow.Subscriber<List<FleetChange>>() {
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+                public void onNext(List<FleetChange> batch) {
+                    batches.add(batch);
+                }
+                public void onError(Throwable error) {
+                }
+                public void onComplete() {
+                }
+            });
+            fm.maintainAll();
+            check(fm.getVehiclesNeedingMaintenance().isEmpty(), "nothing due after maintainAll");
+            check(before.get(all.get(0).getId()).needsMaintenance(), "old snapshot unchanged");
+            check(fm.takeSnapshot().getVersion() > before.getVersion(), "snapshot version advanced");
+            fm.removeVehicle(all.get(1).getId());
+            check(before.contains(all.get(1).getId()) && !fm.takeSnapshot().contains(all.get(1).getId()), "snapshot removal");
+            List<FleetChange> maintained = batches.poll(5, TimeUnit.SECONDS);
+            check(maintained != null && maintained.get(0).getType() == FleetChangeType.UPDATED
+                    && maintained.get(0).getVehicleId().equals(all.get(0).getId()), "maintainAll published as one batch");
+            List<FleetChange> removed = batches.poll(5, TimeUnit.SECONDS);
+            check(removed != null && removed.size() == 1 && removed.get(0).getType() == FleetChangeType.REMOVED
+                    && removed.get(0).getVersion() == fm.takeSnapshot().getVersion(), "removal change");
+
+            System.out.println("All index assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("Index smoke test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void checkOrder(FleetManager fm, List<Vehicle> all, FleetOrder order, Comparator<Vehicle> key) {
+        List<Vehicle> expected = new ArrayList<>(all);
+        expected.sort(key.thenComparing(Vehicle::getId));
+        List<Vehicle> actual = new ArrayList<>();
+        for (Vehicle v : fm.orderedBy(order, true)) {
+            actual.add(v);
+        }
+        check(expected.equals(actual), "ordered view " + order);
+    }
+
+    private static int count(List<Vehicle> all, Class<?> type) {
+        return (int) all.stream().filter(type::isInstance).count();
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
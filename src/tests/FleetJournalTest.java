@@ -0,0 +1,285 @@
+package tests;
+
+import fleet.ConcurrentFleetManager;
+import fleet.FleetJournal;
+import fleet.FleetManager;
+import fleet.VehicleFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import vehicles.*;
+
+public class FleetJournalTest {
+
+    // Recovers fleets from journals after a simulated crash, from journals
+    // with a damaged or torn tail, from a checkpoint that stopped after
+    // setting the old journal aside, and after many background checkpoints.
+    // Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("fleet-journal-test");
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkReplayAfterCrash(dir.resolve("crash"));
+            checkDamagedJournals(dir.resolve("damaged"));
+            checkInterruptedCheckpoint(dir.resolve("interrupted"));
+            checkBackgroundCheckpoints(dir.resolve("background"));
+
+            System.setOut(out);
+            System.out.println("All journal assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Journal test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    // Copy the files as they are on disk after sync(), as a crash would leave
+    // them, and recover a new manager from the copies.
+    private static void checkReplayAfterCrash(Path dir) throws Exception {
+        Files.createDirectories(dir);
+        FleetManager fm = new FleetManager();
+        FleetJournal journal = FleetJournal.open(fm, dir.resolve("fleet.csv").toString(),
+                dir.resolve("fleet.journal").toString(), Long.MAX_VALUE);
+        Car car = new Car("C1", "Toyota", 120, 0.0, 4);
+        car.refuel(50.0);
+        fm.addVehicle(car);
+        Truck truck = new Truck("T1", "Volvo", 90, 1000.0, 6);
+        fm.addVehicle(truck);
+        fm.addVehicle(new Bus("B1", "Mercedes", 80, 0.0, 6));
+        fm.addVehicle(new CargoShip("S1", "OldSail", 20, 500.0, true));
+        Airplane plane = new Airplane("A1", "Boeing", 900, 0.0, 35000.0);
+        plane.refuel(1000.0);
+        plane.boardPassengers(120);
+        fm.addVehicle(plane);
+        // An empty tank, and maintenance state the CSV row cannot carry
+        fm.addVehicle(new Car("C2", "Honda", 110, 0.0, 4));
+        car.move(30.0);
+        car.scheduleMaintenance();
+        truck.setMileage(20000.0);
+        truck.performMaintenance();
+        plane.move(100.0);
+        fm.removeVehicle("B1");
+        journal.sync();
+
+        Path crashed = dir.resolve("crashed");
+        Files.createDirectories(crashed);
+        for (String name : new String[] {"fleet.csv", "fleet.journal"}) {
+            Files.copy(dir.resolve(name), crashed.resolve(name));
+        }
+        journal.close();
+
+        FleetManager recovered = recover(crashed);
+        checkSameFleet(recovered, fm, "after crash");
+        check(recovered.getVehicleById("B1") == null, "removed vehicle stays removed");
+        check(recovered.getVehicleById("T1").getMileageAtLastMaintenance() == 20000.0, "last service restored");
+        check(recovered.getVehicleById("C1").isMaintenanceScheduled(), "scheduled service restored");
+
+        // Recovery checkpointed the replayed journal; the maintenance state
+        // must survive that checkpoint too
+        FleetManager again = recover(crashed);
+        checkSameFleet(again, fm, "after recovering twice");
+    }
+
+    // A line whose checksum does not match, and a last line without its line
+    // break, end the valid part of a journal.
+    private static void checkDamagedJournals(Path dir) throws Exception {
+        Files.createDirectories(dir);
+        String good = line("PUT,Car,X1,Toyota,120.0,0.0,4,10.0,1");
+        String bad = line("PUT,Car,X2,Toyota,120.0,0.0,4,10.0,1").replace("X2", "X9");
+        String after = line("PUT,Car,X3,Toyota,120.0,0.0,4,10.0,1");
+        Files.write(dir.resolve("fleet.journal"), (good + bad + after).getBytes(StandardCharsets.UTF_8));
+        FleetManager fm = recover(dir);
+        check(fm.getVehicleById("X1") != null, "record before a bad checksum replayed");
+        check(fm.getVehicleById("X9") == null && fm.getVehicleById("X2") == null, "bad checksum rejected");
+        check(fm.getVehicleById("X3") == null, "records after a bad checksum ignored");
+
+        Path torn = dir.resolve("torn");
+        Files.createDirectories(torn);
+        String whole = line("PUT,Truck,Y1,Volvo,90.0,0.0,6,20.0,100.0");
+        String cut = line("PUT,Truck,Y2,Volvo,90.0,0.0,6,20.0,100.0");
+        Files.write(torn.resolve("fleet.journal"),
+                (whole + cut.substring(0, cut.length() - 1)).getBytes(StandardCharsets.UTF_8));
+        fm = recover(torn);
+        check(fm.getVehicleById("Y1") != null, "record before a torn tail replayed");
+        check(fm.getVehicleById("Y2") == null, "torn tail rejected");
+        check(fm.getFleetSnapshot().size() == 1, "fleet after a torn tail");
+    }
+
+    // A checkpoint that fails after rotating leaves the old journal behind;
+    // the next rotation appends to it and recovery replays both in order.
+    private static void checkInterruptedCheckpoint(Path dir) throws Exception {
+        Files.createDirectories(dir);
+        Path snapshot = dir.resolve("fleet.csv");
+        FleetManager seed = new FleetManager();
+        Car seeded = new Car("V1", "Toyota", 120, 0.0, 4);
+        seeded.refuel(5.0);
+        seed.addVehicle(seeded);
+        seed.saveToFile(snapshot.toString());
+        Files.write(dir.resolve("fleet.journal.old"), (line("PUT,Car,V1,Toyota,120.0,0.0,4,10.0,0")
+                + line("PUT,Car,V2,Toyota,120.0,0.0,4,10.0,0")).getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("fleet.journal"), (line("PUT,Car,V1,Toyota,120.0,0.0,4,20.0,0")
+                + line("DEL,V2") + line("MNT,V1,0.0,true")).getBytes(StandardCharsets.UTF_8));
+
+        // The snapshot cannot be written while its temporary path is taken,
+        // so the checkpoint in open() stops after the rotation
+        Path blocker = dir.resolve("fleet.csv.tmp");
+        Files.createDirectories(blocker.resolve("in-the-way"));
+        try {
+            recover(dir);
+            check(false, "checkpoint into a blocked path fails");
+        } catch (IOException expected) {
+            // the old journal now holds both journals
+        }
+        check(Files.exists(dir.resolve("fleet.journal.old")), "old journal kept after a failed checkpoint");
+        deleteRecursively(blocker);
+
+        FleetManager fm = recover(dir);
+        Vehicle v1 = fm.getVehicleById("V1");
+        check(v1 != null && ((Car) v1).getFuelLevel() == 20.0, "newest record wins");
+        check(v1.isMaintenanceScheduled(), "maintenance record replayed");
+        check(fm.getVehicleById("V2") == null, "removal in the newer journal replayed");
+        check(!Files.exists(dir.resolve("fleet.journal.old")), "old journal deleted after the checkpoint");
+    }
+
+    // With a tiny threshold nearly every operation checkpoints; snapshots are
+    // written on the journal's thread while the fleet keeps changing, from
+    // one thread on a FleetManager and from several on a
+    // ConcurrentFleetManager. The recovered fleet must match, and the
+    // checkpoints neither print nor fail.
+    private static void checkBackgroundCheckpoints(Path dir) throws Exception {
+        PrintStream quiet = System.out;
+        PrintStream err = System.err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        System.setErr(new PrintStream(errors));
+        FleetManager single = new FleetManager();
+        ConcurrentFleetManager shared = new ConcurrentFleetManager();
+        try {
+            churn(single, dir.resolve("single"), 1);
+            churn(shared, dir.resolve("shared"), 4);
+        } finally {
+            System.setOut(quiet);
+            System.setErr(err);
+        }
+        check(!printed.toString().contains("Fleet saved"), "checkpoints save quietly");
+        check(errors.size() == 0, "checkpoints ran cleanly: " + errors);
+
+        checkSameFleet(recover(dir.resolve("single")), single, "after background checkpoints");
+        checkSameFleet(recover(dir.resolve("shared")), shared, "after concurrent background checkpoints");
+    }
+
+    private static void churn(FleetManager fm, Path dir, int threads) throws Exception {
+        Files.createDirectories(dir);
+        FleetJournal journal = FleetJournal.open(fm, dir.resolve("fleet.csv").toString(),
+                dir.resolve("fleet.journal").toString(), 256);
+        List<Thread> workers = new ArrayList<>();
+        AtomicReference<Exception> failed = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "K" + t + "-";
+            workers.add(new Thread(() -> {
+                try {
+                    for (int step = 0; step < 2000; step++) {
+                        String id = prefix + step % 40;
+                        Car car = (Car) fm.getVehicleById(id);
+                        if (car == null || step % 97 == 0) {
+                            if (car != null) {
+                                fm.removeVehicle(id);
+                            }
+                            car = new Car(id, "Toyota", 120, step, 4);
+                            fm.addVehicle(car);
+                        }
+                        car.refuel(1.0);
+                        car.setMileage(step);
+                        if (step % 7 == 0) {
+                            car.scheduleMaintenance();
+                        }
+                    }
+                } catch (Exception e) {
+                    failed.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        journal.close();
+        if (failed.get() != null) {
+            throw failed.get();
+        }
+        check(Files.readString(dir.resolve("fleet.csv")).contains("K0-"), "background checkpoint wrote the snapshot");
+    }
+
+    private static FleetManager recover(Path dir) throws IOException {
+        FleetManager fm = new FleetManager();
+        FleetJournal journal = FleetJournal.open(fm, dir.resolve("fleet.csv").toString(),
+                dir.resolve("fleet.journal").toString(), Long.MAX_VALUE);
+        journal.close();
+        return fm;
+    }
+
+    // Same vehicles with the same CSV rows and maintenance bookkeeping
+    private static void checkSameFleet(FleetManager actual, FleetManager expected, String when) {
+        List<Vehicle> a = sorted(actual.getFleetSnapshot());
+        List<Vehicle> e = sorted(expected.getFleetSnapshot());
+        check(a.size() == e.size(), "fleet size " + when + ": " + a.size() + " vs " + e.size());
+        for (int i = 0; i < e.size(); i++) {
+            String row = VehicleFactory.toCsvRow(e.get(i));
+            check(VehicleFactory.toCsvRow(a.get(i)).equals(row), "row " + row + " " + when);
+            check(a.get(i).getMileageAtLastMaintenance() == e.get(i).getMileageAtLastMaintenance()
+                    && a.get(i).isMaintenanceScheduled() == e.get(i).isMaintenanceScheduled(),
+                    "maintenance state of " + e.get(i).getId() + " " + when);
+        }
+    }
+
+    private static List<Vehicle> sorted(List<Vehicle> vehicles) {
+        List<Vehicle> copy = new ArrayList<>(vehicles);
+        copy.sort(Comparator.comparing(Vehicle::getId));
+        return copy;
+    }
+
+    // One journal line: CRC32 of the record in hex, a space, the record
+    private static String line(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue()) + " " + record + "\n";
+    }
+
+    private static void deleteRecursively(Path root) {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Could not clean up " + root + ": " + e.getMessage());
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
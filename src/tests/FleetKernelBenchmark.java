@@ -0,0 +1,122 @@
+package tests;
+
+import fleet.FleetKernels;
+import fleet.FleetManager;
+import fleet.JourneyEstimates;
+import java.util.Random;
+import vehicles.*;
+
+public class FleetKernelBenchmark {
+
+    // Times the scalar and vector fleet kernels over synthetic columns and
+    // checks that both agree with Vehicle.estimateJourneyTime. Run with
+    //   java --add-modules jdk.incubator.vector -cp bin tests.FleetKernelBenchmark [vehicles] [rounds]
+    // Without the module only the scalar kernels are timed.
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        if (!checkAgainstVehicles()) {
+            System.exit(2);
+        }
+
+        Random random = new Random(42);
+        double[] efficiency = new double[n];
+        double[] maxSpeed = new double[n];
+        double[] factor = new double[n];
+        double[] factors = {1.1, 0.95, 1.15};
+        for (int i = 0; i < n; i++) {
+            // About one vehicle in ten (sail ships) has no fuel efficiency
+            efficiency[i] = random.nextInt(10) == 0 ? 0 : 4 + random.nextDouble() * 11;
+            maxSpeed[i] = 20 + random.nextDouble() * 880;
+            factor[i] = factors[random.nextInt(3)];
+        }
+        double[] hours = new double[n];
+
+        FleetKernels scalar = FleetKernels.scalar();
+        FleetKernels vector = FleetKernels.vector();
+        System.out.println("Vehicles: " + n + ", rounds: " + rounds);
+        double[] scalarTimes = time(scalar, efficiency, maxSpeed, factor, hours, n, rounds);
+        report(scalar, scalarTimes, null);
+        if (vector == null) {
+            System.out.println("Vector kernels unavailable (run with --add-modules jdk.incubator.vector).");
+            return;
+        }
+        double[] vectorTimes = time(vector, efficiency, maxSpeed, factor, hours, n, rounds);
+        report(vector, vectorTimes, scalarTimes);
+
+        double a = scalar.totalFuelConsumption(500, efficiency, n);
+        double b = vector.totalFuelConsumption(500, efficiency, n);
+        System.out.printf("Total fuel: scalar %.6f, vector %.6f%n", a, b);
+        if (Math.abs(a - b) > 1e-9 * Math.abs(a)) {
+            System.err.println("Scalar and vector totals disagree.");
+            System.exit(2);
+        }
+    }
+
+    // Best time in milliseconds for the total-consumption and ETA kernels.
+    private static double[] time(FleetKernels kernels, double[] efficiency, double[] maxSpeed, double[] factor,
+            double[] hours, int n, int rounds) {
+        double bestTotal = Double.MAX_VALUE;
+        double bestEta = Double.MAX_VALUE;
+        double sink = 0;
+        // The first rounds double as JIT warm-up
+        for (int r = 0; r < rounds + 5; r++) {
+            long start = System.nanoTime();
+            sink += kernels.totalFuelConsumption(100 + r, efficiency, n);
+            long middle = System.nanoTime();
+            kernels.journeyTimes(100 + r, maxSpeed, factor, n, hours);
+            long end = System.nanoTime();
+            sink += hours[r % n];
+            if (r >= 5) {
+                bestTotal = Math.min(bestTotal, (middle - start) / 1e6);
+                bestEta = Math.min(bestEta, (end - middle) / 1e6);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return new double[]{bestTotal, bestEta};
+    }
+
+    private static void report(FleetKernels kernels, double[] times, double[] baseline) {
+        String line = String.format("%-20s total fuel %8.3f ms   journey times %8.3f ms", kernels.name(), times[0], times[1]);
+        if (baseline != null) {
+            line += String.format("   speedup %.2fx / %.2fx", baseline[0] / times[0], baseline[1] / times[1]);
+        }
+        System.out.println(line);
+    }
+
+    // FleetManager.estimateJourneyTimes must agree with the per-vehicle virtual calls.
+    private static boolean checkAgainstVehicles() throws Exception {
+        FleetManager fm = new FleetManager();
+        Car car = new Car("C1", "Toyota", 120, 0, 4);
+        car.refuel(50);
+        fm.addVehicle(car);
+        Airplane plane = new Airplane("A1", "Boeing", 850, 0, 35000);
+        plane.refuel(5000);
+        fm.addVehicle(plane);
+        fm.addVehicle(new CargoShip("S1", "Maersk", 35, 0, true));
+        Truck truck = new Truck("T1", "Volvo", 90, 0, 6);
+        truck.loadCargo(4000);
+        fm.addVehicle(truck);
+
+        JourneyEstimates estimates = fm.estimateJourneyTimes(250);
+        double expectedFuel = 0;
+        for (int i = 0; i < estimates.size(); i++) {
+            Vehicle v = estimates.getVehicle(i);
+            if (estimates.getHours(i) != v.estimateJourneyTime(250)) {
+                System.err.println("Journey time mismatch for " + v.getId());
+                return false;
+            }
+            if (v.calculateFuelEfficiency() > 0) {
+                expectedFuel += 250 / v.calculateFuelEfficiency();
+            }
+        }
+        if (Math.abs(estimates.getTotalFuelConsumption() - expectedFuel) > 1e-9) {
+            System.err.println("Total fuel mismatch: " + estimates.getTotalFuelConsumption() + " vs " + expectedFuel);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package tests;
+
+import fleet.FleetManager;
+import interfaces.PassengerCarrier;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import vehicles.*;
+
+public class FleetLiveViewTest {
+
+    // Takes the live type and model views of a FleetManager once and
+    // checks them against a fresh pass over the fleet after every kind of
+    // change: adds, removes that empty a bucket, sorts and a load from
+    // file. Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkTypeViews();
+            checkModelViews();
+
+            System.setOut(out);
+            System.out.println("All live view assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Live view test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void checkTypeViews() throws Exception {
+        FleetManager fm = new FleetManager();
+        Collection<Vehicle> cars = fm.getTypeView(Car.class);
+        Collection<Vehicle> carriers = fm.getTypeView(PassengerCarrier.class);
+        Collection<Vehicle> planes = fm.getTypeView(Airplane.class);
+        checkTypeView(fm, cars, Car.class, "empty fleet");
+
+        fm.addVehicle(new Car("C2", "Toyota", 120, 0.0, 4));
+        fm.addVehicle(new Bus("B1", "Mercedes", 80, 0.0, 6));
+        checkTypeView(fm, cars, Car.class, "after adds");
+
+        fm.sortFleetById();
+        fm.addVehicle(new Car("C1", "Honda", 130, 0.0, 4));
+        fm.addVehicle(new Car("C3", "Toyota", 110, 0.0, 4));
+        checkTypeView(fm, cars, Car.class, "after a sort and two adds");
+        check(cars.size() == 3, "cars view size after a sort: " + cars.size());
+
+        fm.sortFleetBySpeed(true);
+        checkTypeView(fm, cars, Car.class, "after sorting by speed");
+        checkTypeView(fm, carriers, PassengerCarrier.class, "interface view after sorting by speed");
+
+        fm.addVehicle(new Airplane("P1", "Boeing", 900, 0.0, 30000.0));
+        fm.removeVehicle("P1");
+        checkTypeView(fm, planes, Airplane.class, "after its bucket was emptied");
+        fm.addVehicle(new Airplane("P2", "Airbus", 880, 0.0, 30000.0));
+        checkTypeView(fm, planes, Airplane.class, "after its bucket was created again");
+        check(planes.size() == 1, "planes view after re-adding");
+
+        File file = File.createTempFile("fleet-views", ".csv");
+        try {
+            FleetManager other = new FleetManager();
+            other.addVehicle(new Car("L1", "Skoda", 100, 0.0, 4));
+            other.addVehicle(new Truck("L2", "Volvo", 90, 0.0, 6));
+            other.saveToFile(file.getPath());
+            fm.loadFromFile(file.getPath());
+        } finally {
+            file.delete();
+        }
+        checkTypeView(fm, cars, Car.class, "after a load");
+        checkTypeView(fm, planes, Airplane.class, "after a load without planes");
+        check(cars.size() == 1 && cars.iterator().next().getId().equals("L1"), "cars view after a load");
+    }
+
+    private static void checkModelViews() throws Exception {
+        FleetManager fm = new FleetManager();
+        Set<String> models = fm.getDistinctModels();
+        Collection<Vehicle> zeta = fm.getVehiclesByModel("Zeta");
+        Collection<Vehicle> alpha = fm.getVehiclesByModel("Alpha");
+
+        fm.addVehicle(new Car("Z2", "Zeta", 120, 0.0, 4));
+        checkModelViews(fm, models, zeta, alpha, "after an add");
+
+        fm.sortFleetByModel();
+        fm.addVehicle(new Truck("A1", "Alpha", 90, 0.0, 6));
+        fm.addVehicle(new Bus("Z1", "Zeta", 80, 0.0, 6));
+        checkModelViews(fm, models, zeta, alpha, "after a sort and two adds");
+        check(models.equals(new TreeSet<>(List.of("Alpha", "Zeta"))) && zeta.size() == 2, "models after a sort: " + models);
+
+        fm.sortFleetById(false);
+        checkModelViews(fm, models, zeta, alpha, "after sorting by ID");
+
+        fm.removeVehicle("A1");
+        checkModelViews(fm, models, zeta, alpha, "after the last Alpha was removed");
+        fm.addVehicle(new Airplane("A2", "Alpha", 900, 0.0, 30000.0));
+        checkModelViews(fm, models, zeta, alpha, "after Alpha was added again");
+
+        File file = File.createTempFile("fleet-models", ".csv");
+        try {
+            FleetManager other = new FleetManager();
+            other.addVehicle(new Car("L1", "Alpha", 100, 0.0, 4));
+            other.addVehicle(new Truck("L2", "Beta", 90, 0.0, 6));
+            other.saveToFile(file.getPath());
+            fm.loadFromFile(file.getPath());
+        } finally {
+            file.delete();
+        }
+        checkModelViews(fm, models, zeta, alpha, "after a load");
+        check(models.equals(new TreeSet<>(List.of("Alpha", "Beta"))) && zeta.isEmpty() && alpha.size() == 1, "models after a load");
+    }
+
+    private static void checkModelViews(FleetManager fm, Set<String> models, Collection<Vehicle> zeta,
+            Collection<Vehicle> alpha, String when) {
+        Set<String> expected = new TreeSet<>();
+        for (Vehicle v : fm.getFleetSnapshot()) {
+            expected.add(v.getModel());
+        }
+        check(new ArrayList<>(models).equals(new ArrayList<>(expected)), "distinct models " + when + ": " + models);
+        checkModelView(fm, zeta, "Zeta", when);
+        checkModelView(fm, alpha, "Alpha", when);
+    }
+
+    // The view holds the fleet's vehicles of the model, in fleet order
+    private static void checkModelView(FleetManager fm, Collection<Vehicle> view, String model, String when) {
+        List<Vehicle> expected = new ArrayList<>();
+        for (Vehicle v : fm.getFleetSnapshot()) {
+            if (model.equals(v.getModel())) {
+                expected.add(v);
+            }
+        }
+        check(new ArrayList<>(view).equals(expected) && view.size() == expected.size(), model + " view " + when);
+    }
+
+    // The view holds the fleet's instances of the type, in fleet order
+    private static void checkTypeView(FleetManager fm, Collection<Vehicle> view, Class<?> type, String when) {
+        List<Vehicle> expected = new ArrayList<>();
+        for (Vehicle v : fm.getFleetSnapshot()) {
+            if (type.isInstance(v)) {
+                expected.add(v);
+            }
+        }
+        check(new ArrayList<>(view).equals(expected) && view.size() == expected.size(),
+                type.getSimpleName() + " view " + when);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
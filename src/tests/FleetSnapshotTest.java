@@ -0,0 +1,151 @@
+package tests;
+
+import fleet.ConcurrentFleetManager;
+import fleet.FleetManager;
+import fleet.FleetSnapshot;
+import fleet.VehicleState;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import vehicles.*;
+
+public class FleetSnapshotTest {
+
+    // Checks FleetManager snapshots with IDs whose hash codes collide ("Aa"
+    // and "BB" hash alike, so do all strings built from those blocks) mixed
+    // with ordinary IDs, through adds, updates and removals, and that a
+    // journey reaches the snapshot as a whole. Runs as a normal main program;
+    // exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            List<String> colliding = new ArrayList<>();
+            for (int bits = 0; bits < 64; bits++) {
+                StringBuilder id = new StringBuilder();
+                for (int block = 0; block < 6; block++) {
+                    id.append((bits >> block & 1) == 0 ? "Aa" : "BB");
+                }
+                colliding.add(id.toString());
+            }
+            check(colliding.get(0).hashCode() == colliding.get(63).hashCode(), "test IDs collide");
+
+            FleetManager fm = new FleetManager();
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                // Interleave so the ordinary IDs land next to and after the collisions
+                if (i % 40 == 0 && i / 40 < colliding.size()) {
+                    ids.add(colliding.get(i / 40));
+                }
+                ids.add("V" + i);
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                fm.addVehicle(new Car(ids.get(i), "Toyota", 100, i, 4));
+            }
+            FleetSnapshot full = fm.takeSnapshot();
+            checkContents(full, new HashSet<>(ids), "after adds");
+
+            for (String id : colliding.subList(0, 20)) {
+                fm.getVehicleById(id).setMileage(-1.0);
+            }
+            FleetSnapshot updated = fm.takeSnapshot();
+            for (String id : colliding.subList(0, 20)) {
+                check(updated.get(id).mileage() == -1.0, "updated colliding state " + id);
+                check(full.get(id).mileage() >= 0.0, "older snapshot keeps colliding state " + id);
+            }
+            checkContents(updated, new HashSet<>(ids), "after updates");
+
+            // Remove all but one colliding ID, and many ordinary IDs, so the
+            // collision nodes shrink back to plain leaves
+            Set<String> remaining = new HashSet<>(ids);
+            for (String id : colliding.subList(1, colliding.size())) {
+                fm.removeVehicle(id);
+                remaining.remove(id);
+            }
+            for (int i = 0; i < 3000; i += 3) {
+                fm.removeVehicle("V" + i);
+                remaining.remove("V" + i);
+            }
+            FleetSnapshot shrunk = fm.takeSnapshot();
+            checkContents(shrunk, remaining, "after removals");
+            checkContents(full, new HashSet<>(ids), "older snapshot after removals");
+            for (String id : colliding.subList(1, colliding.size())) {
+                check(!shrunk.contains(id), "removed colliding ID " + id);
+            }
+            fm.removeVehicle(colliding.get(0));
+            remaining.remove(colliding.get(0));
+            checkContents(fm.takeSnapshot(), remaining, "after removing the last colliding ID");
+            checkJourneysAreAtomic();
+
+            System.setOut(out);
+            System.out.println("All snapshot assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Snapshot test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // A reader polling snapshots while another thread drives a car must never
+    // see a journey's mileage without its fuel or the other way round: fuel
+    // plus mileage / efficiency stays constant across whole journeys.
+    private static void checkJourneysAreAtomic() throws Exception {
+        ConcurrentFleetManager fm = new ConcurrentFleetManager();
+        Car car = new Car("J1", "Toyota", 120, 0.0, 4);
+        car.refuel(100000.0);
+        fm.addVehicle(car);
+        long before = fm.takeSnapshot().getVersion();
+        car.move(15.0);
+        check(fm.takeSnapshot().getVersion() == before + 1, "one snapshot version per journey");
+        VehicleState moved = fm.takeSnapshot().get("J1");
+        check(moved.mileage() == 15.0 && moved.fuelLevel() == 99999.0, "journey visible as a whole");
+
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread driver = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20000; i++) {
+                    car.move(15.0);
+                }
+            } catch (Exception e) {
+                torn.compareAndSet(null, "driver failed: " + e.getMessage());
+            }
+        });
+        driver.start();
+        while (driver.isAlive()) {
+            VehicleState state = fm.takeSnapshot().get("J1");
+            if (Math.abs(state.fuelLevel() + state.mileage() / 15.0 - 100000.0) > 1e-6) {
+                torn.compareAndSet(null, "torn state: mileage " + state.mileage() + ", fuel " + state.fuelLevel());
+            }
+        }
+        driver.join();
+        check(torn.get() == null, String.valueOf(torn.get()));
+    }
+
+    // The snapshot holds exactly the given IDs, by lookup and by iteration
+    private static void checkContents(FleetSnapshot snapshot, Set<String> expected, String when) {
+        check(snapshot.size() == expected.size(), "snapshot size " + when);
+        for (String id : expected) {
+            VehicleState state = snapshot.get(id);
+            check(state != null && state.id().equals(id), "lookup of " + id + " " + when);
+        }
+        Set<String> seen = new HashSet<>();
+        for (VehicleState state : snapshot) {
+            check(expected.contains(state.id()) && seen.add(state.id()), "iteration yields " + state.id() + " " + when);
+        }
+        check(seen.size() == expected.size(), "iteration count " + when);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
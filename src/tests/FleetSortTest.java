@@ -0,0 +1,187 @@
+package tests;
+
+import fleet.FleetManager;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import vehicles.*;
+
+public class FleetSortTest {
+
+    // The order a sort must produce from the current fleet order
+    private interface Expected {
+        void sort(List<Vehicle> vehicles);
+    }
+
+    // A sortFleetBy* call on the manager
+    private interface Sort {
+        void run(FleetManager fm);
+    }
+
+    // Runs every sortFleetBy* method, both directions and the defaults,
+    // and checks the resulting fleet order against a stable List.sort with
+    // the comparator the method is specified by: Vehicle.compareTo for the
+    // default efficiency sort (ties by ID), Comparator.comparingDouble for
+    // the numeric keys, nullsLast for models and IDs, reversed() for
+    // descending. The fleets have many equal keys, signed zeros, NaN and a
+    // vehicle without a model; a large fleet takes the parallel sort path.
+    // Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkSorts(fleet(60, new Random(1)), new Random(2), "small fleet");
+            checkSorts(fleet(10000, new Random(3)), new Random(4), "large fleet");
+            checkTies();
+
+            System.setOut(out);
+            System.out.println("All sort assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Sort test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static final String[] MODELS = {"Toyota", "Volvo", "Mercedes", "Boeing", "Maersk", "Alpha", "Zeta"};
+    private static final double[] MILEAGES = {0.0, -0.0, 1.5, 100.0, 1e7, Double.NaN, 42.0};
+
+    // Vehicles of every type in random order, with few distinct keys
+    private static FleetManager fleet(int size, Random random) throws Exception {
+        FleetManager fm = new FleetManager();
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String id = "V" + random.nextInt(size * 10) + "-" + i;
+            String model = MODELS[random.nextInt(MODELS.length)];
+            double speed = 50 + random.nextInt(8) * 10;
+            double mileage = MILEAGES[random.nextInt(MILEAGES.length)];
+            switch (random.nextInt(5)) {
+                case 0:
+                    vehicles.add(new Car(id, model, speed, mileage, 4));
+                    break;
+                case 1: {
+                    Truck truck = new Truck(id, model, speed, mileage, 6);
+                    // Over half the capacity lowers the efficiency
+                    if (random.nextBoolean()) {
+                        truck.loadCargo(4000.0);
+                    }
+                    vehicles.add(truck);
+                    break;
+                }
+                case 2:
+                    vehicles.add(new Bus(id, model, speed, mileage, 6));
+                    break;
+                case 3:
+                    vehicles.add(new Airplane(id, model, speed * 10, mileage, 30000.0));
+                    break;
+                default:
+                    vehicles.add(new CargoShip(id, model, speed / 2, mileage, random.nextBoolean()));
+            }
+        }
+        vehicles.add(new Car("NOMODEL", null, 70, 42.0, 4));
+        Collections.shuffle(vehicles, random);
+        for (Vehicle v : vehicles) {
+            fm.addVehicle(v);
+        }
+        return fm;
+    }
+
+    private static void checkSorts(FleetManager fm, Random random, String what) {
+        Comparator<Vehicle> byModel = Comparator.comparing(Vehicle::getModel, Comparator.nullsLast(String::compareTo));
+        Comparator<Vehicle> bySpeed = Comparator.comparingDouble(Vehicle::getMaxSpeed);
+        Comparator<Vehicle> byMileage = Comparator.comparingDouble(Vehicle::getCurrentMileage);
+        Comparator<Vehicle> byEfficiency = Comparator.comparingDouble(Vehicle::calculateFuelEfficiency);
+        Comparator<Vehicle> byId = Comparator.comparing(Vehicle::getId, Comparator.nullsLast(String::compareTo));
+
+        List<String> names = new ArrayList<>();
+        List<Sort> sorts = new ArrayList<>();
+        List<Expected> expected = new ArrayList<>();
+        add(names, sorts, expected, "efficiency default", FleetManager::sortFleetByEfficiency, Collections::sort);
+        add(names, sorts, expected, "efficiency ascending", m -> m.sortFleetByEfficiency(true), l -> l.sort(byEfficiency));
+        add(names, sorts, expected, "efficiency descending", m -> m.sortFleetByEfficiency(false), l -> l.sort(byEfficiency.reversed()));
+        add(names, sorts, expected, "model default", FleetManager::sortFleetByModel, l -> l.sort(byModel));
+        add(names, sorts, expected, "model ascending", m -> m.sortFleetByModel(true), l -> l.sort(byModel));
+        add(names, sorts, expected, "model descending", m -> m.sortFleetByModel(false), l -> l.sort(byModel.reversed()));
+        add(names, sorts, expected, "speed default", FleetManager::sortFleetBySpeed, l -> l.sort(bySpeed.reversed()));
+        add(names, sorts, expected, "speed ascending", m -> m.sortFleetBySpeed(true), l -> l.sort(bySpeed));
+        add(names, sorts, expected, "speed descending", m -> m.sortFleetBySpeed(false), l -> l.sort(bySpeed.reversed()));
+        add(names, sorts, expected, "mileage default", FleetManager::sortFleetByMileage, l -> l.sort(byMileage.reversed()));
+        add(names, sorts, expected, "mileage ascending", m -> m.sortFleetByMileage(true), l -> l.sort(byMileage));
+        add(names, sorts, expected, "mileage descending", m -> m.sortFleetByMileage(false), l -> l.sort(byMileage.reversed()));
+        add(names, sorts, expected, "ID default", FleetManager::sortFleetById, l -> l.sort(byId));
+        add(names, sorts, expected, "ID ascending", m -> m.sortFleetById(true), l -> l.sort(byId));
+        add(names, sorts, expected, "ID descending", m -> m.sortFleetById(false), l -> l.sort(byId.reversed()));
+
+        // Each sort once in turn, then in random order, so equal keys start out in many different orders
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < sorts.size(); i++) {
+                int j = round == 0 ? i : random.nextInt(sorts.size());
+                List<Vehicle> before = fm.getFleetSnapshot();
+                expected.get(j).sort(before);
+                sorts.get(j).run(fm);
+                checkOrder(fm.getFleetSnapshot(), before, what + ", " + names.get(j) + " (round " + round + ")");
+            }
+        }
+    }
+
+    private static void add(List<String> names, List<Sort> sorts, List<Expected> expected, String name, Sort sort, Expected order) {
+        names.add(name);
+        sorts.add(sort);
+        expected.add(order);
+    }
+
+    // Equal keys keep their order, except in the default efficiency sort,
+    // which breaks ties by ID; the vehicle without a model sorts last
+    // ascending and first descending
+    private static void checkTies() throws Exception {
+        FleetManager fm = new FleetManager();
+        fm.addVehicle(new Car("C", "Toyota", 100, 5.0, 4));
+        fm.addVehicle(new Car("A", null, 100, 5.0, 4));
+        fm.addVehicle(new Bus("D", "Toyota", 100, 5.0, 6));
+        fm.addVehicle(new Car("B", "Honda", 100, 5.0, 4));
+
+        fm.sortFleetByEfficiency();
+        checkIds(fm, new String[] {"A", "B", "C", "D"}, "efficiency ties by ID");
+        fm.sortFleetByEfficiency(true);
+        checkIds(fm, new String[] {"D", "A", "B", "C"}, "ascending efficiency keeps equal cars in order");
+        fm.sortFleetBySpeed(false);
+        checkIds(fm, new String[] {"D", "A", "B", "C"}, "equal speeds keep their order");
+        fm.sortFleetByMileage(true);
+        checkIds(fm, new String[] {"D", "A", "B", "C"}, "equal mileages keep their order");
+        fm.sortFleetByModel(true);
+        checkIds(fm, new String[] {"B", "D", "C", "A"}, "model ascending, no model last");
+        fm.sortFleetByModel(false);
+        checkIds(fm, new String[] {"A", "D", "C", "B"}, "model descending, no model first");
+    }
+
+    private static void checkIds(FleetManager fm, String[] ids, String what) {
+        List<String> actual = new ArrayList<>();
+        for (Vehicle v : fm.getFleetSnapshot()) {
+            actual.add(v.getId());
+        }
+        check(actual.equals(List.of(ids)), what + ": " + actual);
+    }
+
+    private static void checkOrder(List<Vehicle> actual, List<Vehicle> expected, String what) {
+        check(actual.size() == expected.size(), what + " size");
+        for (int i = 0; i < expected.size(); i++) {
+            if (actual.get(i) != expected.get(i)) {
+                check(false, what + " differs at " + i + ": " + actual.get(i).getId() + " vs " + expected.get(i).getId());
+            }
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package tests;
+
+import fleet.FleetManager;
+import fleet.FleetStatistics;
+import interfaces.FuelConsumable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import vehicles.*;
+
+public class FleetTotalsTest {
+
+    // Drives the running fleet totals through many state changes and vehicle
+    // churn, then checks them against sums recomputed from the vehicles. Runs
+    // as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            Random random = new Random(42);
+            FleetManager fm = new FleetManager();
+            // Vehicles print on add/remove/move; keep the churn quiet
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (int i = 0; i < 300; i++) {
+                fm.addVehicle(newVehicle("V" + i, i, random));
+            }
+            List<Vehicle> all = fm.getFleetSnapshot();
+            for (int step = 0; step < 400_000; step++) {
+                Vehicle v = all.get(random.nextInt(all.size()));
+                v.setMileage(random.nextDouble() * 1e7);
+                if (v instanceof FuelConsumable) {
+                    ((FuelConsumable) v).refuel(random.nextDouble() * 97.3 + 0.01);
+                }
+            }
+            for (int step = 0; step < 20_000; step++) {
+                Vehicle v = all.get(random.nextInt(all.size()));
+                fm.removeVehicle(v.getId());
+                Vehicle replacement = newVehicle(v.getId(), random.nextInt(5), random);
+                ((FuelConsumable) replacement).refuel(random.nextDouble() * 500.0 + 0.01);
+                fm.addVehicle(replacement);
+                all.set(all.indexOf(v), replacement);
+            }
+            System.setOut(out);
+
+            all = fm.getFleetSnapshot();
+            double mileage = 0;
+            double fuel = 0;
+            double consumption = 0;
+            for (Vehicle v : all) {
+                mileage += v.getCurrentMileage();
+                if (v instanceof FuelConsumable) {
+                    fuel += ((FuelConsumable) v).getFuelLevel();
+                    if (v.calculateFuelEfficiency() > 0) {
+                        consumption += 1000.0 / v.calculateFuelEfficiency();
+                    }
+                }
+            }
+            FleetStatistics stats = fm.getStatistics();
+            check(close(stats.getTotalMileage(), mileage), "total mileage " + stats.getTotalMileage() + " vs " + mileage);
+            check(close(fm.getTotalFuelRemaining(), fuel), "total fuel " + fm.getTotalFuelRemaining() + " vs " + fuel);
+            check(close(fm.getTotalFuelConsumption(1000.0), consumption),
+                    "fuel consumption " + fm.getTotalFuelConsumption(1000.0) + " vs " + consumption);
+
+            System.out.println("All running-total assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Running-total test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Vehicle newVehicle(String id, int kind, Random random) throws Exception {
+        double mileage = random.nextDouble() * 1e6;
+        switch (kind % 5) {
+            case 0:
+                return new Car(id, "Toyota", 120, mileage, 4);
+            case 1:
+                return new Truck(id, "Volvo", 90, mileage, 6);
+            case 2:
+                return new Bus(id, "Mercedes", 80, mileage, 6);
+            case 3:
+                return new Airplane(id, "Boeing", 900, mileage, 35000.0);
+            default:
+                return new CargoShip(id, "Maersk", 30, mileage, false);
+        }
+    }
+
+    // Relative error of at most 1e-12 against the recomputed sum
+    private static boolean close(double actual, double expected) {
+        return Math.abs(actual - expected) <= 1e-12 * Math.max(1.0, Math.abs(expected));
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
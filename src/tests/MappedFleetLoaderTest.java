@@ -0,0 +1,184 @@
+package tests;
+
+import fleet.FleetManager;
+import fleet.VehicleFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import vehicles.Vehicle;
+
+public class MappedFleetLoaderTest {
+
+    // The mapped loader cuts files into chunks of at least 1 MiB; with one
+    // thread the first cut is searched from this offset
+    private static final int FIRST_CUT = 1 << 20;
+    // Bytes the loader scans for a line break at a time
+    private static final int SCAN_WINDOW = 8192;
+    private static final String[] ENDINGS = {"\n", "\r\n", "\r"};
+
+    // Loads files with mixed \n, \r\n and \r line breaks, blank lines,
+    // malformed lines and duplicate IDs through the parallel, memory-mapped
+    // loadFromFile and checks it against the sequential load: same vehicles
+    // in the same order, same messages on System.err. A padded header moves
+    // every kind of line break, and the bytes next to it, onto the chunk
+    // boundary; one file puts a \r\n pair across the loader's scan window.
+    // Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            File file = File.createTempFile("fleet-mapped", ".csv");
+            try {
+                for (Map.Entry<String, Integer> cut : cutShifts().entrySet()) {
+                    Files.write(file.toPath(), fleetFile(cut.getValue(), FIRST_CUT + 40000, -1));
+                    checkSameLoad(file, single, "cut at " + cut.getKey());
+                }
+                Files.write(file.toPath(), fleetFile(0, 3 * FIRST_CUT, -1));
+                checkSameLoad(file, several, "several chunks");
+
+                // The long line's \r is the last byte of the first scan
+                // window, which starts one byte before the cut
+                byte[] straddling = fleetFile(0, FIRST_CUT + 40000, FIRST_CUT - 1 + SCAN_WINDOW - 1);
+                check(straddling[FIRST_CUT - 1 + SCAN_WINDOW - 1] == '\r' && straddling[FIRST_CUT - 1 + SCAN_WINDOW] == '\n',
+                        "\\r\\n placed across the scan window");
+                Files.write(file.toPath(), straddling);
+                List<Vehicle> loaded = checkSameLoad(file, single, "\\r\\n across the scan window");
+                check(loaded.stream().anyMatch(v -> v.getId().equals("LONG")), "long line loaded");
+
+                // No line break at the end, and a lone \r at the end
+                byte[] open = fleetFile(0, FIRST_CUT + 40000, -1);
+                int end = open.length;
+                while (open[end - 1] == '\r' || open[end - 1] == '\n') {
+                    end--;
+                }
+                Files.write(file.toPath(), Arrays.copyOf(open, end));
+                checkSameLoad(file, single, "no final line break");
+                Files.write(file.toPath(), (new String(open, 0, end, StandardCharsets.UTF_8) + "\r").getBytes(StandardCharsets.UTF_8));
+                checkSameLoad(file, single, "final \\r");
+            } finally {
+                file.delete();
+            }
+
+            System.setOut(out);
+            System.out.println("All mapped loader assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Mapped loader test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    /**
+     * Header paddings that put each pair of a line break or other byte
+     * (\n, \r, x) at the first cut, keyed by the pair: the byte the loader
+     * starts scanning at and the one after it.
+     */
+    private static Map<String, Integer> cutShifts() {
+        byte[] unshifted = fleetFile(0, FIRST_CUT + 40000, -1);
+        Map<String, Integer> shifts = new TreeMap<>();
+        for (int p = FIRST_CUT - 1; p > FIRST_CUT - 30000; p--) {
+            shifts.putIfAbsent(kind(unshifted[p]) + kind(unshifted[p + 1]), FIRST_CUT - 1 - p);
+        }
+        check(shifts.size() == 9, "every pair of bytes found for the cut: " + shifts.keySet());
+        return shifts;
+    }
+
+    private static String kind(byte b) {
+        return b == '\n' ? "\\n" : b == '\r' ? "\\r" : "x";
+    }
+
+    /**
+     * A fleet file of at least minSize bytes. The header is padded by shift
+     * bytes. Line breaks cycle through \n, \r\n and \r, with blank lines,
+     * malformed records and duplicate IDs mixed in. If longLineCr is not -1,
+     * a vehicle "LONG" with a long model is placed so that its \r\n starts
+     * at that offset.
+     */
+    private static byte[] fleetFile(int shift, int minSize, int longLineCr) {
+        StringBuilder text = new StringBuilder("Type,ID,Model,MaxSpeed,Mileage,ExtraFields...");
+        text.append(" ".repeat(shift)).append("\r\n");
+        for (int i = 0; text.length() < minSize; i++) {
+            if (longLineCr != -1 && text.length() > longLineCr - SCAN_WINDOW - 100) {
+                String start = "Car,LONG,";
+                String end = ",120.0,5.0,4,0.0,0";
+                int model = longLineCr - text.length() - start.length() - end.length();
+                text.append(start).append("M".repeat(model)).append(end).append("\r\n");
+                longLineCr = -1;
+            }
+            String ending = ENDINGS[i % ENDINGS.length];
+            if (i % 97 == 0) {
+                text.append("Car,BAD").append(i).append(",Toyota,fast,1.0,4,0.0,0").append(ending);
+            } else if (i % 101 == 0) {
+                text.append("Truck,V").append(i / 2).append(",Volvo,90.0,7.5,6,0.0,0.0").append(ending);
+            } else if (i % 2 == 0) {
+                text.append("Car,V").append(i).append(",Toyota,120.0,").append(i * 0.25).append(",4,0.0,").append(i % 5)
+                        .append(ending);
+            } else {
+                text.append("CargoShip,V").append(i).append(",Maersk,30.0,").append(i).append(".5,").append(i % 3 == 0)
+                        .append(",0.0,").append(i % 1000).append(".0").append(ending);
+            }
+            if (i % 13 == 0) {
+                text.append(ENDINGS[(i / 13) % ENDINGS.length]);
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Load the file both ways and check that the results match; returns the fleet
+    private static List<Vehicle> checkSameLoad(File file, ForkJoinPool pool, String what) throws Exception {
+        FleetManager sequential = new FleetManager();
+        String sequentialErrors = captureErrors(() -> sequential.loadFromFile(file.getPath()));
+        FleetManager mapped = new FleetManager();
+        String mappedErrors = captureErrors(() -> mapped.loadFromFile(file.getPath(), pool));
+
+        List<Vehicle> expected = sequential.getFleetSnapshot();
+        List<Vehicle> actual = mapped.getFleetSnapshot();
+        check(expected.size() > 20000, "file loaded " + what);
+        check(actual.size() == expected.size(), "vehicle count " + what + ": " + actual.size() + " vs " + expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            check(VehicleFactory.toCsvRow(actual.get(i)).equals(VehicleFactory.toCsvRow(expected.get(i))),
+                    "vehicle " + i + " " + what);
+        }
+        check(!sequentialErrors.isEmpty() && mappedErrors.equals(sequentialErrors), "reported lines " + what);
+        return actual;
+    }
+
+    private interface Load {
+        void run() throws Exception;
+    }
+
+    private static String captureErrors(Load load) throws Exception {
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        try {
+            System.setErr(new PrintStream(errors, true, "UTF-8"));
+            load.run();
+        } finally {
+            System.setErr(err);
+        }
+        return errors.toString("UTF-8");
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
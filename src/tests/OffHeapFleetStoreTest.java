@@ -0,0 +1,295 @@
+package tests;
+
+import fleet.BatchMode;
+import fleet.BulkOperationResult;
+import fleet.FleetManager;
+import fleet.OffHeapFleetStore;
+import fleet.OffHeapVehicle;
+import fleet.ShardedFleetManager;
+import fleet.ShardingStrategy;
+import interfaces.CargoCarrier;
+import interfaces.FuelConsumable;
+import interfaces.Maintainable;
+import interfaces.PassengerCarrier;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import vehicles.*;
+
+public class OffHeapFleetStoreTest {
+
+    private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+
+    // Runs the same operations on heap vehicles and on their off-heap views
+    // and checks that both end in the same state, print the same lines and
+    // fail with the same exceptions; then checks round trips, stale views
+    // and iteration, and that fleets refuse views without being changed.
+    // Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(QUIET);
+            checkSameBehaviour();
+            checkRoundTrip();
+            checkStaleViews();
+            checkForEach();
+            checkViewsNotAdded();
+
+            System.setOut(out);
+            System.out.println("All off-heap store assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Off-heap store test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // One step of the scripted sequence, run on either kind of vehicle
+    private interface Step {
+        void run(Vehicle v) throws Exception;
+    }
+
+    private static void checkSameBehaviour() throws Exception {
+        List<Vehicle> heap = new ArrayList<>();
+        heap.add(new Car("C1", "Toyota", 120, 0.0, 4));
+        heap.add(new Truck("T1", "Volvo", 90, 100.0, 6));
+        heap.add(new Bus("B1", "Mercedes", 80, 0.0, 6));
+        heap.add(new Airplane("A1", "Boeing", 900, 0.0, 35000.0));
+        heap.add(new CargoShip("S1", "OldSail", 20, 0.0, true));
+        heap.add(new CargoShip("S2", "Maersk", 30, 0.0, false));
+        OffHeapFleetStore store = new OffHeapFleetStore();
+        for (Vehicle v : heap) {
+            store.add(v);
+        }
+
+        List<Step> steps = new ArrayList<>();
+        steps.add(v -> ((FuelConsumable) v).refuel(0.0));
+        steps.add(v -> ((FuelConsumable) v).refuel(-1.0));
+        steps.add(v -> ((FuelConsumable) v).refuel(40.0));
+        steps.add(v -> v.move(-5.0));
+        steps.add(v -> v.move(100.0));
+        steps.add(v -> v.move(1e9));
+        steps.add(v -> ((FuelConsumable) v).consumeFuel(10.0));
+        steps.add(v -> ((CargoCarrier) v).loadCargo(3000.0));
+        steps.add(v -> ((CargoCarrier) v).loadCargo(1e6));
+        steps.add(v -> ((CargoCarrier) v).unloadCargo(1e6));
+        steps.add(v -> ((CargoCarrier) v).unloadCargo(100.0));
+        steps.add(v -> ((PassengerCarrier) v).boardPassengers(3));
+        steps.add(v -> ((PassengerCarrier) v).boardPassengers(1000));
+        steps.add(v -> ((PassengerCarrier) v).disembarkPassengers(1000));
+        steps.add(v -> ((PassengerCarrier) v).disembarkPassengers(1));
+        steps.add(v -> v.setMileage(25000.0));
+        steps.add(v -> ((Maintainable) v).performMaintenance());
+        steps.add(v -> v.setMileage(40000.0));
+        steps.add(v -> ((Maintainable) v).scheduleMaintenance());
+        steps.add(v -> v.move(50.0));
+        steps.add(v -> v.restoreMaintenanceState(39000.0, false));
+        steps.add(v -> ((FuelConsumable) v).consumeFuel(1e9));
+        steps.add(v -> ((PassengerCarrier) v).boardPassengers(((PassengerCarrier) v).getPassengerCapacity() - 2));
+
+        for (Vehicle expected : heap) {
+            OffHeapVehicle view = store.get(expected.getId());
+            for (int i = 0; i < steps.size(); i++) {
+                String what = expected.getId() + " step " + i;
+                String heapResult = run(steps.get(i), expected);
+                if (heapResult.startsWith("skipped")) {
+                    continue;
+                }
+                String viewResult = run(steps.get(i), view);
+                check(heapResult.equals(viewResult), what + ": " + heapResult + " vs " + viewResult);
+                checkSameState(view, expected, what);
+            }
+        }
+    }
+
+    // What a step printed or threw; "skipped" if the vehicle lacks the capability
+    private static String run(Step step, Vehicle v) {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        try {
+            step.run(v);
+            return "ok: " + printed;
+        } catch (ClassCastException e) {
+            return "skipped";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            System.setOut(QUIET);
+        }
+    }
+
+    private static void checkSameState(OffHeapVehicle view, Vehicle v, String what) {
+        check(view.getId().equals(v.getId()) && Objects.equals(view.getModel(), v.getModel()), "identity " + what);
+        check(view.getTypeName().equals(v.getClass().getSimpleName()), "type " + what);
+        check(view.getMaxSpeed() == v.getMaxSpeed(), "max speed " + what);
+        check(view.getCurrentMileage() == v.getCurrentMileage(), "mileage " + what);
+        check(view.calculateFuelEfficiency() == v.calculateFuelEfficiency(), "efficiency " + what);
+        check(view.estimateJourneyTime(500.0) == v.estimateJourneyTime(500.0), "journey time " + what);
+        check(view.getMileageAtLastMaintenance() == v.getMileageAtLastMaintenance(), "last service " + what);
+        check(view.isMaintenanceScheduled() == v.isMaintenanceScheduled(), "scheduled service " + what);
+        check(view.needsMaintenance() == ((Maintainable) v).needsMaintenance(), "needs maintenance " + what);
+        check(view.getKilometresUntilMaintenance() == ((Maintainable) v).getKilometresUntilMaintenance(),
+                "km until maintenance " + what);
+        if (v instanceof FuelConsumable) {
+            check(view.getFuelLevel() == ((FuelConsumable) v).getFuelLevel(), "fuel " + what);
+        }
+        if (v instanceof CargoCarrier) {
+            check(view.getCurrentCargo() == ((CargoCarrier) v).getCurrentCargo(), "cargo " + what);
+            check(view.getCargoCapacity() == ((CargoCarrier) v).getCargoCapacity(), "cargo capacity " + what);
+        }
+        if (v instanceof PassengerCarrier) {
+            check(view.getCurrentPassengers() == ((PassengerCarrier) v).getCurrentPassengers(), "passengers " + what);
+            check(view.getPassengerCapacity() == ((PassengerCarrier) v).getPassengerCapacity(), "passenger capacity " + what);
+        }
+        check(view instanceof FuelConsumable == v instanceof FuelConsumable
+                && view instanceof CargoCarrier == v instanceof CargoCarrier
+                && view instanceof PassengerCarrier == v instanceof PassengerCarrier, "capabilities " + what);
+    }
+
+    // toVehicle gives back the stored state, maintenance bookkeeping included
+    private static void checkRoundTrip() throws Exception {
+        OffHeapFleetStore store = new OffHeapFleetStore();
+        Bus bus = new Bus("R1", "Mercedes", 80, 12345.5, 6);
+        bus.refuel(77.25);
+        bus.boardPassengers(31);
+        bus.loadCargo(120.5);
+        bus.restoreMaintenanceState(4000.0, true);
+        store.add(bus);
+        Vehicle copy = store.toVehicle("R1");
+        check(copy instanceof Bus, "round trip type");
+        checkSameState(store.get("R1"), copy, "after toVehicle");
+        check(((Bus) copy).getFuelLevel() == 77.25 && ((Bus) copy).getCurrentPassengers() == 31
+                && ((Bus) copy).getCurrentCargo() == 120.5, "round trip state");
+        check(copy.getMileageAtLastMaintenance() == 4000.0 && copy.isMaintenanceScheduled(), "round trip maintenance");
+
+        try {
+            store.add(new Car("R1", "Toyota", 120, 0.0, 4));
+            check(false, "duplicate ID rejected");
+        } catch (exceptions.InvalidOperationException expected) {
+            // expected
+        }
+        try {
+            store.add(new Car("X".repeat(OffHeapFleetStore.MAX_ID_BYTES + 1), "Toyota", 120, 0.0, 4));
+            check(false, "over-long ID rejected");
+        } catch (exceptions.InvalidOperationException expected) {
+            // expected
+        }
+        try {
+            store.get("R1").addStateListener((vehicle, property) -> { });
+            check(false, "views take no listeners");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    // A view of a removed vehicle fails, also once its slot holds another vehicle
+    private static void checkStaleViews() throws Exception {
+        OffHeapFleetStore store = new OffHeapFleetStore();
+        Car first = new Car("G1", "Toyota", 120, 10.0, 4);
+        first.refuel(20.0);
+        store.add(first);
+        OffHeapVehicle stale = store.get("G1");
+        store.remove("G1");
+        checkStale(stale, "after removal");
+
+        Car second = new Car("G2", "Honda", 110, 99.0, 4);
+        store.add(second);
+        check(store.size() == 1, "slot reused");
+        checkStale(stale, "after the slot was reused");
+        OffHeapVehicle fresh = store.get("G2");
+        check(fresh.getId().equals("G2") && fresh.getCurrentMileage() == 99.0, "fresh view reads the new vehicle");
+    }
+
+    private static void checkStale(OffHeapVehicle view, String when) {
+        try {
+            view.getCurrentMileage();
+            check(false, "stale read rejected " + when);
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        try {
+            view.refuel(5.0);
+            check(false, "stale change rejected " + when);
+        } catch (IllegalStateException expected) {
+            // expected
+        } catch (Exception e) {
+            check(false, "stale change rejected " + when + ": " + e);
+        }
+    }
+
+    // forEach visits every stored vehicle once, after removals and re-adds
+    private static void checkForEach() throws Exception {
+        OffHeapFleetStore store = new OffHeapFleetStore();
+        Set<String> expected = new HashSet<>();
+        double mileage = 0;
+        for (int i = 0; i < 3000; i++) {
+            Vehicle v = i % 2 == 0 ? new Truck("F" + i, "Volvo", 90, i, 6) : new Airplane("F" + i, "Boeing", 900, i, 30000.0);
+            store.add(v);
+            expected.add(v.getId());
+            mileage += i;
+        }
+        for (int i = 0; i < 3000; i += 5) {
+            store.remove("F" + i);
+            expected.remove("F" + i);
+            mileage -= i;
+        }
+        Set<String> seen = new HashSet<>();
+        store.forEach(v -> check(expected.contains(v.getId()) && seen.add(v.getId()), "forEach visits " + v.getId()));
+        check(seen.size() == expected.size() && store.size() == expected.size(), "forEach count");
+        check(store.getTotalMileage() == mileage, "total mileage");
+    }
+
+    // A view takes no state listener, so fleets reject it before changing anything
+    private static void checkViewsNotAdded() throws Exception {
+        OffHeapFleetStore store = new OffHeapFleetStore();
+        store.add(new Car("W1", "Toyota", 120, 0.0, 4));
+        OffHeapVehicle view = store.get("W1");
+
+        FleetManager fm = new FleetManager();
+        try {
+            fm.addVehicle(view);
+            check(false, "view added to a fleet");
+        } catch (exceptions.InvalidOperationException expected) {
+            // expected
+        }
+        check(fm.getFleetSnapshot().isEmpty() && fm.takeSnapshot().isEmpty() && fm.getHandle("W1") < 0,
+                "fleet unchanged after a rejected view");
+
+        List<Vehicle> batch = List.of(new Car("W0", "Toyota", 120, 0.0, 4), view, new Car("W2", "Honda", 110, 0.0, 4));
+        BulkOperationResult none = fm.addVehicles(batch, BatchMode.ALL_OR_NOTHING);
+        check(none.getSuccessCount() == 0 && fm.getFleetSnapshot().isEmpty(), "all-or-nothing batch with a view");
+        BulkOperationResult best = fm.addVehicles(batch, BatchMode.BEST_EFFORT);
+        check(best.getSucceeded().equals(List.of("W0", "W2")), "best-effort batch with a view");
+        check(best.getRejections().size() == 1 && best.getRejections().get(0).getPosition() == 1, "view rejected by position");
+        check(fm.takeSnapshot().size() == 2 && fm.countByType(Car.class) == 2 && fm.getVehicleById("W1") == null,
+                "fleet holds the other records");
+
+        ShardedFleetManager sharded = new ShardedFleetManager(ShardingStrategy.VEHICLE_FAMILY);
+        BulkOperationResult shardedNone = sharded.addVehicles(batch, BatchMode.ALL_OR_NOTHING);
+        check(shardedNone.getSuccessCount() == 0 && sharded.getStatistics().getTotalVehicles() == 0,
+                "sharded all-or-nothing batch with a view");
+        try {
+            sharded.addVehicle(view);
+            check(false, "view added to a sharded fleet");
+        } catch (exceptions.InvalidOperationException expected) {
+            // expected
+        }
+        sharded.addVehicle(store.toVehicle("W1"));
+        check(sharded.getVehicleById("W1") instanceof Car, "copy of a view added after the view was refused");
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package tests;
+
+import fleet.BatchMode;
+import fleet.BulkOperationResult;
+import fleet.FleetManager;
+import fleet.FleetStatistics;
+import fleet.ShardedFleetManager;
+import fleet.ShardingStrategy;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import vehicles.*;
+
+public class ShardedFleetManagerTest {
+
+    // Checks ShardedFleetManager under both sharding strategies: batch modes,
+    // one summary line per batch, IDs that must stay unique across shards,
+    // batches racing single adds of the same IDs, and statistics merged
+    // from the shards against those of one FleetManager holding the same
+    // vehicles. Runs as a normal main program; exits non-zero on failure.
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            checkBatchModes(new ShardedFleetManager(4), "ID_HASH");
+            checkBatchModes(new ShardedFleetManager(ShardingStrategy.VEHICLE_FAMILY), "VEHICLE_FAMILY");
+            checkUniqueAcrossShards();
+            checkBatchAgainstConcurrentAdds(ShardingStrategy.ID_HASH);
+            checkBatchAgainstConcurrentAdds(ShardingStrategy.VEHICLE_FAMILY);
+            checkMergedStatistics(new ShardedFleetManager(4), "ID_HASH");
+            checkMergedStatistics(new ShardedFleetManager(ShardingStrategy.VEHICLE_FAMILY), "VEHICLE_FAMILY");
+
+            System.setOut(out);
+            System.out.println("All sharded fleet assertions passed.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.setOut(out);
+            System.err.println("Sharded fleet test failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Vehicle vehicle(int i) {
+        String id = "V" + i;
+        switch (i % 5) {
+            case 0:
+                return new Car(id, "Toyota", 100 + i % 50, i, 4);
+            case 1:
+                return new Truck(id, "Volvo", 80 + i % 30, i, 6);
+            case 2:
+                return new Bus(id, "Mercedes", 70 + i % 20, i, 6);
+            case 3:
+                return new Airplane(id, "Boeing", 800 + i % 100, i, 30000.0);
+            default:
+                return new CargoShip(id, "Maersk", 20 + i % 10, i, i % 2 == 0);
+        }
+    }
+
+    private static List<Vehicle> vehicles(int from, int to) {
+        List<Vehicle> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(vehicle(i));
+        }
+        return list;
+    }
+
+    // "position:ID" of each rejected record, in batch order
+    private static List<String> rejectedIds(BulkOperationResult result) {
+        List<String> ids = new ArrayList<>();
+        for (BulkOperationResult.Rejection r : result.getRejections()) {
+            ids.add(r.getPosition() + ":" + r.getId());
+        }
+        return ids;
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    // What the action printed on System.out
+    private static String printed(Action action) throws Exception {
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, "UTF-8"));
+        try {
+            action.run();
+        } finally {
+            System.setOut(out);
+        }
+        return printed.toString("UTF-8");
+    }
+
+    private static void checkBatchModes(ShardedFleetManager fm, String strategy) throws Exception {
+        BulkOperationResult[] results = new BulkOperationResult[1];
+        String printed = printed(() -> results[0] = fm.addVehicles(vehicles(0, 100), BatchMode.ALL_OR_NOTHING));
+        BulkOperationResult first = results[0];
+        check(first.getSuccessCount() == 100 && !first.hasFailures(), "clean batch added " + strategy);
+        check(printed.equals("100 vehicle(s) added to the fleet, 0 rejected." + System.lineSeparator()),
+                "one summary line for a clean batch " + strategy + ": " + printed);
+        check(fm.getStatistics().getTotalVehicles() == 100, "fleet size after clean batch " + strategy);
+
+        // One ID already in the fleet and one repeated within the batch
+        List<Vehicle> bad = vehicles(100, 150);
+        bad.add(new Car("V7", "Honda", 120, 0.0, 4));
+        bad.add(vehicle(120));
+        printed = printed(() -> results[0] = fm.addVehicles(bad, BatchMode.ALL_OR_NOTHING));
+        BulkOperationResult rejected = results[0];
+        check(printed.equals("Batch rejected: 2 invalid record(s), no vehicles added." + System.lineSeparator()),
+                "summary of a rejected batch " + strategy + ": " + printed);
+        check(rejected.getSuccessCount() == 0, "all-or-nothing batch adds nothing " + strategy);
+        check(rejectedIds(rejected).equals(List.of("50:V7", "51:V120")), "all-or-nothing failures " + strategy);
+        check(fm.getVehicleById("V120") == null && fm.getStatistics().getTotalVehicles() == 100,
+                "fleet unchanged after rejected batch " + strategy);
+
+        // The rejected batch released its reservations
+        printed = printed(() -> results[0] = fm.addVehicles(bad, BatchMode.BEST_EFFORT));
+        BulkOperationResult best = results[0];
+        check(printed.equals("50 vehicle(s) added to the fleet, 2 rejected." + System.lineSeparator()),
+                "one summary line for a best-effort batch " + strategy + ": " + printed);
+        check(best.getSuccessCount() == 50, "best-effort batch adds the valid records " + strategy);
+        check(rejectedIds(best).equals(List.of("50:V7", "51:V120")), "best-effort failures " + strategy);
+        check(fm.getVehicleById("V7") instanceof Bus, "existing vehicle kept " + strategy);
+        check(fm.getStatistics().getTotalVehicles() == 150, "fleet size after best-effort batch " + strategy);
+
+        fm.removeVehicle("V120");
+        fm.addVehicle(vehicle(120));
+        check(fm.getVehicleById("V120") != null, "removed ID can be added again " + strategy);
+        int sizes = 0;
+        int shardsUsed = 0;
+        for (int size : fm.getShardSizes()) {
+            sizes += size;
+            shardsUsed += size > 0 ? 1 : 0;
+        }
+        check(sizes == 150 && shardsUsed > 1, "shard sizes add up " + strategy);
+    }
+
+    // VEHICLE_FAMILY puts a car and a plane in different shards; one ID may still only be used once
+    private static void checkUniqueAcrossShards() throws Exception {
+        ShardedFleetManager fm = new ShardedFleetManager(ShardingStrategy.VEHICLE_FAMILY);
+        fm.addVehicle(new Car("X1", "Toyota", 120, 0.0, 4));
+        try {
+            fm.addVehicle(new Airplane("X1", "Boeing", 900, 0.0, 30000.0));
+            check(false, "ID reused in another shard");
+        } catch (exceptions.InvalidOperationException expected) {
+            // expected
+        }
+        BulkOperationResult result = fm.addVehicles(List.of(new CargoShip("X1", "Maersk", 30, 0.0, false)), BatchMode.BEST_EFFORT);
+        check(result.getSuccessCount() == 0 && rejectedIds(result).equals(List.of("0:X1")), "batch ID reused in another shard");
+        check(fm.getVehicleById("X1") instanceof Car && fm.getStatistics().getTotalVehicles() == 1, "first vehicle kept");
+    }
+
+    // An accepted all-or-nothing batch is added in full even while another
+    // thread adds vehicles with the same IDs; each ID ends up added once.
+    private static void checkBatchAgainstConcurrentAdds(ShardingStrategy strategy) throws Exception {
+        for (int round = 0; round < 200; round++) {
+            ShardedFleetManager fm = strategy == ShardingStrategy.ID_HASH
+                    ? new ShardedFleetManager(4) : new ShardedFleetManager(strategy);
+            List<Vehicle> batch = vehicles(0, 40);
+            AtomicInteger singles = new AtomicInteger();
+            Thread racer = new Thread(() -> {
+                for (int i = 39; i >= 0; i--) {
+                    try {
+                        fm.addVehicle(vehicle(i));
+                        singles.incrementAndGet();
+                    } catch (exceptions.InvalidOperationException e) {
+                        // taken by the batch
+                    }
+                }
+            });
+            racer.start();
+            BulkOperationResult result = fm.addVehicles(batch, BatchMode.ALL_OR_NOTHING);
+            racer.join();
+            String what = strategy + " round " + round;
+            check(result.getSuccessCount() == 0 || result.getSuccessCount() == 40, "batch all or nothing " + what);
+            check(result.getSuccessCount() == 0 || singles.get() == 0, "no single add beside an accepted batch " + what);
+            int size = fm.getStatistics().getTotalVehicles();
+            check(size == result.getSuccessCount() + singles.get() && size <= 40, "each ID added once " + what);
+        }
+    }
+
+    private static void checkMergedStatistics(ShardedFleetManager fm, String strategy) throws Exception {
+        FleetManager single = new FleetManager();
+        List<Vehicle> sharded = vehicles(0, 500);
+        List<Vehicle> plain = vehicles(0, 500);
+        for (int i = 0; i < 500; i += 7) {
+            plain.get(i).setMileage(20000.0 + i);
+            sharded.get(i).setMileage(20000.0 + i);
+        }
+        fm.addVehicles(sharded, BatchMode.ALL_OR_NOTHING);
+        single.addVehicles(plain, BatchMode.ALL_OR_NOTHING);
+        fm.refuelAll(50.0);
+        single.refuelAll(50.0);
+
+        FleetStatistics merged = fm.getStatistics();
+        FleetStatistics expected = single.getStatistics();
+        check(merged.getTotalVehicles() == expected.getTotalVehicles(), "total vehicles " + strategy);
+        check(merged.getCountByType().equals(expected.getCountByType()), "count by type " + strategy);
+        check(close(merged.getTotalMileage(), expected.getTotalMileage()), "total mileage " + strategy);
+        check(close(merged.getTotalFuelRemaining(), expected.getTotalFuelRemaining()), "total fuel " + strategy);
+        check(close(merged.getAverageEfficiency(), expected.getAverageEfficiency()), "average efficiency " + strategy);
+        check(merged.getDistinctModels() == expected.getDistinctModels(), "distinct models " + strategy);
+        check(merged.getVehiclesNeedingMaintenance() == expected.getVehiclesNeedingMaintenance(),
+                "vehicles needing maintenance " + strategy);
+        check(merged.getFastest().getId().equals(expected.getFastest().getId()), "fastest " + strategy);
+        check(merged.getSlowest().getId().equals(expected.getSlowest().getId()), "slowest " + strategy);
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= 1e-9 * Math.max(1.0, Math.abs(b));
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            System.setOut(System.err);
+            System.err.println("Assertion failed: " + what);
+            System.exit(2);
+        }
+    }
+}
@@ -4,6 +4,8 @@ package vehicles;
 
 public abstract class AirVehicle extends Vehicle {
 
+    public static final double JOURNEY_TIME_FACTOR = 0.95;
+
     private double maxAltitude;
 
     public AirVehicle(String id, String model, double maxSpeed, double currentMileage, double maxAltitude) {
@@ -14,7 +16,7 @@ public abstract class AirVehicle extends Vehicle {
     @Override
     public double estimateJourneyTime(double distance) {
         double basetime = distance / (getMaxSpeed());
-        return basetime * (0.95);
+        return basetime * JOURNEY_TIME_FACTOR;
     }
 
     public double getMaxAltitude() {
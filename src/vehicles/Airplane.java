@@ -12,18 +12,21 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
 //    Properties: fuelLevel, passengerCapacity (200), currentPassengers, cargoCapacity (10000 kg), currentCargo, maintenanceNeeded.
 //– Override move: “Flying at [maxAltitude]...”.
 //– calculateFuelEfficiency(): 5.0 km/l.
+
+    public static final int PASSENGER_CAPACITY = 200;
+    public static final double CARGO_CAPACITY = 10000.0;
+    public static final double FUEL_EFFICIENCY = 5.0;
+
     private double fuelLevel;
     private int passengerCapacity;
     private int currentPassengers;
     private double cargoCapacity;
     private double currentCargo;
-    private boolean maintenanceNeeded;
-    private double mileageAtLastMaintenance;
 
     public Airplane(String id, String model, double maxSpeed, double currentMileage, double maxAltitude) {
         super(id, model, maxSpeed, currentMileage, maxAltitude);
-        this.passengerCapacity = 200;
-        this.cargoCapacity = 10000.0;
+        this.passengerCapacity = PASSENGER_CAPACITY;
+        this.cargoCapacity = CARGO_CAPACITY;
     }
 
     @Override
@@ -31,14 +34,19 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
         if (distance < 0) {
             throw new InvalidOperationException("Distance cannot be negative.");
         }
-        consumeFuel(distance);
-        setMileage(getCurrentMileage() + distance);
+        beginUpdate();
+        try {
+            consumeFuel(distance);
+            setMileage(getCurrentMileage() + distance);
+        } finally {
+            endUpdate();
+        }
         System.out.println("Airplane ID: " + getId() + " is flying at " + getMaxAltitude() + " feet for " + distance + " km.");
     }
 
     @Override
     public double calculateFuelEfficiency() {
-        return 5.0;
+        return FUEL_EFFICIENCY;
     }
 
     @Override
@@ -47,6 +55,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new OverloadException("Passenger capacity of " + this.passengerCapacity + " exceeded.");
         }
         this.currentPassengers += count;
+        notifyStateChanged(VehicleProperty.PASSENGERS);
     }
 
     @Override
@@ -55,6 +64,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new InvalidOperationException("Cannot disembark more passengers than are on board.");
         }
         this.currentPassengers -= count;
+        notifyStateChanged(VehicleProperty.PASSENGERS);
     }
 
     @Override
@@ -73,6 +83,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new OverloadException("Cargo capacity of " + this.cargoCapacity + " kg exceeded.");
         }
         this.currentCargo += weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -81,6 +92,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new InvalidOperationException("Cannot unload more cargo than is on board.");
         }
         this.currentCargo -= weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -100,6 +112,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new InvalidOperationException("Fuel amount must not be negative.");
         }
         this.fuelLevel += amount;
+        notifyStateChanged(VehicleProperty.FUEL);
     }
 
     @Override
@@ -114,23 +127,28 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
             throw new InsufficientFuelException("Not enough fuel for the journey.");
         }
         this.fuelLevel -= fuelConsumed;
+        notifyStateChanged(VehicleProperty.FUEL);
         return fuelConsumed;
     }
 
     @Override
     public void scheduleMaintenance() {
-        this.maintenanceNeeded = true;
+        markMaintenanceScheduled();
     }
 
     @Override
     public boolean needsMaintenance() {
-        return (getCurrentMileage() - mileageAtLastMaintenance > 10000) || this.maintenanceNeeded;
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    @Override
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
     }
 
     @Override
     public void performMaintenance() {
-        this.maintenanceNeeded = false;
-        this.mileageAtLastMaintenance = getCurrentMileage();
+        markMaintenancePerformed();
         System.out.println("Maintenance performed on Airplane ID: " + getId());
     }
 }
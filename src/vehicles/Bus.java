@@ -13,34 +13,41 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
     //(500 kg), currentCargo, maintenanceNeeded.
     //– Override move: “Transporting passengers and cargo...”.
     //– calculateFuelEfficiency(): 10.0 km/l.
+
+    public static final int PASSENGER_CAPACITY = 50;
+    public static final double CARGO_CAPACITY = 500.0;
+    public static final double FUEL_EFFICIENCY = 10.0;
+
     private double fuelLevel;
     private int passengerCapacity;
     private int currentPassengers;
     private double cargoCapacity;
     private double currentCargo;
-    private boolean maintenanceNeeded;
-    private double mileageAtLastMaintenance;
 
     public Bus(String id, String model, double maxSpeed, double currentMileage, int numWheels) {
         super(id, model, maxSpeed, currentMileage, numWheels);
-        this.passengerCapacity = 50;
-        this.cargoCapacity = 500.0;
+        this.passengerCapacity = PASSENGER_CAPACITY;
+        this.cargoCapacity = CARGO_CAPACITY;
     }
 
     @Override
     public void scheduleMaintenance() {
-        this.maintenanceNeeded = true;
+        markMaintenanceScheduled();
     }
 
     @Override
     public boolean needsMaintenance() {
-        return (getCurrentMileage() - mileageAtLastMaintenance > 10000) || this.maintenanceNeeded;
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    @Override
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
     }
 
     @Override
     public void performMaintenance() {
-        this.maintenanceNeeded = false;
-        this.mileageAtLastMaintenance = getCurrentMileage();
+        markMaintenancePerformed();
         System.out.println("Maintenance performed on Bus ID: " + getId());
     }
 
@@ -50,6 +57,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new OverloadException("Passenger capacity of " + this.passengerCapacity + " exceeded.");
         }
         this.currentPassengers += count;
+        notifyStateChanged(VehicleProperty.PASSENGERS);
     }
 
     @Override
@@ -58,6 +66,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new InvalidOperationException("Cannot disembark more passengers than are on board.");
         }
         this.currentPassengers -= count;
+        notifyStateChanged(VehicleProperty.PASSENGERS);
     }
 
     @Override
@@ -75,14 +84,19 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
         if (distance < 0) {
             throw new InvalidOperationException("Distance cannot be negative.");
         }
-        consumeFuel(distance);
-        setMileage(getCurrentMileage() + distance);
+        beginUpdate();
+        try {
+            consumeFuel(distance);
+            setMileage(getCurrentMileage() + distance);
+        } finally {
+            endUpdate();
+        }
         System.out.println("Bus ID: " + getId() + " is transporting passengers and cargo for " + distance + " km.");
     }
 
     @Override
     public double calculateFuelEfficiency() {
-        return 10.0;
+        return FUEL_EFFICIENCY;
     }
 
     @Override
@@ -91,6 +105,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new OverloadException("Cargo capacity of " + this.cargoCapacity + " kg exceeded.");
         }
         this.currentCargo += weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -99,6 +114,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new InvalidOperationException("Cannot unload more cargo than is on board.");
         }
         this.currentCargo -= weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -118,6 +134,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new InvalidOperationException("Fuel amount must not be negative.");
         }
         this.fuelLevel += amount;
+        notifyStateChanged(VehicleProperty.FUEL);
     }
 
     @Override
@@ -132,6 +149,7 @@ public class Bus extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new InsufficientFuelException("Not enough fuel for the journey.");
         }
         this.fuelLevel -= fuelConsumed;
+        notifyStateChanged(VehicleProperty.FUEL);
         return fuelConsumed;
     }
 }
@@ -13,17 +13,18 @@ import interfaces.PassengerCarrier;
 
 public class Car extends LandVehicle implements FuelConsumable , PassengerCarrier, Maintainable {
 
+    public static final int PASSENGER_CAPACITY = 5;
+    public static final double FUEL_EFFICIENCY = 15.0;
+
     private double fuelLevel;
     private int passengerCapacity;
     private int currentPassengers;
-    private boolean maintenanceNeeded;
-    private double mileageAtLastMaintenance;
 
 
     public Car(String id, String model, double maxSpeed, double currentMileage, int numWheels) {
         super(id, model, maxSpeed, currentMileage,numWheels);
         this.fuelLevel = 0;
-        this.passengerCapacity = 5;
+        this.passengerCapacity = PASSENGER_CAPACITY;
     }
     // FUEL CONSUMABLE INTERFACE
     @Override
@@ -32,6 +33,7 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
             throw new InvalidOperationException("Fuel is not sufficient.");
         }else{
             this.fuelLevel += amount;
+            notifyStateChanged(VehicleProperty.FUEL);
         }
     }
 
@@ -48,6 +50,7 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
         }
         else{
             this.fuelLevel -= fuelConsumed;
+            notifyStateChanged(VehicleProperty.FUEL);
             return fuelConsumed;
         }
 
@@ -55,18 +58,22 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
     //MAINTAINABLE INTERFACE
     @Override
     public void scheduleMaintenance() {
-        this.maintenanceNeeded = true;
+        markMaintenanceScheduled();
     }
 
     @Override
     public boolean needsMaintenance() {
-        return (getCurrentMileage() - mileageAtLastMaintenance > 10000) || this.maintenanceNeeded;
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    @Override
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
     }
 
     @Override
     public void performMaintenance() {
-        this.maintenanceNeeded = false;
-        this.mileageAtLastMaintenance = getCurrentMileage();
+        markMaintenancePerformed();
         System.out.println("Maintenance performed on Car ID: "+this.getId());
     }
     //PASSENGER CARRIER INTERFACE
@@ -77,6 +84,7 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
         }
         else{
             this.currentPassengers += count;
+            notifyStateChanged(VehicleProperty.PASSENGERS);
         }
     }
 
@@ -87,6 +95,7 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
         }
         else{
             this.currentPassengers -= count;
+            notifyStateChanged(VehicleProperty.PASSENGERS);
         }
     }
 
@@ -106,14 +115,19 @@ public class Car extends LandVehicle implements FuelConsumable , PassengerCarrie
             throw new InvalidOperationException("Distance Can't be Negative");
         }
         else{
-            consumeFuel(distance);
-            setMileage(getCurrentMileage() + distance);
+            beginUpdate();
+            try {
+                consumeFuel(distance);
+                setMileage(getCurrentMileage() + distance);
+            } finally {
+                endUpdate();
+            }
             System.out.println("CAR with ID: "+this.getId()+" is driving for "+distance+"km.");
         }
     }
 
     @Override
     public double calculateFuelEfficiency() {
-        return 15.0;
+        return FUEL_EFFICIENCY;
     }
 }
@@ -11,14 +11,16 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
     //Properties: cargoCapacity (50000 kg), currentCargo, maintenanceNeeded, fuelLevel (if fueled).
     //– Override move: “Sailing with cargo...”.
     //– calculateFuelEfficiency(): 4.0 km/l if fueled, else 0.
+
+    public static final double CARGO_CAPACITY = 50000.0;
+    public static final double FUEL_EFFICIENCY = 4.0;
+
     private double cargoCapacity;
     private double currentCargo;
-    private boolean maintenanceNeeded;
     private double fuelLevel;
-    private double mileageAtLastMaintenance;
     public CargoShip(String id, String model, double maxSpeed, double currentMileage, boolean hasSail) {
         super(id, model, maxSpeed, currentMileage, hasSail);
-        this.cargoCapacity = 50000.0;
+        this.cargoCapacity = CARGO_CAPACITY;
     }
 
     @Override
@@ -26,18 +28,28 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
         if (distance < 0) {
             throw new InvalidOperationException("Distance cannot be negative.");
         }
-        if (!getHasSail()) {
-            consumeFuel(distance);
+        beginUpdate();
+        try {
+            if (!getHasSail()) {
+                consumeFuel(distance);
+            }
+            setMileage(getCurrentMileage() + distance);
+        } finally {
+            endUpdate();
         }
-        setMileage(getCurrentMileage() + distance);
         System.out.println("CargoShip ID: " + getId() + " is sailing with cargo for " + distance + " km.");
     }
 
 
     @Override
     public double calculateFuelEfficiency() {
-        if (!getHasSail()) {
-            return 4.0;
+        return fuelEfficiency(getHasSail());
+    }
+
+    // Efficiency of a ship with or without a sail
+    public static double fuelEfficiency(boolean hasSail) {
+        if (!hasSail) {
+            return FUEL_EFFICIENCY;
         }
         return 0;
     }
@@ -49,6 +61,7 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
 
         }
         this.currentCargo += weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -57,6 +70,7 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
             throw new InvalidOperationException("Cannot unload " + weight + " kg. " + "Only " + this.currentCargo + " kg is on board.");
         }
         this.currentCargo -= weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -73,18 +87,22 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
 
     @Override
     public void scheduleMaintenance() {
-        this.maintenanceNeeded = true;
+        markMaintenanceScheduled();
     }
 
     @Override
     public boolean needsMaintenance() {
-        return (getCurrentMileage() - mileageAtLastMaintenance > 10000) || this.maintenanceNeeded;
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    @Override
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
     }
 
     @Override
     public void performMaintenance() {
-        this.maintenanceNeeded = false;
-        this.mileageAtLastMaintenance = getCurrentMileage();
+        markMaintenancePerformed();
         System.out.println("Maintenance performed on CargoShip ID: " + getId());
     }
 
@@ -97,6 +115,7 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
             throw new InvalidOperationException("Fuel amount must be positive.");
         }
         this.fuelLevel += amount;
+        notifyStateChanged(VehicleProperty.FUEL);
     }
 
     @Override
@@ -117,6 +136,7 @@ public class CargoShip extends WaterVehicle implements CargoCarrier, Maintainabl
             throw new InsufficientFuelException("Not enough fuel for the journey.");
         }
         this.fuelLevel -= fuelConsumed;
+        notifyStateChanged(VehicleProperty.FUEL);
         return fuelConsumed;
     }
 }
@@ -5,6 +5,8 @@ package vehicles;
 
 public abstract class LandVehicle extends Vehicle {
 
+    public static final double JOURNEY_TIME_FACTOR = 1.1;
+
     private int numWheels;
 
     public LandVehicle(String id, String model, double maxSpeed, double currentMileage, int numWheels) {
@@ -15,7 +17,7 @@ public abstract class LandVehicle extends Vehicle {
     @Override
     public double estimateJourneyTime(double distance) {
         double basetime = distance / (getMaxSpeed());
-        return basetime * (1.1);
+        return basetime * JOURNEY_TIME_FACTOR;
     }
 
     public int getNumWheels() {
@@ -12,15 +12,17 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
 //– Override move: “Hauling cargo...”, adjust fuel consumption if loaded (> 50%
 //capacity reduces efficiency by 10%).
 //– calculateFuelEfficiency(): 8.0 km/l (adjusted for cargo).
+
+    public static final double CARGO_CAPACITY = 5000.0;
+    public static final double FUEL_EFFICIENCY = 8.0;
+
     private double fuelLevel;
     private double cargoCapacity;
     private double currentCargo;
-    private boolean maintenanceNeeded;
-    private double mileageAtLastMaintenance;
 
     public Truck(String id, String model, double maxSpeed, double currentMileage, int numWheels) {
         super(id, model, maxSpeed, currentMileage, numWheels);
-        this.cargoCapacity = 5000.0;
+        this.cargoCapacity = CARGO_CAPACITY;
     }
     @Override
     public void loadCargo(double weight) throws OverloadException {
@@ -28,6 +30,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
             throw new OverloadException("Cargo capacity of " + this.cargoCapacity + " kg exceeded.");
         }
         this.currentCargo += weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -36,6 +39,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
             throw new InvalidOperationException("Cannot unload more cargo than is on board.");
         }
         this.currentCargo -= weight;
+        notifyStateChanged(VehicleProperty.CARGO);
     }
 
     @Override
@@ -54,6 +58,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
             throw new InvalidOperationException("Fuel is not sufficient.");
         }else{
             this.fuelLevel += amount;
+            notifyStateChanged(VehicleProperty.FUEL);
         }
     }
 
@@ -70,24 +75,29 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         }
         else{
             this.fuelLevel -= fuelConsumed;
+            notifyStateChanged(VehicleProperty.FUEL);
             return fuelConsumed;
         }
     }
 
     @Override
     public void scheduleMaintenance() {
-        this.maintenanceNeeded = true;
+        markMaintenanceScheduled();
     }
 
     @Override
     public boolean needsMaintenance() {
-        return (getCurrentMileage() - mileageAtLastMaintenance > 10000) || this.maintenanceNeeded;
+        return kilometresUntilMaintenance() < 0;
+    }
+
+    @Override
+    public double getKilometresUntilMaintenance() {
+        return kilometresUntilMaintenance();
     }
 
     @Override
     public void performMaintenance() {
-        this.maintenanceNeeded = false;
-        this.mileageAtLastMaintenance = getCurrentMileage();
+        markMaintenancePerformed();
         System.out.println("Maintenance performed on Truck ID: "+this.getId());
     }
 
@@ -96,16 +106,26 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         if(distance<0){
             throw new InvalidOperationException("Distance cannot be less than zero");
         }
-        consumeFuel(distance);
-        setMileage(getCurrentMileage() + distance);
+        beginUpdate();
+        try {
+            consumeFuel(distance);
+            setMileage(getCurrentMileage() + distance);
+        } finally {
+            endUpdate();
+        }
         System.out.println("Truck ID: " + getId() + " is hauling cargo for " + distance + " km.");
     }
 
     @Override
     public double calculateFuelEfficiency() {
-        if (this.currentCargo > (this.cargoCapacity * 0.5)) {
-            return 8.0 * 0.9;
+        return fuelEfficiency(this.currentCargo);
+    }
+
+    // Efficiency of a truck with this much cargo on board
+    public static double fuelEfficiency(double currentCargo) {
+        if (currentCargo > (CARGO_CAPACITY * 0.5)) {
+            return FUEL_EFFICIENCY * 0.9;
         }
-        return 8.0;
+        return FUEL_EFFICIENCY;
     }
 }
@@ -13,6 +13,11 @@ package vehicles;
 //– String getId(): Getter for ID.
 import exceptions.InsufficientFuelException;
 import exceptions.InvalidOperationException;
+import interfaces.Maintainable;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 // Comparable for FleetManager to be able to sort by fuel efficiency.
 
 public abstract class Vehicle implements Comparable<Vehicle> {
@@ -21,6 +26,17 @@ public abstract class Vehicle implements Comparable<Vehicle> {
     private String model;
     private double maxSpeed;
     private double currentMileage;
+    // Maintenance bookkeeping of the Maintainable vehicles: the mileage at the
+    // last service and whether a service has been scheduled since.
+    private double mileageAtLastMaintenance;
+    private boolean maintenanceScheduled;
+    // Observers of state changes (mileage, fuel, cargo, ...). Copy-on-write so
+    // that simulation threads can notify while listeners are (de)registered.
+    private final List<VehicleStateListener> stateListeners = new CopyOnWriteArrayList<>();
+    // Properties changed inside the current beginUpdate/endUpdate group and
+    // its nesting depth; both guarded by updatedProperties.
+    private final Set<VehicleProperty> updatedProperties = EnumSet.noneOf(VehicleProperty.class);
+    private int updateDepth;
 
     public Vehicle(String id, String model, double maxSpeed, double currentMileage) {
         if ((id == null) || (id.isEmpty())) {
@@ -32,6 +48,11 @@ public abstract class Vehicle implements Comparable<Vehicle> {
         this.currentMileage = currentMileage;
     }
 
+    // For views that keep the vehicle's state elsewhere and override every
+    // getter; the fields of this class stay unset.
+    protected Vehicle() {
+    }
+
     ;
     public abstract void move(double distance) throws InvalidOperationException, InsufficientFuelException;
 
@@ -92,6 +113,90 @@ public abstract class Vehicle implements Comparable<Vehicle> {
     //Function to update mileage
     public void setMileage(double newMileage) {
         this.currentMileage = newMileage;
+        notifyStateChanged(VehicleProperty.MILEAGE);
+    }
+
+    public double getMileageAtLastMaintenance() {
+        return mileageAtLastMaintenance;
+    }
+
+    public boolean isMaintenanceScheduled() {
+        return maintenanceScheduled;
+    }
+
+    /**
+     * Set the maintenance bookkeeping directly, e.g. when a vehicle is rebuilt
+     * from a journal or another store. Reported as a MAINTENANCE change.
+     */
+    public void restoreMaintenanceState(double mileageAtLastMaintenance, boolean scheduled) {
+        this.mileageAtLastMaintenance = mileageAtLastMaintenance;
+        this.maintenanceScheduled = scheduled;
+        notifyStateChanged(VehicleProperty.MAINTENANCE);
+    }
+
+    // Shared bodies of the Maintainable methods.
+    protected void markMaintenanceScheduled() {
+        this.maintenanceScheduled = true;
+        notifyStateChanged(VehicleProperty.MAINTENANCE);
+    }
+
+    protected void markMaintenancePerformed() {
+        this.maintenanceScheduled = false;
+        this.mileageAtLastMaintenance = getCurrentMileage();
+        notifyStateChanged(VehicleProperty.MAINTENANCE);
+    }
+
+    protected double kilometresUntilMaintenance() {
+        if (isMaintenanceScheduled()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Maintainable.MAINTENANCE_INTERVAL_KM - (getCurrentMileage() - getMileageAtLastMaintenance());
+    }
+
+    public void addStateListener(VehicleStateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    public void removeStateListener(VehicleStateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    /**
+     * Start a group of changes that listeners should see as one update, such
+     * as a journey changing fuel and mileage. Changes made until the matching
+     * endUpdate are reported together when it is called. Groups may nest.
+     */
+    public void beginUpdate() {
+        synchronized (updatedProperties) {
+            updateDepth++;
+        }
+    }
+
+    public void endUpdate() {
+        Set<VehicleProperty> changed;
+        synchronized (updatedProperties) {
+            if (--updateDepth > 0 || updatedProperties.isEmpty()) {
+                return;
+            }
+            changed = EnumSet.copyOf(updatedProperties);
+            updatedProperties.clear();
+        }
+        for (VehicleStateListener listener : stateListeners) {
+            listener.onStateChanged(this, changed);
+        }
+    }
+
+    // Subclasses call this after changing fuel, cargo, passengers or maintenance state.
+    protected void notifyStateChanged(VehicleProperty property) {
+        synchronized (updatedProperties) {
+            if (updateDepth > 0) {
+                updatedProperties.add(property);
+                return;
+            }
+        }
+        for (VehicleStateListener listener : stateListeners) {
+            listener.onStateChanged(this, property);
+        }
     }
 
     // getter method created for model.
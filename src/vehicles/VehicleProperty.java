@@ -0,0 +1,13 @@
+package vehicles;
+
+/**
+ * The parts of a vehicle's state that can change after construction.
+ * Reported to {@link VehicleStateListener}s whenever one of them is modified.
+ */
+public enum VehicleProperty {
+    MILEAGE,
+    FUEL,
+    CARGO,
+    PASSENGERS,
+    MAINTENANCE
+}
@@ -0,0 +1,21 @@
+package vehicles;
+
+import java.util.Set;
+
+/**
+ * Callback for components (e.g. FleetManager indexes) that need to follow
+ * changes to a vehicle's mutable state. Called after the change has been
+ * applied, on the thread that made it.
+ */
+@FunctionalInterface
+public interface VehicleStateListener {
+    void onStateChanged(Vehicle vehicle, VehicleProperty property);
+
+    // Called once at the end of a grouped update (see Vehicle.beginUpdate)
+    // with every property it changed. By default each is reported separately.
+    default void onStateChanged(Vehicle vehicle, Set<VehicleProperty> properties) {
+        for (VehicleProperty property : properties) {
+            onStateChanged(vehicle, property);
+        }
+    }
+}
@@ -5,6 +5,8 @@ package vehicles;
 //• Override: estimateJourneyTime(double distance): Add 15% time for currents (base time × 1.15).
 public abstract class WaterVehicle extends Vehicle {
 
+    public static final double JOURNEY_TIME_FACTOR = 1.15;
+
     private boolean hasSail;
 
     public WaterVehicle(String id, String model, double maxSpeed, double currentMileage, boolean hasSail) {
@@ -15,7 +17,7 @@ public abstract class WaterVehicle extends Vehicle {
     @Override
     public double estimateJourneyTime(double distance) {
         double basetime = distance / (getMaxSpeed());
-        return basetime * (1.15);
+        return basetime * JOURNEY_TIME_FACTOR;
     }
 
     public boolean getHasSail() {